@@ -14,6 +14,7 @@ val seleniumJavaVersion = "4.14.1"
 val seleniumJupiterVersion = "5.0.1"
 val webdrivermanagerVersion = "5.6.3"
 val junitJupiterVersion = "5.9.1"
+val jmhVersion = "1.37"
 
 java {
     toolchain {
@@ -21,10 +22,20 @@ java {
     }
 }
 
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
 configurations {
     compileOnly {
         extendsFrom(configurations.annotationProcessor.get())
     }
+    named("jmhImplementation") {
+        extendsFrom(configurations.implementation.get())
+    }
 }
 
 repositories {
@@ -45,6 +56,9 @@ dependencies {
     testImplementation("io.github.bonigarcia:selenium-jupiter:${seleniumJupiterVersion}")
     testImplementation("io.github.bonigarcia:webdrivermanager:${webdrivermanagerVersion}")
     testImplementation("org.junit.jupiter:junit-jupiter:${junitJupiterVersion}")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:${jmhVersion}")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:${jmhVersion}")
 }
 
 tasks.register<Test>("unitTest") {
@@ -65,6 +79,25 @@ tasks.register<Test>("functionalTest") {
     }
 }
 
+tasks.register<JavaExec>("jmh") {
+    description = "Runs JMH benchmarks with the GC profiler and writes JSON results to " +
+        "build/reports/jmh/results.json. Pass -PjmhIncludes=<regex> to select benchmarks."
+    group = "benchmark"
+
+    val resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args(
+        providers.gradleProperty("jmhIncludes").getOrElse(".*"),
+        "-prof", "gc",
+        "-rf", "json",
+        "-rff", resultsFile.get().asFile.absolutePath,
+    )
+    doFirst {
+        resultsFile.get().asFile.parentFile.mkdirs()
+    }
+}
+
 tasks.withType<Test>().configureEach {
     useJUnitPlatform()
 }
@@ -0,0 +1,57 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.compression.CompressingOutputStream;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of gzipping the rows of a {@code ROWS}-product list page at each deflate level, as the
+ * compression filter does for a page it has not cached; the bytes on the wire at each level are
+ * printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListCompressionBenchmark {
+    private static final int ROWS = 50_000;
+
+    @Param({"1", "4", "6", "9"})
+    public int level;
+
+    private byte[] page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        ListRows<Product> rows = ListRows.products(BenchmarkTemplates.engine());
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            Product product = new Product();
+            product.setId(new UUID(random.nextLong(), random.nextLong()).toString());
+            product.setProductName("Product number " + i);
+            product.setProductQuantity(random.nextInt(1000));
+            html.append(rows.apply(product));
+        }
+        page = html.toString().getBytes(StandardCharsets.UTF_8);
+        System.out.printf("%nlevel %d: %d bytes compressed to %d%n", level, page.length, compress().length);
+    }
+
+    @Benchmark
+    public byte[] compress() throws IOException {
+        CompressingOutputStream body = new CompressingOutputStream(level, 2048, Integer.MAX_VALUE,
+                (compressed, length) -> OutputStream.nullOutputStream());
+        body.write(page);
+        body.finish();
+        return body.compressed();
+    }
+}
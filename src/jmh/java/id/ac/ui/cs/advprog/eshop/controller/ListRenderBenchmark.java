@@ -0,0 +1,71 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the rows of a {@code ROWS}-product listing: every row anew ({@code uncached}, what the
+ * template's loop did), the same listing again ({@code unchanged}), and the listing after one of
+ * its products was edited ({@code oneEdited}). Run with {@code -prof gc} for the allocation per
+ * render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListRenderBenchmark {
+    private static final int ROWS = 10_000;
+
+    private ListRows<Product> rows;
+    private FragmentCache<Product> fragments;
+    private List<Product> items;
+    private int edits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rows = ListRows.products(BenchmarkTemplates.engine());
+        fragments = new FragmentCache<>(ROWS);
+        items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            items.add(product("p-" + i, i));
+        }
+        fragments.render(items, rows);
+    }
+
+    @Benchmark
+    public String uncached() {
+        StringBuilder html = new StringBuilder();
+        for (Product product : items) {
+            html.append(rows.apply(product));
+        }
+        return html.toString();
+    }
+
+    @Benchmark
+    public String unchanged() {
+        return fragments.render(items, rows);
+    }
+
+    @Benchmark
+    public String oneEdited() {
+        int index = edits++ % ROWS;
+        List<Product> edited = new ArrayList<>(items);
+        edited.set(index, product("p-" + index, edits));
+        items = edited;
+        return fragments.render(edited, rows);
+    }
+
+    private static Product product(String id, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+}
@@ -0,0 +1,135 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.FsyncPolicy;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.ProductCodec;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.RepositoryJournal;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.SnapshotStore;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.WriteAheadLog;
+import id.ac.ui.cs.advprog.eshop.service.ProductServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.ui.ConcurrentModel;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Load test of the two request execution modes: a burst of {@code REQUESTS} concurrent edit
+ * requests (load the edit page, post the edit, then spend {@code clientLatencyMillis} writing the
+ * response to a slow client) through {@link ProductController}, run either on a pool of
+ * {@code PLATFORM_THREADS} platform threads, the size of Tomcat's default pool, or on one virtual
+ * thread per request, as with {@code spring.threads.virtual.enabled=true}.
+ *
+ * <p>{@code fsync=ALWAYS} journals every edit and waits for the disk, the blocking repository I/O
+ * that persistence adds; {@code NONE} keeps the repository in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(RequestExecutionBenchmark.REQUESTS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestExecutionBenchmark {
+    static final int REQUESTS = 10_000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int PRODUCTS = 10_000;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public String threads;
+
+    @Param({"NONE", "ALWAYS"})
+    public String fsync;
+
+    @Param({"0", "20"})
+    public int clientLatencyMillis;
+
+    private ExecutorService executor;
+    private ProductController controller;
+    private RepositoryJournal<Product> journal;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ReflectiveOperationException {
+        executor = "VIRTUAL".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+
+        ProductRepository repository = new ProductRepository();
+        for (int i = 0; i < PRODUCTS; i++) {
+            repository.create(product("p-" + i, i));
+        }
+        if (!"NONE".equals(fsync)) {
+            directory = Files.createTempDirectory("request-benchmark");
+            journal = new RepositoryJournal<>(repository, new ProductCodec(),
+                    new WriteAheadLog(directory, "products", FsyncPolicy.valueOf(fsync), Duration.ofMillis(10)),
+                    new SnapshotStore(directory, "products"));
+            journal.recover();
+        }
+
+        ProductServiceImpl service = new ProductServiceImpl();
+        for (Field field : ProductServiceImpl.class.getDeclaredFields()) {
+            if (field.getType().isInstance(repository)) {
+                field.setAccessible(true);
+                field.set(service, repository);
+            }
+        }
+        controller = new ProductController(service, BenchmarkTemplates.engine());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        if (journal != null) {
+            journal.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void editBurst() throws InterruptedException, ExecutionException {
+        List<Future<String>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(executor.submit(this::edit));
+        }
+        for (Future<String> response : responses) {
+            response.get();
+        }
+    }
+
+    private String edit() throws InterruptedException {
+        int index = ThreadLocalRandom.current().nextInt(PRODUCTS);
+        controller.updateProductPage("p-" + index, new ConcurrentModel());
+        String view = controller.editProductPost(product("p-" + index, index + 1), new ConcurrentModel());
+        if (clientLatencyMillis > 0) {
+            Thread.sleep(clientLatencyMillis);
+        }
+        return view;
+    }
+
+    private static Product product(String id, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+}
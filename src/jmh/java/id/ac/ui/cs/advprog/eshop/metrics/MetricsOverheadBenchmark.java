@@ -0,0 +1,101 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import id.ac.ui.cs.advprog.eshop.controller.BenchmarkTemplates;
+import id.ac.ui.cs.advprog.eshop.controller.ProductController;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import id.ac.ui.cs.advprog.eshop.service.ProductServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.ui.ConcurrentModel;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the request metrics on the request path: listing a page of products (a cache hit) and
+ * editing one product through {@link ProductController}, with {@code instrumented=false} as the
+ * application runs with {@code eshop.metrics.enabled=false}, and {@code true} with the default
+ * sample periods: the service proxied by {@link ServiceTimingPostProcessor}, the repository timed
+ * through {@link ProductRepository#setMetrics} and the controller call timed as
+ * {@link HandlerTimingInterceptor} does.
+ *
+ * <p>The difference between the two is the overhead per request in nanoseconds. The handler is
+ * called directly, without the servlet container, Spring MVC dispatch and view rendering that a
+ * real request also pays for, so the overhead is a far larger share of these timings than of a
+ * request's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    private static final int PRODUCTS = 10_000;
+    private static final int REQUEST_SAMPLE_PERIOD = 1;
+    private static final int OPERATION_SAMPLE_PERIOD = 64;
+
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    private ProductController controller;
+    private OperationTimer listTimer = OperationTimer.disabled();
+    private OperationTimer editTimer = OperationTimer.disabled();
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        ProductRepository repository = new ProductRepository();
+        for (int i = 0; i < PRODUCTS; i++) {
+            repository.create(product("p-" + i, i));
+        }
+        ProductServiceImpl implementation = new ProductServiceImpl();
+        for (Field field : ProductServiceImpl.class.getDeclaredFields()) {
+            if (field.getType().isInstance(repository)) {
+                field.setAccessible(true);
+                field.set(implementation, repository);
+            }
+        }
+
+        ProductService service = implementation;
+        if (instrumented) {
+            MetricsRegistry registry = new MetricsRegistry();
+            repository.setMetrics(registry, OPERATION_SAMPLE_PERIOD);
+            service = (ProductService) new ServiceTimingPostProcessor(registry, OPERATION_SAMPLE_PERIOD)
+                    .postProcessAfterInitialization(implementation, "productService");
+            listTimer = registry.timer("controller", "ProductController.productListPage", REQUEST_SAMPLE_PERIOD);
+            editTimer = registry.timer("controller", "ProductController.editProductPost", REQUEST_SAMPLE_PERIOD);
+        }
+        controller = new ProductController(service, BenchmarkTemplates.engine());
+    }
+
+    @Benchmark
+    public String listPage() {
+        OperationTimer.Sample sample = listTimer.start();
+        try {
+            return controller.productListPage(null, 50, new ConcurrentModel());
+        } finally {
+            OperationTimer.stop(sample);
+        }
+    }
+
+    @Benchmark
+    public String edit() {
+        int index = ThreadLocalRandom.current().nextInt(PRODUCTS);
+        OperationTimer.Sample sample = editTimer.start();
+        try {
+            return controller.editProductPost(product("p-" + index, index + 1), new ConcurrentModel());
+        } finally {
+            OperationTimer.stop(sample);
+        }
+    }
+
+    private static Product product(String id, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+}
@@ -0,0 +1,46 @@
+package id.ac.ui.cs.advprog.eshop.repository.id;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create throughput with 32 threads when the repository assigns every id, for each
+ * {@link IdStrategy}, next to the cost of generating an id alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(32)
+public class IdGeneratorBenchmark {
+    @Param({"RANDOM_UUID", "TIME_ORDERED"})
+    public IdStrategy strategy;
+
+    private IdGenerator generator;
+    private ProductRepository repository;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        generator = strategy.newGenerator();
+        repository = new ProductRepository();
+        repository.setIdGenerator(generator);
+    }
+
+    @Benchmark
+    public String nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public Product create() {
+        Product product = new Product();
+        product.setProductName("Product");
+        product.setProductQuantity(1);
+        return repository.create(product);
+    }
+}
@@ -0,0 +1,87 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time-to-ready of a {@link ProductRepository} restored from disk, against entity count. Each entity
+ * has been edited {@code EDITS} times; {@code snapshot=false} replays that whole history from the
+ * log, {@code snapshot=true} loads a snapshot followed by a 1% log tail.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RecoveryBenchmark {
+    private static final int EDITS = 4;
+
+    @Param({"10000", "100000", "1000000"})
+    public int entities;
+
+    @Param({"false", "true"})
+    public boolean snapshot;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("recovery-benchmark");
+        ProductRepository repository = new ProductRepository();
+        try (RepositoryJournal<Product> journal = open(repository)) {
+            for (int edit = 0; edit < EDITS; edit++) {
+                for (int i = 0; i < entities; i++) {
+                    repository.create(product(i, edit));
+                }
+            }
+            if (snapshot) {
+                journal.snapshot();
+                for (int i = 0; i < entities / 100; i++) {
+                    repository.create(product(i, EDITS));
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public ProductRepository recover() throws IOException {
+        ProductRepository repository = new ProductRepository();
+        open(repository).close();
+        return repository;
+    }
+
+    private RepositoryJournal<Product> open(ProductRepository repository) throws IOException {
+        RepositoryJournal<Product> journal = new RepositoryJournal<>(repository, new ProductCodec(),
+                new WriteAheadLog(directory, "products", FsyncPolicy.OS, Duration.ZERO),
+                new SnapshotStore(directory, "products"));
+        journal.recover();
+        return journal;
+    }
+
+    private static Product product(int index, int quantity) {
+        Product product = new Product();
+        product.setId("p-" + index);
+        product.setProductName("Product " + index);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+}
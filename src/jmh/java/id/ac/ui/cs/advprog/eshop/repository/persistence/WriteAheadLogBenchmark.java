@@ -0,0 +1,78 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Product update throughput with the repository journaled under each {@link FsyncPolicy},
+ * against the plain in-memory repository ({@code NONE}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class WriteAheadLogBenchmark {
+    private static final int PRODUCTS = 10_000;
+
+    @Param({"NONE", "ALWAYS", "INTERVAL", "OS"})
+    public String policy;
+
+    private ProductRepository repository;
+    private RepositoryJournal<Product> journal;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        repository = new ProductRepository();
+        for (int i = 0; i < PRODUCTS; i++) {
+            repository.create(product(i, 0));
+        }
+        if (!"NONE".equals(policy)) {
+            directory = Files.createTempDirectory("wal-benchmark");
+            WriteAheadLog log = new WriteAheadLog(directory, "products",
+                    FsyncPolicy.valueOf(policy), Duration.ofMillis(10));
+            journal = new RepositoryJournal<>(repository, new ProductCodec(), log,
+                    new SnapshotStore(directory, "products"));
+            journal.recover();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Product update() {
+        int index = ThreadLocalRandom.current().nextInt(PRODUCTS);
+        return repository.update("p-" + index, product(index, index));
+    }
+
+    private static Product product(int index, int quantity) {
+        Product product = new Product();
+        product.setId("p-" + index);
+        product.setProductName("Product " + index);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+}
@@ -0,0 +1,55 @@
+package id.ac.ui.cs.advprog.eshop.repository.search;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link ProductRepository#search} at 1M products. Run in sample mode so JMH
+ * reports the p99 alongside the mean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SearchIndexBenchmark {
+    private static final String[] BRANDS = {"Sampo", "Sabun", "Kecap", "Sambal", "Teh", "Kopi", "Susu", "Roti"};
+    private static final String[] VARIANTS = {"Manis", "Pedas", "Original", "Bambang", "Usep", "Jumbo", "Mini"};
+
+    @Param({"1000000"})
+    public int entities;
+
+    @Param({"prefix", "substring", "typo"})
+    public String queryKind;
+
+    private ProductRepository repository;
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new ProductRepository();
+        for (int i = 0; i < entities; i++) {
+            Product product = new Product();
+            product.setId("p-" + i);
+            product.setProductName(BRANDS[i % BRANDS.length] + " " + VARIANTS[(i / 8) % VARIANTS.length] + " " + i);
+            product.setProductQuantity(i);
+            repository.create(product);
+        }
+        queries = switch (queryKind) {
+            case "prefix" -> new String[] {"samp", "kec", "roti o", "12345"};
+            case "substring" -> new String[] {"ambal", "ecap pe", "2345", "usu jum"};
+            default -> new String[] {"bambamg", "kecpa manis", "sambel", "originl"};
+        };
+    }
+
+    @Benchmark
+    public List<Product> search() {
+        return repository.search(queries[ThreadLocalRandom.current().nextInt(queries.length)], 20);
+    }
+}
@@ -0,0 +1,45 @@
+package id.ac.ui.cs.advprog.eshop.repository.stock;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservation throughput on one product, through the locked path ({@code hot = false}) and
+ * through {@link StripedStock} after {@code markHot} ({@code hot = true}). Subclasses fix the
+ * number of benchmark threads; compare the two to see how each scales with cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class HotStockBenchmark {
+    private static final String ID = "hot";
+
+    @Param({"false", "true"})
+    public boolean hot;
+
+    private ProductRepository repository;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repository = new ProductRepository();
+        Product product = new Product();
+        product.setId(ID);
+        product.setProductName("Flash sale");
+        product.setProductQuantity(Integer.MAX_VALUE);
+        repository.create(product);
+        if (hot) {
+            repository.markHot(ID);
+        }
+    }
+
+    @Benchmark
+    public Product reserve() {
+        return repository.reserve(ID, 1);
+    }
+}
@@ -0,0 +1,10 @@
+package id.ac.ui.cs.advprog.eshop.repository.stock;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link HotStockBenchmark} on one thread per available processor, all reserving the same product.
+ */
+@Threads(Threads.MAX)
+public class HotStockMultiThreadBenchmark extends HotStockBenchmark {
+}
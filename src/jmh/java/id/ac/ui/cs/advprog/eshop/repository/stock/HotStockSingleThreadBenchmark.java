@@ -0,0 +1,10 @@
+package id.ac.ui.cs.advprog.eshop.repository.stock;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link HotStockBenchmark} on one thread: what the striped path costs without contention.
+ */
+@Threads(1)
+public class HotStockSingleThreadBenchmark extends HotStockBenchmark {
+}
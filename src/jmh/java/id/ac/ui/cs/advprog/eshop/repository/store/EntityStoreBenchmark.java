@@ -0,0 +1,124 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full scans and id lookups over each {@link StorageLayout}, plus summing quantities, which the
+ * columnar and off-heap layouts answer without building entities. The trial setup also prints
+ * the heap retained per entity, measured as the difference in used heap after a full GC before
+ * and after filling the store, and the direct memory used per entity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EntityStoreBenchmark {
+    @Param({"OBJECTS", "COLUMNAR", "OFF_HEAP", "MAPPED"})
+    public StorageLayout layout;
+
+    @Param({"1000000"})
+    public int entities;
+
+    private EntityStore<Product> store;
+    private Path directory;
+    private String[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        long before = usedHeapAfterGc();
+        long directBefore = directMemoryUsed();
+        directory = layout == StorageLayout.MAPPED ? Files.createTempDirectory("entity-store-benchmark") : null;
+        store = switch (layout) {
+            case OBJECTS -> new ObjectStore<>();
+            case COLUMNAR -> new ProductColumnarStore();
+            case OFF_HEAP -> new ProductOffHeapStore();
+            case MAPPED -> new ProductMappedStore(directory);
+        };
+        ids = new String[entities];
+        for (int i = 0; i < entities; i++) {
+            Product product = new Product();
+            product.setId("b3c1a2d4-0000-7000-8000-" + String.format("%012d", i));
+            product.setProductName("Product number " + i);
+            product.setProductQuantity(i);
+            store.put(i + 1L, product);
+        }
+        long retained = usedHeapAfterGc() - before;
+        long direct = directMemoryUsed() - directBefore;
+        for (int i = 0; i < entities; i++) {
+            ids[i] = store.find("b3c1a2d4-0000-7000-8000-" + String.format("%012d", i)).entity().getId();
+        }
+        System.out.printf("%n%s: %d heap and %d direct bytes retained per entity%n",
+                layout, retained / entities, direct / entities);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public long scanEntities() {
+        long sum = 0;
+        Iterator<Product> it = store.iterator(entities);
+        while (it.hasNext()) {
+            sum += it.next().getProductQuantity();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long totalQuantity() {
+        return switch (store) {
+            case ProductColumnarStore columnar -> columnar.totalQuantity();
+            case ProductOffHeapStore offHeap -> offHeap.totalQuantity();
+            default -> scanEntities();
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void findById(Blackhole blackhole) {
+        for (int i = 0; i < 1_000; i++) {
+            blackhole.consume(store.find(ids[next]));
+            next = next + 1 == entities ? 0 : next + 1;
+        }
+    }
+
+    private static long directMemoryUsed() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
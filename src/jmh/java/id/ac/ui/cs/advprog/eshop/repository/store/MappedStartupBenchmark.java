@@ -0,0 +1,76 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time-to-ready of a {@link CarRepository} reopened on existing {@link StorageLayout#MAPPED} files:
+ * {@code open} only constructs the repository, {@code openAndServe} also answers a first lookup
+ * and a first listing page, as the first requests after a restart would. Compare with
+ * {@code RecoveryBenchmark}, which restores from the write-ahead log and snapshots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MappedStartupBenchmark {
+    @Param({"1000000", "10000000"})
+    public int cars;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mapped-startup-benchmark");
+        // Filled through the store directly, so the repository's search index is not built
+        try (CarMappedStore store = new CarMappedStore(directory)) {
+            for (int i = 0; i < cars; i++) {
+                store.put(i + 1L, car(i));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public CarRepository open() throws IOException {
+        CarRepository repository = new CarRepository(StorageLayout.MAPPED, directory);
+        repository.close();
+        return repository;
+    }
+
+    @Benchmark
+    public Page<Car> openAndServe() throws IOException {
+        try (CarRepository repository = new CarRepository(StorageLayout.MAPPED, directory)) {
+            repository.findById("car-" + cars / 2);
+            return repository.findPage(null, 20);
+        }
+    }
+
+    private static Car car(int index) {
+        Car car = new Car();
+        car.setId("car-" + index);
+        car.setCarName("Car " + index);
+        car.setCarColor(index % 2 == 0 ? "Red" : "Blue");
+        car.setCarQuantity(index % 100);
+        return car;
+    }
+}
@@ -0,0 +1,219 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.BaseRepository;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.service.base.ReadService;
+import id.ac.ui.cs.advprog.eshop.service.base.WriteService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Create, findById, update, delete and findAll throughput against entity count, for the bare
+ * {@link BaseRepository} (through {@link ProductRepository}) and for both service implementations.
+ * Subclasses fix the number of benchmark threads; run with {@code -prof gc} to see allocation per
+ * operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public abstract class CrudBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int entities;
+
+    @Param({"ProductRepository", "ProductServiceImpl", "CarServiceImpl"})
+    public String target;
+
+    private Crud crud;
+    private final AtomicLong created = new AtomicLong();
+
+    /**
+     * The operations under test, so repositories and services share one set of benchmarks.
+     */
+    private interface Crud {
+        void create(String id, int value);
+
+        Object findById(String id);
+
+        void update(String id, int value);
+
+        void delete(String id);
+
+        Iterator<?> findAll();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        crud = switch (target) {
+            case "ProductRepository" -> repositoryCrud(new ProductRepository());
+            case "ProductServiceImpl" -> serviceCrud(inject(new ProductServiceImpl(), new ProductRepository()),
+                    CrudBenchmark::product);
+            case "CarServiceImpl" -> serviceCrud(inject(new CarServiceImpl(), new CarRepository()),
+                    CrudBenchmark::car);
+            default -> throw new IllegalArgumentException("Unknown benchmark target " + target);
+        };
+        for (int i = 0; i < entities; i++) {
+            crud.create(existingId(i), i);
+        }
+    }
+
+    /**
+     * Removes the entities added by {@link #create()}, so every iteration starts from
+     * {@code entities} entries.
+     */
+    @TearDown(Level.Iteration)
+    public void removeCreated() {
+        for (long i = created.getAndSet(0); i > 0; i--) {
+            crud.delete("new-" + i);
+        }
+    }
+
+    @Benchmark
+    public void create() {
+        long next = created.incrementAndGet();
+        crud.create("new-" + next, (int) next);
+    }
+
+    @Benchmark
+    public Object findById() {
+        return crud.findById(randomExistingId());
+    }
+
+    @Benchmark
+    public void update() {
+        crud.update(randomExistingId(), ThreadLocalRandom.current().nextInt());
+    }
+
+    /**
+     * Deletes a random entity and puts it back, keeping the population at {@code entities};
+     * subtract {@link #create()} to isolate the delete.
+     */
+    @Benchmark
+    public void delete() {
+        int index = ThreadLocalRandom.current().nextInt(entities);
+        crud.delete(existingId(index));
+        crud.create(existingId(index), index);
+    }
+
+    @Benchmark
+    public void findAll(Blackhole blackhole) {
+        Iterator<?> iterator = crud.findAll();
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    private String randomExistingId() {
+        return existingId(ThreadLocalRandom.current().nextInt(entities));
+    }
+
+    private static String existingId(int index) {
+        return "e-" + index;
+    }
+
+    private static Crud repositoryCrud(ProductRepository repository) {
+        return new Crud() {
+            @Override
+            public void create(String id, int value) {
+                repository.create(product(id, value));
+            }
+
+            @Override
+            public Object findById(String id) {
+                return repository.findById(id);
+            }
+
+            @Override
+            public void update(String id, int value) {
+                repository.update(id, product(id, value));
+            }
+
+            @Override
+            public void delete(String id) {
+                repository.delete(id);
+            }
+
+            @Override
+            public Iterator<?> findAll() {
+                return repository.findAll();
+            }
+        };
+    }
+
+    private static <T, S extends ReadService<T> & WriteService<T>> Crud serviceCrud(S service,
+                                                                                EntityFactory<T> factory) {
+        return new Crud() {
+            @Override
+            public void create(String id, int value) {
+                service.create(factory.build(id, value));
+            }
+
+            @Override
+            public Object findById(String id) {
+                return service.findById(id);
+            }
+
+            @Override
+            public void update(String id, int value) {
+                service.update(id, factory.build(id, value));
+            }
+
+            @Override
+            public void delete(String id) {
+                service.deleteById(id);
+            }
+
+            @Override
+            public Iterator<?> findAll() {
+                return service.findAll().iterator();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface EntityFactory<T> {
+        T build(String id, int value);
+    }
+
+    /**
+     * Sets the service's {@code @Autowired} repository field, standing in for Spring.
+     */
+    private static <S> S inject(S service, BaseRepository<?> repository) throws ReflectiveOperationException {
+        for (Field field : service.getClass().getDeclaredFields()) {
+            if (field.getType().isInstance(repository)) {
+                field.setAccessible(true);
+                field.set(service, repository);
+            }
+        }
+        return service;
+    }
+
+    private static Product product(String id, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    private static Car car(String id, int quantity) {
+        Car car = new Car();
+        car.setId(id);
+        car.setCarName("Car " + id);
+        car.setCarColor("Red");
+        car.setCarQuantity(quantity);
+        return car;
+    }
+}
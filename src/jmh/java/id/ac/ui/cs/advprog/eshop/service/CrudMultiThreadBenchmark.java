@@ -0,0 +1,11 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link CrudBenchmark} on eight threads sharing one repository, exposing lock striping and
+ * skip-list contention.
+ */
+@Threads(8)
+public class CrudMultiThreadBenchmark extends CrudBenchmark {
+}
@@ -0,0 +1,10 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link CrudBenchmark} on one thread: the uncontended cost of each operation.
+ */
+@Threads(1)
+public class CrudSingleThreadBenchmark extends CrudBenchmark {
+}
@@ -0,0 +1,67 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LRU cache of compressed response bodies, bounded by their total size and keyed by what
+ * identifies their bytes: the URL, the strong ETag the handler gave the response and the level it
+ * was compressed at. An entry is never invalidated; once a write changes the ETag, its entries are
+ * no longer asked for and age out.
+ */
+public class CompressedResponseCache {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maximumBytes;
+    private long bytes;
+
+    /**
+     * @param maximumBytes the total size of the bodies kept; 0 keeps none
+     */
+    public CompressedResponseCache(int maximumBytes) {
+        if (maximumBytes < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative.");
+        }
+        this.maximumBytes = maximumBytes;
+    }
+
+    public static String key(String url, String etag, int level) {
+        return level + " " + etag + " " + url;
+    }
+
+    /**
+     * The largest body worth offering to {@link #put}.
+     */
+    public int maximumBytes() {
+        return maximumBytes;
+    }
+
+    public byte[] get(String key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(String key, byte[] compressed) {
+        if (compressed.length > maximumBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            byte[] replaced = entries.put(key, compressed);
+            bytes += compressed.length - (replaced == null ? 0 : replaced.length);
+            Iterator<byte[]> eldest = entries.values().iterator();
+            while (bytes > maximumBytes) {
+                bytes -= eldest.next().length;
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body that is gzipped as it is written once it has grown to a threshold, and sent as
+ * it is if it ends smaller. Only the bytes below the threshold are held back; past it the body
+ * streams through the compressor to the client.
+ *
+ * <p>Whether the body is compressed is settled once, by opening the {@link Sink}: when the
+ * threshold is reached, or when the body is finished below it. Until then nothing reaches the
+ * client, so the response headers can still be changed.
+ *
+ * <p>Up to a given size, the compressed bytes are also kept, so a cache can send them again
+ * without compressing the same body twice.
+ */
+public class CompressingOutputStream extends OutputStream {
+    private static final int BUFFER_BYTES = 1 << 13;
+
+    /**
+     * Where the body goes once it is known whether it is compressed.
+     */
+    public interface Sink {
+        /**
+         * @param compressed whether gzip bytes follow
+         * @param length     the length of the uncompressed body, or -1 when it is compressed
+         */
+        OutputStream open(boolean compressed, long length) throws IOException;
+    }
+
+    private final int level;
+    private final int threshold;
+    private final int maxRetained;
+    private final Sink sink;
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private LeveledGzipStream gzip;
+    private ByteArrayOutputStream retained;
+    private boolean finished;
+
+    /**
+     * @param level       the deflate level, 1 to 9
+     * @param threshold   bodies smaller than this many bytes are not compressed
+     * @param maxRetained the compressed bytes are kept if no more than this many; 0 keeps none
+     */
+    public CompressingOutputStream(int level, int threshold, int maxRetained, Sink sink) {
+        this.level = level;
+        this.threshold = threshold;
+        this.maxRetained = maxRetained;
+        this.sink = sink;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (finished) {
+            throw new IOException("Response body already finished.");
+        }
+        if (gzip != null) {
+            gzip.write(bytes, offset, length);
+            return;
+        }
+        pending.write(bytes, offset, length);
+        if (pending.size() >= threshold) {
+            startCompressing();
+        }
+    }
+
+    /**
+     * Passes on what has been compressed so far; a body still below the threshold stays held back.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (gzip != null && !finished) {
+            gzip.flush();
+        }
+    }
+
+    /**
+     * Sends what is held back or finishes the gzip stream. The stream of the sink is left open.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (gzip == null) {
+            OutputStream out = sink.open(false, pending.size());
+            pending.writeTo(out);
+            pending = null;
+            return;
+        }
+        try {
+            gzip.finish();
+        } finally {
+            gzip.release();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+
+    /**
+     * The whole compressed body, if it was compressed, is finished and was small enough to keep;
+     * {@code null} otherwise.
+     */
+    public byte[] compressed() {
+        return finished && retained != null ? retained.toByteArray() : null;
+    }
+
+    private void startCompressing() throws IOException {
+        OutputStream out = sink.open(true, -1);
+        if (maxRetained > 0) {
+            retained = new ByteArrayOutputStream();
+        }
+        gzip = new LeveledGzipStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+                if (retained != null) {
+                    if (retained.size() + length > maxRetained) {
+                        retained = null;
+                    } else {
+                        retained.write(bytes, offset, length);
+                    }
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+        }, level);
+        pending.writeTo(gzip);
+        pending = null;
+    }
+
+    private static final class LeveledGzipStream extends GZIPOutputStream {
+        LeveledGzipStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_BYTES);
+            def.setLevel(level);
+        }
+
+        // finish() leaves the deflater's native memory to the garbage collector; close() would
+        // free it, but also close the response
+        void release() {
+            def.end();
+        }
+    }
+}
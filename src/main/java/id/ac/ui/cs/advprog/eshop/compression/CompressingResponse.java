@@ -0,0 +1,238 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Gzips the body of a successful response whose content type the {@link CompressionPolicy} names,
+ * for a client that accepts gzip. What to do is settled when the handler first asks for the body's
+ * stream or writer, by which point it has set the content type and, for a versioned page, the ETag.
+ *
+ * <p>A compressed response gets a weak ETag, as the compressed bytes are not those the strong tag
+ * named; conditional requests still match it, as {@code If-None-Match} compares weakly. A response
+ * with a strong ETag whose compressed bytes are cached is answered from the cache: the handler
+ * still renders the page, but its output is dropped instead of compressed again.
+ */
+final class CompressingResponse extends HttpServletResponseWrapper {
+    private final CompressionPolicy policy;
+    private final boolean acceptsGzip;
+    private final CompressedResponseCache cache;
+    private final String url;
+
+    private boolean decided;
+    private CompressingOutputStream body;
+    private byte[] cached;
+    private String cacheKey;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+    private Long declaredLength;
+
+    CompressingResponse(HttpServletResponse response, CompressionPolicy policy, boolean acceptsGzip,
+                        CompressedResponseCache cache, String url) {
+        super(response);
+        this.policy = policy;
+        this.acceptsGzip = acceptsGzip;
+        this.cache = cache;
+        this.url = url;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response.");
+        }
+        decide();
+        if (!compressing()) {
+            return super.getOutputStream();
+        }
+        if (stream == null) {
+            stream = new BodyStream(cached != null ? OutputStream.nullOutputStream() : body);
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (stream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called for this response.");
+        }
+        decide();
+        if (!compressing()) {
+            return super.getWriter();
+        }
+        if (writer == null) {
+            OutputStream out = cached != null ? OutputStream.nullOutputStream() : body;
+            writer = new PrintWriter(new OutputStreamWriter(out, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (body != null) {
+            body.flush();
+        } else if (!compressing()) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void setContentLength(int length) {
+        setContentLengthLong(length);
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        if (decided && !compressing()) {
+            super.setContentLengthLong(length);
+        } else {
+            // Only true of the body if it is not compressed after all
+            declaredLength = length;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && value != null) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && value != null) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    /**
+     * Completes the body once the handler is done with it: sends the cached or held-back bytes,
+     * or ends the gzip stream, and keeps newly compressed bytes for the next request.
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (cached != null) {
+            startGzip();
+            super.setContentLengthLong(cached.length);
+            super.getOutputStream().write(cached);
+        } else if (body != null) {
+            body.finish();
+            byte[] compressed = body.compressed();
+            if (cacheKey != null && compressed != null) {
+                cache.put(cacheKey, compressed);
+            }
+        } else if (!decided && declaredLength != null) {
+            super.setContentLengthLong(declaredLength);
+        }
+    }
+
+    private boolean compressing() {
+        return body != null || cached != null;
+    }
+
+    private void decide() {
+        if (decided) {
+            return;
+        }
+        decided = true;
+        int level = getStatus() == SC_OK && getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                ? policy.level(getContentType())
+                : CompressionPolicy.NONE;
+        if (level != CompressionPolicy.NONE) {
+            varyOnAcceptEncoding();
+        }
+        if (level == CompressionPolicy.NONE || !acceptsGzip) {
+            if (declaredLength != null) {
+                super.setContentLengthLong(declaredLength);
+            }
+            return;
+        }
+        String etag = getHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.startsWith("W/") && cache.maximumBytes() > 0) {
+            cacheKey = CompressedResponseCache.key(url, etag, level);
+            cached = cache.get(cacheKey);
+        }
+        if (cached == null) {
+            body = new CompressingOutputStream(level, policy.minResponseSize(),
+                    cacheKey == null ? 0 : cache.maximumBytes(), this::open);
+        }
+    }
+
+    private OutputStream open(boolean compressed, long length) throws IOException {
+        if (compressed) {
+            startGzip();
+        } else {
+            super.setContentLengthLong(length);
+        }
+        return super.getOutputStream();
+    }
+
+    private void startGzip() {
+        super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        String etag = getHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.startsWith("W/")) {
+            super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+        }
+    }
+
+    private void varyOnAcceptEncoding() {
+        for (String vary : getHeaders(HttpHeaders.VARY)) {
+            if (vary.toLowerCase(Locale.ROOT).contains("accept-encoding") || vary.trim().equals("*")) {
+                return;
+            }
+        }
+        super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    private static final class BodyStream extends ServletOutputStream {
+        private final OutputStream out;
+
+        BodyStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            throw new UnsupportedOperationException("Compressed responses are written blocking.");
+        }
+    }
+}
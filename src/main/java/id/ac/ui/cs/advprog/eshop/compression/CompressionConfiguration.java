@@ -0,0 +1,32 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gzips HTML pages and sets how hard catalog exports are compressed, with a level per content
+ * type from {@code eshop.compression.levels}, unless {@code eshop.compression.enabled} is
+ * {@code false}, in which case exports keep the deflater's default level and pages go out as
+ * they are.
+ */
+@Configuration
+@EnableConfigurationProperties(CompressionProperties.class)
+@RequiredArgsConstructor
+public class CompressionConfiguration {
+
+    private final CompressionProperties properties;
+
+    @Bean
+    public FilterRegistrationBean<CompressionFilter> compressionFilter() {
+        CompressionPolicy policy = new CompressionPolicy(properties.getLevels(),
+                Math.toIntExact(properties.getMinResponseSize().toBytes()));
+        CompressionFilter filter = new CompressionFilter(policy,
+                new CompressedResponseCache(Math.toIntExact(properties.getCacheSize().toBytes())));
+        FilterRegistrationBean<CompressionFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(properties.isEnabled());
+        return registration;
+    }
+}
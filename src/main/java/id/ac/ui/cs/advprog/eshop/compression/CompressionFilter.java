@@ -0,0 +1,94 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+/**
+ * Gzips GET responses as {@link CompressingResponse} describes, and keeps the compressed bytes of
+ * pages with a strong ETag in a {@link CompressedResponseCache} so an unchanged page is not
+ * compressed again. Responses that set their own {@code Content-Encoding}, such as catalog
+ * exports, are left alone; they can ask {@link #level} how hard to compress.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+    private static final String POLICY = CompressionFilter.class.getName() + ".policy";
+
+    private final CompressionPolicy policy;
+    private final CompressedResponseCache cache;
+
+    public CompressionFilter(CompressionPolicy policy, CompressedResponseCache cache) {
+        this.policy = policy;
+        this.cache = cache;
+    }
+
+    /**
+     * The deflate level for a body of {@code contentType} that a handler compresses itself, or
+     * {@link CompressionPolicy#NONE} if it should not be compressed. Without this filter in front
+     * of the request, the deflater's default level.
+     */
+    public static int level(HttpServletRequest request, String contentType) {
+        return request.getAttribute(POLICY) instanceof CompressionPolicy policy
+                ? policy.level(contentType)
+                : Deflater.DEFAULT_COMPRESSION;
+    }
+
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        request.setAttribute(POLICY, policy);
+        if (!"GET".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String url = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        CompressingResponse compressing = new CompressingResponse(response, policy,
+                acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)), cache, url);
+        chain.doFilter(request, compressing);
+        if (!request.isAsyncStarted()) {
+            compressing.finish();
+            return;
+        }
+        // A streamed response is written on another thread; finish it when that is done
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) throws IOException {
+                compressing.finish();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Which responses are gzipped and how hard: a deflate level (1, fastest, to 9, smallest) for each
+ * compressed media type, and the size a body must reach before it is compressed at all.
+ */
+public class CompressionPolicy {
+    /**
+     * The level of media types that are not compressed.
+     */
+    public static final int NONE = -1;
+
+    private final Map<String, Integer> levels = new HashMap<>();
+    private final int minResponseSize;
+
+    /**
+     * @param levels          deflate level by media type, such as {@code text/html}
+     * @param minResponseSize bodies smaller than this many bytes are sent as they are
+     */
+    public CompressionPolicy(Map<String, Integer> levels, int minResponseSize) {
+        if (minResponseSize < 0) {
+            throw new IllegalArgumentException("Minimum response size must not be negative.");
+        }
+        levels.forEach((type, level) -> {
+            if (level < 1 || level > 9) {
+                throw new IllegalArgumentException("Compression level of " + type + " must be between 1 and 9.");
+            }
+            this.levels.put(mediaType(type), level);
+        });
+        this.minResponseSize = minResponseSize;
+    }
+
+    /**
+     * The level to compress a body of {@code contentType} with (parameters such as the charset are
+     * ignored), or {@link #NONE}.
+     */
+    public int level(String contentType) {
+        if (contentType == null) {
+            return NONE;
+        }
+        return levels.getOrDefault(mediaType(contentType), NONE);
+    }
+
+    public int minResponseSize() {
+        return minResponseSize;
+    }
+
+    private static String mediaType(String contentType) {
+        int parameters = contentType.indexOf(';');
+        return (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+    }
+}
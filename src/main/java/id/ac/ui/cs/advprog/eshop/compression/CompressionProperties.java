@@ -0,0 +1,21 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "eshop.compression")
+public class CompressionProperties {
+    private boolean enabled = true;
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+    private Map<String, Integer> levels = new LinkedHashMap<>(Map.of(
+            "text/html", 1,
+            "text/csv", 6,
+            "application/x-ndjson", 6));
+    private DataSize cacheSize = DataSize.ofMegabytes(16);
+}
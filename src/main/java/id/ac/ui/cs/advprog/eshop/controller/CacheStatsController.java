@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import id.ac.ui.cs.advprog.eshop.service.cache.CacheStats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cache")
+@RequiredArgsConstructor
+public class CacheStatsController {
+    private final ProductService productService;
+    private final CarService carService;
+
+    @GetMapping("/stats")
+    public Map<String, CacheStats> cacheStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("products", productService.cacheStats());
+        stats.put("cars", carService.cacheStats());
+        return stats;
+    }
+}
@@ -1,21 +1,35 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.export.CatalogWriter;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.thymeleaf.ITemplateEngine;
 
+import java.io.IOException;
 import java.util.List;
 
 @Controller
 @RequestMapping("/car")
-@RequiredArgsConstructor
 class CarController {
+    static final int MAX_PAGE_SIZE = 500;
 
     private final CarService service;
+    private final ListRows<Car> listRows;
+    private final FragmentCache<Car> rows = new FragmentCache<>(ListRows.CACHE_SIZE);
+    private final CatalogExport<Car> export = new CatalogExport<>(CatalogWriter.CARS, "cars");
+
+    CarController(CarService service, ITemplateEngine templateEngine) {
+        this.service = service;
+        this.listRows = ListRows.cars(templateEngine);
+    }
 
     @GetMapping("/createCar")
     public String createCarPage(Model model) {
@@ -31,14 +45,44 @@ class CarController {
     }
 
     @GetMapping("/listCar")
-    public String carListPage(Model model){
-        List<Car> allCars = service.findAll();
-        model.addAttribute("cars", allCars);
+    public String carListPage(@RequestParam(name="cursor", required=false) String cursor,
+                              @RequestParam(name="size", defaultValue="50") int size,
+                              WebRequest request, Model model){
+        if (VersionETag.notModified(request, service)) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        try {
+            Page<Car> page = service.findPage(cursor, pageSize);
+            model.addAttribute("cars", page.items());
+            model.addAttribute("rows", rows.render(page.items(), listRows));
+            model.addAttribute("nextCursor", page.nextCursor());
+            model.addAttribute("pageSize", pageSize);
+            return "CarList";
+        } catch (IllegalArgumentException e) {
+            return "redirect:listCar";
+        }
+    }
+
+    @GetMapping("/search")
+    public String searchCarPage(@RequestParam(name="q", defaultValue="") String query,
+                                @RequestParam(name="size", defaultValue="50") int size,
+                                WebRequest request, Model model){
+        if (VersionETag.notModified(request, service)) {
+            return null;
+        }
+        List<Car> results = service.search(query, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        model.addAttribute("cars", results);
+        model.addAttribute("rows", rows.render(results, listRows));
+        model.addAttribute("query", query);
         return "CarList";
     }
 
     @GetMapping("/editCar/{carId}")
-    public String editCarPage(@PathVariable String carId, Model model) {
+    public String editCarPage(@PathVariable String carId, WebRequest request, Model model) {
+        if (VersionETag.notModified(request, service, carId)) {
+            return null;
+        }
         Car car = service.findById(carId);
         model.addAttribute("car", car);
         return "EditCar";
@@ -57,4 +101,10 @@ class CarController {
         service.deleteById(carId);
         return "redirect:listCar";
     }
-}
\ No newline at end of file
+
+    @GetMapping("/export")
+    public void exportCars(@RequestParam(name="format", defaultValue="csv") String format,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        export.respond(request, response, service, format);
+    }
+}
@@ -0,0 +1,277 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.compression.CompressionFilter;
+import id.ac.ui.cs.advprog.eshop.compression.CompressionPolicy;
+import id.ac.ui.cs.advprog.eshop.service.base.ReadService;
+import id.ac.ui.cs.advprog.eshop.service.export.CatalogWriter;
+import id.ac.ui.cs.advprog.eshop.service.importer.RecordFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a whole catalog from the repository iteration to the response, with gzip when the client
+ * accepts it (at the level {@link CompressionFilter} gives the format) and single byte ranges for
+ * resuming an interrupted download.
+ *
+ * <p>The representation is identified by a strong {@link VersionETag} of the repository version,
+ * the format and the encoding. A range is only served against an unchanged catalog: an
+ * {@code If-Range} that does not match yields the full export, and a write that lands while a range
+ * is being sent aborts the response, so a resumed download never mixes two versions.
+ *
+ * <p>A range needs the length of the whole export, which is only known once it has been produced.
+ * The length of each representation is remembered once a full export or a counting pass has
+ * produced it, so resuming the same download again only produces the export up to the range.
+ */
+final class CatalogExport<T> {
+    private static final int BUFFER_BYTES = 1 << 16;
+    // Lengths of this many representations are remembered; older versions make way for newer ones
+    private static final int KNOWN_LENGTHS = 16;
+
+    record ByteRange(long first, long last) { }
+
+    private record Representation(String etag, int level) { }
+
+    private final CatalogWriter<T> writer;
+    private final String baseName;
+    private final ConcurrentMap<Representation, Long> lengths = new ConcurrentHashMap<>();
+
+    CatalogExport(CatalogWriter<T> writer, String baseName) {
+        this.writer = writer;
+        this.baseName = baseName;
+    }
+
+    void respond(HttpServletRequest request, HttpServletResponse response, ReadService<T> service, String format)
+            throws IOException {
+        RecordFormat recordFormat;
+        try {
+            recordFormat = RecordFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format " + format + ".");
+            return;
+        }
+        int level = CompressionFilter.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                ? CompressionFilter.level(request, recordFormat.mediaType())
+                : CompressionPolicy.NONE;
+        boolean gzip = level != CompressionPolicy.NONE;
+        long version = service.version();
+        String etag = VersionETag.of(version, recordFormat.name().toLowerCase(Locale.ROOT) + (gzip ? "-gzip" : ""));
+
+        response.setContentType(recordFormat.mediaType() + (recordFormat == RecordFormat.CSV ? ";charset=UTF-8" : ""));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + baseName + "."
+                + (recordFormat == RecordFormat.CSV ? "csv" : "ndjson") + "\"");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        Representation representation = new Representation(etag, level);
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range == null || (ifRange != null && !ifRange.equals(etag))) {
+            writeWhole(service, recordFormat, level, response.getOutputStream(), representation, version);
+            return;
+        }
+
+        Long known = lengths.get(representation);
+        long length;
+        if (known != null) {
+            length = known;
+        } else {
+            CountingOutputStream counter = new CountingOutputStream(OutputStream.nullOutputStream());
+            write(service, recordFormat, level, counter);
+            length = counter.count;
+            remember(service, representation, version, length);
+        }
+        ByteRange requested = parseRange(range, length);
+        if (service.version() != version || requested == null) {
+            // Changed since the ETag was issued, or a range form we do not serve: send everything
+            write(service, recordFormat, level, response.getOutputStream());
+            return;
+        }
+        if (requested.first() >= length) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        long last = Math.min(requested.last(), length - 1);
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + requested.first() + "-" + last + "/" + length);
+        response.setContentLengthLong(last - requested.first() + 1);
+        RangeOutputStream slice = new RangeOutputStream(response.getOutputStream(), requested.first(), last,
+                service, version);
+        try {
+            write(service, recordFormat, level, slice);
+        } catch (RangeComplete e) {
+            // The rest of the export lies past the requested range
+        }
+        slice.flush();
+    }
+
+    /**
+     * Writes the whole export, remembering its length if the catalog did not change meanwhile.
+     */
+    private void writeWhole(ReadService<T> service, RecordFormat format, int level, OutputStream target,
+                            Representation representation, long version) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream(target);
+        write(service, format, level, counter);
+        remember(service, representation, version, counter.count);
+    }
+
+    private void remember(ReadService<T> service, Representation representation, long version, long length) {
+        if (service.version() != version) {
+            return;
+        }
+        if (lengths.size() >= KNOWN_LENGTHS) {
+            lengths.clear();
+        }
+        lengths.put(representation, length);
+    }
+
+    private void write(ReadService<T> service, RecordFormat format, int level, OutputStream target)
+            throws IOException {
+        OutputStream out = new BufferedOutputStream(new FilterOutputStream(target) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        }, BUFFER_BYTES);
+        if (level != CompressionPolicy.NONE) {
+            out = new GZIPOutputStream(out, BUFFER_BYTES) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+        try (Stream<T> entities = service.streamAll()) {
+            writer.write(entities.iterator(), format, out);
+        }
+        // Finishes the gzip trailer and flushes, leaving the response stream open
+        out.close();
+    }
+
+    /**
+     * Parses a single {@code bytes=first-last}, {@code bytes=first-} or {@code bytes=-suffix}
+     * range; returns {@code null} for anything else, which is answered with the full export.
+     */
+    static ByteRange parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                return suffix <= 0 ? null : new ByteRange(Math.max(0, length - suffix), length - 1);
+            }
+            long first = Long.parseLong(spec.substring(0, dash));
+            String end = spec.substring(dash + 1);
+            long last = end.isEmpty() ? Long.MAX_VALUE : Long.parseLong(end);
+            return first < 0 || last < first ? null : new ByteRange(first, last);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream target;
+        private long count;
+
+        CountingOutputStream(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            target.write(bytes, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+    }
+
+    private static final class RangeComplete extends IOException {
+        @Override
+        public Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * Passes on bytes {@code first..last} of what is written to it, stops the export once past
+     * {@code last}, and fails if the catalog changes meanwhile.
+     */
+    private static final class RangeOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final long first;
+        private final long last;
+        private final ReadService<?> service;
+        private final long version;
+        private long position;
+
+        RangeOutputStream(OutputStream target, long first, long last, ReadService<?> service, long version) {
+            this.target = target;
+            this.first = first;
+            this.last = last;
+            this.service = service;
+            this.version = version;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (service.version() != version) {
+                throw new IOException("Catalog changed while a byte range of it was being exported");
+            }
+            long start = Math.max(position, first);
+            long end = Math.min(position + length - 1, last);
+            if (start <= end) {
+                target.write(bytes, offset + (int) (start - position), (int) (end - start + 1));
+            }
+            position += length;
+            if (position > last) {
+                throw new RangeComplete();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+    }
+}
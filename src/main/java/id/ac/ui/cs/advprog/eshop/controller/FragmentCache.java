@@ -0,0 +1,88 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Cache of rendered fragments (such as the HTML table row of an entity) and of the listings
+ * joined from them, so that showing an unchanged listing again costs a lookup instead of
+ * rendering every row.
+ *
+ * <p>A fragment is kept by entity id together with the entity instance it was rendered from, and
+ * is only reused for that same instance. Repositories never change a stored entity in place, and
+ * the services hand out the same instances until a write drops them from their caches, so the
+ * instance stands for the entity's version: a listing read after a write renders the written
+ * entity again, and the old fragment is replaced.
+ *
+ * <p>A joined listing is kept for the list instance it was joined from. The services hand out the
+ * same page and search result lists until a write drops them, so an unchanged page is served
+ * whole.
+ *
+ * <p>Once {@code maximumSize} fragments are kept, the next new one empties the cache, which then
+ * refills with the rows that are still being shown; fragments of deleted or long unseen entities
+ * go with it. Fragments made by a different renderer than the one they were cached with are
+ * rendered anew, so one cache should serve one kind of fragment.
+ */
+final class FragmentCache<T extends IdHolder> {
+    // Joined listings are kept in this many slots, chosen by the list's identity hash
+    static final int LISTINGS = 16;
+
+    private record Fragment(Object entity, Function<?, String> renderer, String html) { }
+
+    private record Listing(List<?> items, Function<?, String> renderer, String html) { }
+
+    private final int maximumSize;
+    private final ConcurrentMap<String, Fragment> fragments = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Listing> listings = new AtomicReferenceArray<>(LISTINGS);
+
+    /**
+     * @param maximumSize how many fragments are kept before the cache is emptied
+     */
+    FragmentCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * The fragments {@code renderer} makes of {@code items}, joined in order.
+     */
+    String render(List<T> items, Function<T, String> renderer) {
+        int slot = System.identityHashCode(items) & (LISTINGS - 1);
+        Listing listing = listings.get(slot);
+        if (listing != null && listing.items() == items && listing.renderer() == renderer) {
+            return listing.html();
+        }
+        String[] html = new String[items.size()];
+        for (int i = 0; i < html.length; i++) {
+            html[i] = fragment(items.get(i), renderer);
+        }
+        // Sizes the result exactly and copies each fragment once
+        String joined = String.join("", html);
+        listings.set(slot, new Listing(items, renderer, joined));
+        return joined;
+    }
+
+    int size() {
+        return fragments.size();
+    }
+
+    private String fragment(T item, Function<T, String> renderer) {
+        Fragment cached = fragments.get(item.getId());
+        if (cached != null && cached.entity() == item && cached.renderer() == renderer) {
+            return cached.html();
+        }
+        String html = renderer.apply(item);
+        if (cached == null && fragments.size() >= maximumSize) {
+            fragments.clear();
+        }
+        fragments.put(item.getId(), new Fragment(item, renderer, html));
+        return html;
+    }
+}
@@ -0,0 +1,28 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.repository.stats.InventoryStats;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/stats")
+@RequiredArgsConstructor
+public class InventoryStatsController {
+    private final ProductService productService;
+    private final CarService carService;
+
+    @GetMapping
+    public Map<String, InventoryStats> inventoryStats(
+            @RequestParam(name = "lowStockBelow", defaultValue = "5") int lowStockBelow) {
+        Map<String, InventoryStats> stats = new LinkedHashMap<>();
+        stats.put("products", productService.inventoryStats(lowStockBelow));
+        stats.put("cars", carService.inventoryStats(lowStockBelow));
+        return stats;
+    }
+}
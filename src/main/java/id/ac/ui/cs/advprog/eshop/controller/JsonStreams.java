@@ -0,0 +1,89 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Response bodies that serialize a listing one entity at a time while it is being sent, instead
+ * of building the whole list first.
+ *
+ * <p>Entities are pulled from the stream only as fast as the client reads: once the socket
+ * buffer is full, writing the response blocks and with it the iteration, which is the
+ * backpressure. The body runs on Spring MVC's async executor, leaving the request thread free.
+ */
+final class JsonStreams {
+    private static final ObjectWriter WRITER = new ObjectMapper().writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    // Entities serialized between flushes, so a slow listing still reaches the client in chunks.
+    private static final int FLUSH_EVERY = 256;
+
+    private JsonStreams() {
+    }
+
+    /**
+     * Every entity of the stream {@code source} opens, as NDJSON when {@code accept} asks for it
+     * and as a JSON array otherwise.
+     */
+    static <T> ResponseEntity<StreamingResponseBody> listing(String accept, Supplier<Stream<T>> source) {
+        if (accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(ndjson(source));
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(array(source));
+    }
+
+    /**
+     * A JSON array of every entity of the stream {@code source} opens.
+     */
+    static <T> StreamingResponseBody array(Supplier<Stream<T>> source) {
+        return out -> {
+            try (Stream<T> entities = source.get(); JsonGenerator generator = open(out)) {
+                generator.writeStartArray();
+                write(entities.iterator(), generator, false);
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    /**
+     * Every entity of the stream {@code source} opens as one JSON object per line.
+     */
+    static <T> StreamingResponseBody ndjson(Supplier<Stream<T>> source) {
+        return out -> {
+            try (Stream<T> entities = source.get(); JsonGenerator generator = open(out)) {
+                write(entities.iterator(), generator, true);
+            }
+        };
+    }
+
+    private static JsonGenerator open(OutputStream out) throws IOException {
+        JsonGenerator generator = WRITER.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    private static <T> void write(Iterator<T> entities, JsonGenerator generator, boolean lines) throws IOException {
+        int sinceFlush = 0;
+        while (entities.hasNext()) {
+            WRITER.writeValue(generator, entities.next());
+            if (lines) {
+                generator.writeRaw('\n');
+            }
+            if (++sinceFlush == FLUSH_EVERY) {
+                generator.flush();
+                sinceFlush = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The table rows of {@code ProductList.html} and {@code CarList.html}, each rendered on its own from
+ * the template's {@code row} fragment so that the controllers can cache it in a {@link FragmentCache}
+ * and a list page only renders the rows that changed. The templates insert the joined rows with
+ * {@code th:utext}; all of it is output of the template engine, which escapes the entity's values as
+ * it does on any other page.
+ *
+ * <p>The fragments link relatively, resolving against {@code /product/list} and
+ * {@code /product/search} (or their car counterparts), so a cached row does not depend on the
+ * request it was rendered for.
+ */
+final class ListRows<T> implements Function<T, String> {
+    // Rows each list page keeps rendered, as many entities as the services cache
+    static final int CACHE_SIZE = 10_000;
+
+    private static final Set<String> ROW = Set.of("row");
+
+    private final ITemplateEngine templateEngine;
+    private final String template;
+    private final String variable;
+
+    private ListRows(ITemplateEngine templateEngine, String template, String variable) {
+        this.templateEngine = templateEngine;
+        this.template = template;
+        this.variable = variable;
+    }
+
+    static ListRows<Product> products(ITemplateEngine templateEngine) {
+        return new ListRows<>(templateEngine, "ProductList", "product");
+    }
+
+    static ListRows<Car> cars(ITemplateEngine templateEngine) {
+        return new ListRows<>(templateEngine, "CarList", "car");
+    }
+
+    @Override
+    public String apply(T entity) {
+        Context context = new Context();
+        context.setVariable(variable, entity);
+        return templateEngine.process(template, ROW, context);
+    }
+}
@@ -0,0 +1,158 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.EntityNotFoundException;
+import id.ac.ui.cs.advprog.eshop.repository.InsufficientStockException;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import id.ac.ui.cs.advprog.eshop.service.importer.ImportReport;
+import id.ac.ui.cs.advprog.eshop.service.importer.ImportService;
+import id.ac.ui.cs.advprog.eshop.service.importer.RecordFormat;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+public class ProductApiController {
+    private final ProductService service;
+    private final ImportService importService;
+
+    /**
+     * Streams every product as a JSON array, or as NDJSON when {@code Accept} asks for
+     * {@code application/x-ndjson}, serializing while the response is written.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> findAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return JsonStreams.listing(accept, service::streamAll);
+    }
+
+    @GetMapping("/page")
+    public Page<Product> findPage(@RequestParam(name = "cursor", required = false) String cursor,
+                                  @RequestParam(name = "size", defaultValue = "50") int size) {
+        return service.findPage(cursor, Math.max(1, Math.min(size, ProductController.MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping("/search")
+    public List<Product> search(@RequestParam(name = "q", defaultValue = "") String query,
+                                @RequestParam(name = "size", defaultValue = "50") int size) {
+        return service.search(query, Math.max(1, Math.min(size, ProductController.MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Product> findById(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(service.findById(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Creates the product under a new id. An id in the body is ignored, so a create never overwrites
+     * an existing product; {@code PUT /{id}} changes one.
+     */
+    @PostMapping
+    public ResponseEntity<Product> create(@RequestBody Product product) {
+        product.setId(null);
+        return ResponseEntity.status(HttpStatus.CREATED).body(service.create(product));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Void> update(@PathVariable String id, @RequestBody Product product) {
+        product.setId(id);
+        service.update(id, product);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        service.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Adds {@code delta} to the product's stock in one atomic step; a negative delta may not take
+     * it below zero.
+     */
+    @PostMapping("/{id}/quantity")
+    public Product adjustQuantity(@PathVariable String id, @RequestParam("delta") int delta) {
+        return service.adjustQuantity(id, delta);
+    }
+
+    @PostMapping("/{id}/reserve")
+    public Product reserve(@PathVariable String id, @RequestParam("quantity") int quantity) {
+        return service.reserve(id, quantity);
+    }
+
+    /**
+     * Marks the product hot for a flash sale: its stock is then split across striped counters so that
+     * concurrent reservations do not queue on one lock. See {@code BaseRepository#markHot}.
+     */
+    @PutMapping("/{id}/hot")
+    public ResponseEntity<Void> markHot(@PathVariable String id) {
+        service.markHot(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/hot")
+    public ResponseEntity<Void> markCold(@PathVariable String id) {
+        service.markCold(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<Product>> createAll(@RequestBody List<Product> products) {
+        products.forEach(product -> product.setId(null));
+        return ResponseEntity.status(HttpStatus.CREATED).body(service.createAll(products));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<Void> updateAll(@RequestBody List<Product> products) {
+        service.updateAll(products);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<Void> deleteAll(@RequestBody List<String> ids) {
+        service.deleteAllById(ids);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Imports a CSV ({@code text/csv}) or NDJSON ({@code application/x-ndjson}) upload, reading
+     * the request body as a stream rather than buffering it.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportReport importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                       InputStream body) throws IOException {
+        return importService.importProducts(body, RecordFormat.fromContentType(contentType));
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<Map<String, String>> notFound(EntityNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, String>> conflict(InsufficientStockException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, IOException.class})
+    public ResponseEntity<Map<String, String>> badRequest(Exception e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -1,21 +1,35 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import id.ac.ui.cs.advprog.eshop.service.export.CatalogWriter;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.thymeleaf.ITemplateEngine;
 
+import java.io.IOException;
 import java.util.List;
 
 @Controller
 @RequestMapping("/product")
-@RequiredArgsConstructor
 public class ProductController {
+    static final int MAX_PAGE_SIZE = 500;
 
     private final ProductService service;
+    private final ListRows<Product> listRows;
+    private final FragmentCache<Product> rows = new FragmentCache<>(ListRows.CACHE_SIZE);
+    private final CatalogExport<Product> export = new CatalogExport<>(CatalogWriter.PRODUCTS, "products");
+
+    public ProductController(ProductService service, ITemplateEngine templateEngine) {
+        this.service = service;
+        this.listRows = ListRows.products(templateEngine);
+    }
 
     @GetMapping("/create")
     public String createProductPage(Model model){
@@ -31,14 +45,44 @@ public class ProductController {
     }
 
     @GetMapping("/list")
-    public String productListPage(Model model){
-        List<Product> allProducts = service.findAll();
-        model.addAttribute("products", allProducts);
+    public String productListPage(@RequestParam(name="cursor", required=false) String cursor,
+                                  @RequestParam(name="size", defaultValue="50") int size,
+                                  WebRequest request, Model model){
+        if (VersionETag.notModified(request, service)) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        try {
+            Page<Product> page = service.findPage(cursor, pageSize);
+            model.addAttribute("products", page.items());
+            model.addAttribute("rows", rows.render(page.items(), listRows));
+            model.addAttribute("nextCursor", page.nextCursor());
+            model.addAttribute("pageSize", pageSize);
+            return "ProductList";
+        } catch (IllegalArgumentException e) {
+            return "redirect:list";
+        }
+    }
+
+    @GetMapping("/search")
+    public String searchProductPage(@RequestParam(name="q", defaultValue="") String query,
+                                    @RequestParam(name="size", defaultValue="50") int size,
+                                    WebRequest request, Model model){
+        if (VersionETag.notModified(request, service)) {
+            return null;
+        }
+        List<Product> results = service.search(query, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        model.addAttribute("products", results);
+        model.addAttribute("rows", rows.render(results, listRows));
+        model.addAttribute("query", query);
         return "ProductList";
     }
 
     @GetMapping("/edit")
-    public String updateProductPage(@RequestParam(name="id") String id, Model model){
+    public String updateProductPage(@RequestParam(name="id") String id, WebRequest request, Model model){
+        if (VersionETag.notModified(request, service, id)) {
+            return null;
+        }
         try {
             Product product = service.findById(id);
             model.addAttribute("product", product);
@@ -64,4 +108,10 @@ public class ProductController {
             return "redirect:/product/list";
         }
     }
+
+    @GetMapping("/export")
+    public void exportProducts(@RequestParam(name="format", defaultValue="csv") String format,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        export.respond(request, response, service, format);
+    }
 }
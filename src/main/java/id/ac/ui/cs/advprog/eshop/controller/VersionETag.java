@@ -0,0 +1,46 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.service.base.ReadService;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Strong ETags for pages made from a repository's contents, derived from its version.
+ *
+ * <p>Versions count writes from zero in every run of the application, so the tags also carry the
+ * time this run started: a tag issued before a restart never matches after it.
+ */
+final class VersionETag {
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private VersionETag() {
+    }
+
+    /**
+     * The tag of the representation {@code variant} (empty when there is only one) at {@code version}.
+     */
+    static String of(long version, String variant) {
+        return "\"" + EPOCH + "-" + version + (variant.isEmpty() ? "" : "-" + variant) + "\"";
+    }
+
+    /**
+     * Tags the response with the current version of {@code service}'s repository, and tells whether
+     * the client already holds that version, in which case the response is a finished 304 and the
+     * handler should return {@code null} without reading anything else.
+     *
+     * <p>The version is read before the page is, so a write that lands in between leaves the page
+     * newer than its tag, costing the client one more full download rather than a stale page.
+     */
+    static boolean notModified(WebRequest request, ReadService<?> service) {
+        return request.checkNotModified(of(service.version(), ""));
+    }
+
+    /**
+     * Like {@link #notModified(WebRequest, ReadService)}, for a page showing the entity under
+     * {@code id}. While its stock is live the page gets no tag at all, so neither the client nor
+     * the compression cache keeps a copy of it.
+     */
+    static boolean notModified(WebRequest request, ReadService<?> service, String id) {
+        long version = service.version(id);
+        return version >= 0 && request.checkNotModified(of(version, ""));
+    }
+}
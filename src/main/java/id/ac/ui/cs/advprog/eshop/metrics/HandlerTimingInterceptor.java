@@ -0,0 +1,82 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Times controller requests: the handler method under the {@code controller} layer, and the
+ * rendering of the view it returns, if any, under the {@code view} layer, both named after the
+ * controller class and method. Requests are few and slow next to service and repository calls,
+ * so by default every one is measured.
+ *
+ * <p>A request handed over to an async thread (a streamed export, say) is measured up to the
+ * hand-over only.
+ */
+public class HandlerTimingInterceptor implements AsyncHandlerInterceptor {
+    private static final String HANDLER_SAMPLE = HandlerTimingInterceptor.class.getName() + ".handler";
+    private static final String VIEW_SAMPLE = HandlerTimingInterceptor.class.getName() + ".view";
+
+    private record Timers(OperationTimer handler, OperationTimer view) { }
+
+    private final MetricsRegistry registry;
+    private final int samplePeriod;
+    private final ConcurrentMap<Method, Timers> timers = new ConcurrentHashMap<>();
+
+    public HandlerTimingInterceptor(MetricsRegistry registry, int samplePeriod) {
+        this.registry = registry;
+        this.samplePeriod = samplePeriod;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            request.setAttribute(HANDLER_SAMPLE, timers(method).handler().start());
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        stop(request, HANDLER_SAMPLE);
+        if (handler instanceof HandlerMethod method && modelAndView != null && !modelAndView.wasCleared()) {
+            request.setAttribute(VIEW_SAMPLE, timers(method).view().start());
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        // The handler sample is still there when the handler threw
+        stop(request, HANDLER_SAMPLE);
+        stop(request, VIEW_SAMPLE);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        stop(request, HANDLER_SAMPLE);
+    }
+
+    private Timers timers(HandlerMethod handler) {
+        return timers.computeIfAbsent(handler.getMethod(), method -> {
+            String name = handler.getBeanType().getSimpleName() + "." + method.getName();
+            return new Timers(registry.timer("controller", name, samplePeriod),
+                    registry.timer("view", name, samplePeriod));
+        });
+    }
+
+    private static void stop(HttpServletRequest request, String attribute) {
+        if (request.getAttribute(attribute) instanceof OperationTimer.Sample sample) {
+            request.removeAttribute(attribute);
+            OperationTimer.stop(sample);
+        }
+    }
+}
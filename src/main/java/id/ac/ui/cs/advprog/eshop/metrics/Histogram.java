@@ -0,0 +1,93 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size histogram of non-negative {@code long} values with about 3% relative precision,
+ * laid out like HdrHistogram: each power of two is split into {@code 32} equal sub-buckets, so
+ * recording is a few shifts and one atomic increment, with no allocation and no lock.
+ *
+ * <p>Values from {@code 0} to {@link #MAX_VALUE} are kept (larger ones are recorded as
+ * {@code MAX_VALUE}): in nanoseconds, that is over 18 minutes. Concurrent recording is safe; a
+ * reader sees each bucket's own count exactly, but not necessarily all buckets at one instant.
+ */
+public final class Histogram {
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(MAX_VALUE, value));
+        counts.incrementAndGet(index(clamped));
+        sum.add(clamped);
+        if (clamped > max.get()) {
+            max.accumulateAndGet(clamped, Math::max);
+        }
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * The value below which a fraction {@code quantile} of the recorded values fall, as the highest
+     * value of the bucket it lands in (never above {@link #max()}); {@code 0} when empty.
+     */
+    public long valueAtQuantile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestInBucket(i), max());
+            }
+        }
+        return max();
+    }
+
+    private static int index(long value) {
+        if (value < SUB) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * SUB + (int) (value >>> shift);
+    }
+
+    private static long highestInBucket(int index) {
+        if (index < 2 * SUB) {
+            return index;
+        }
+        int shift = index / SUB - 1;
+        long mantissa = index - (long) shift * SUB;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
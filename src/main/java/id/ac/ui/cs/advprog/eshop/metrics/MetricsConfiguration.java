@@ -0,0 +1,73 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Times requests, service calls and repository operations into the {@link MetricsRegistry}
+ * served at {@code /metrics}, unless {@code eshop.metrics.enabled} is {@code false}. Requests are
+ * sampled one in {@code eshop.metrics.request-sample-period}, service and repository operations
+ * one call in {@code eshop.metrics.operation-sample-period}.
+ *
+ * <p>Allocated bytes are only counted on platform threads, so requests served on virtual threads
+ * ({@code spring.threads.virtual.enabled}) are timed without them, which is logged at startup.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(MetricsProperties.class)
+@RequiredArgsConstructor
+public class MetricsConfiguration implements WebMvcConfigurer {
+
+    private final MetricsProperties properties;
+    private final MetricsRegistry registry;
+    private final ProductRepository productRepository;
+    private final CarRepository carRepository;
+    private final Environment environment;
+
+    @Bean
+    public static MetricsRegistry metricsRegistry() {
+        return new MetricsRegistry();
+    }
+
+    /**
+     * Static and bound by hand: post-processors are created before configuration properties beans.
+     */
+    @Bean
+    public static BeanPostProcessor serviceTimingPostProcessor(MetricsRegistry registry, Environment environment) {
+        MetricsProperties bound = Binder.get(environment).bindOrCreate("eshop.metrics", MetricsProperties.class);
+        if (!bound.isEnabled()) {
+            return new BeanPostProcessor() { };
+        }
+        return new ServiceTimingPostProcessor(registry, bound.getOperationSamplePeriod());
+    }
+
+    @PostConstruct
+    public void configure() {
+        if (properties.isEnabled()) {
+            productRepository.setMetrics(registry, properties.getOperationSamplePeriod());
+            carRepository.setMetrics(registry, properties.getOperationSamplePeriod());
+            if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+                log.warn("Requests run on virtual threads, whose allocation the JVM does not count: "
+                        + "/metrics reports request latency only");
+            }
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        if (properties.isEnabled()) {
+            interceptors.addInterceptor(new HandlerTimingInterceptor(registry, properties.getRequestSamplePeriod()));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "eshop.metrics")
+public class MetricsProperties {
+    private boolean enabled = true;
+    private int requestSamplePeriod = 1;
+    private int operationSamplePeriod = 64;
+}
@@ -0,0 +1,91 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link OperationTimer}s of the application, by layer ({@code controller}, {@code view},
+ * {@code service}, {@code repository}) and operation, rendered in the Prometheus text format.
+ */
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private record Key(String layer, String operation) { }
+
+    private final ConcurrentMap<Key, OperationTimer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * The timer for {@code operation} in {@code layer}, created on first use with the given
+     * sample period; later calls return the same timer whatever period they pass.
+     */
+    public OperationTimer timer(String layer, String operation, int samplePeriod) {
+        return timers.computeIfAbsent(new Key(layer, operation),
+                key -> new OperationTimer(layer, operation, samplePeriod));
+    }
+
+    public List<OperationTimer> timers() {
+        List<OperationTimer> sorted = new ArrayList<>(timers.values());
+        sorted.sort(Comparator.comparing(OperationTimer::layer).thenComparing(OperationTimer::operation));
+        return sorted;
+    }
+
+    /**
+     * All timers in the Prometheus text exposition format (version 0.0.4): a call counter, and
+     * latency and allocation summaries over the sampled calls. Operations whose allocation was
+     * never measured have no allocation summary.
+     */
+    public String scrape() {
+        List<OperationTimer> all = timers();
+        StringBuilder out = new StringBuilder(256 + all.size() * 1024);
+        out.append("# HELP eshop_operation_calls_total Calls of each operation, sampled or not.\n");
+        out.append("# TYPE eshop_operation_calls_total counter\n");
+        for (OperationTimer timer : all) {
+            sample(out, "eshop_operation_calls_total", timer, null, Long.toString(timer.calls()));
+        }
+        summary(out, "eshop_operation_seconds", "Latency of the sampled calls of each operation.", all, true);
+        summary(out, "eshop_operation_allocated_bytes",
+                "Heap bytes allocated by the sampled calls of each operation on platform threads.", all, false);
+        return out.toString();
+    }
+
+    private static void summary(StringBuilder out, String name, String help, List<OperationTimer> all,
+                                boolean latency) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (OperationTimer timer : all) {
+            Histogram histogram = latency ? timer.latency() : timer.allocated();
+            if (!latency && histogram.count() == 0) {
+                // Never measured, as on virtual threads: an all-zero summary would read as no allocation
+                continue;
+            }
+            for (double quantile : QUANTILES) {
+                long value = histogram.valueAtQuantile(quantile);
+                sample(out, name, timer, quantile, latency ? seconds(value) : Long.toString(value));
+            }
+            long sum = histogram.sum();
+            sample(out, name + "_sum", timer, null, latency ? seconds(sum) : Long.toString(sum));
+            sample(out, name + "_count", timer, null, Long.toString(histogram.count()));
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, OperationTimer timer, Double quantile, String value) {
+        out.append(name).append("{layer=\"").append(escape(timer.layer()))
+                .append("\",operation=\"").append(escape(timer.operation())).append('"');
+        if (quantile != null) {
+            out.append(",quantile=\"").append(quantile).append('"');
+        }
+        out.append("} ").append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,138 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and allocation of one operation, measured on a random sample of its calls so that the
+ * calls left out pay only for a counter increment and a random number.
+ *
+ * <p>Callers bracket the operation with {@link #start()} and {@link #stop(Sample)}:
+ * <pre>{@code
+ * OperationTimer.Sample sample = timer.start();
+ * try {
+ *     ...
+ * } finally {
+ *     OperationTimer.stop(sample);
+ * }
+ * }</pre>
+ * Allocated bytes come from the JVM's per-thread allocation counter. JDK 21 does not keep one for
+ * virtual threads, so calls running on them record latency only, as do calls stopped on another
+ * thread than the one that started them.
+ */
+public final class OperationTimer {
+    private static final OperationTimer DISABLED = new OperationTimer("", "", 1, false);
+    private static final com.sun.management.ThreadMXBean THREADS =
+            ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported() ? threads : null;
+
+    private final String layer;
+    private final String operation;
+    private final int sampleMask;
+    private final boolean enabled;
+    private final LongAdder calls = new LongAdder();
+    private final Histogram latency = new Histogram();
+    private final Histogram allocated = new Histogram();
+
+    /**
+     * @param samplePeriod one call in this many is measured; rounded down to a power of two
+     */
+    OperationTimer(String layer, String operation, int samplePeriod) {
+        this(layer, operation, samplePeriod, true);
+    }
+
+    private OperationTimer(String layer, String operation, int samplePeriod, boolean enabled) {
+        this.layer = layer;
+        this.operation = operation;
+        this.sampleMask = Integer.highestOneBit(Math.max(1, samplePeriod)) - 1;
+        this.enabled = enabled;
+    }
+
+    /**
+     * A timer that measures nothing, for code running without a {@link MetricsRegistry}.
+     */
+    public static OperationTimer disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Counts a call and, if it is sampled, starts measuring it; {@code null} otherwise.
+     */
+    public Sample start() {
+        if (!enabled) {
+            return null;
+        }
+        calls.increment();
+        if (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return null;
+        }
+        return new Sample(this);
+    }
+
+    public static void stop(Sample sample) {
+        if (sample != null) {
+            sample.stop();
+        }
+    }
+
+    public String layer() {
+        return layer;
+    }
+
+    public String operation() {
+        return operation;
+    }
+
+    /**
+     * Every call, sampled or not.
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * Nanoseconds taken by the sampled calls.
+     */
+    public Histogram latency() {
+        return latency;
+    }
+
+    /**
+     * Bytes allocated by the sampled calls that ran on platform threads.
+     */
+    public Histogram allocated() {
+        return allocated;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * One measured call. The object itself is allocated before its counters are read, so it
+     * does not count towards the call's allocation.
+     */
+    public static final class Sample {
+        private final OperationTimer timer;
+        private final Thread thread = Thread.currentThread();
+        private final long startBytes;
+        private final long startNanos;
+
+        private Sample(OperationTimer timer) {
+            this.timer = timer;
+            // JDK 21 keeps no allocation counter for virtual threads, so do not pay to ask
+            this.startBytes = thread.isVirtual() ? -1 : allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        private void stop() {
+            long elapsed = System.nanoTime() - startNanos;
+            long bytes = startBytes >= 0 && thread == Thread.currentThread() ? allocatedBytes() : -1;
+            timer.latency.record(elapsed);
+            if (startBytes >= 0 && bytes >= 0) {
+                timer.allocated.record(bytes - startBytes);
+            }
+        }
+    }
+}
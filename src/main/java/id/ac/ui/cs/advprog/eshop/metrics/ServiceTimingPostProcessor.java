@@ -0,0 +1,67 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every {@link Service @Service} bean that implements an interface in a proxy timing each
+ * call under the {@code service} layer, named after the bean class and method. Beans are injected
+ * through their interfaces, so the proxy takes their place unnoticed; services without an
+ * interface are left alone.
+ */
+public class ServiceTimingPostProcessor implements BeanPostProcessor {
+    private final MetricsRegistry registry;
+    private final int samplePeriod;
+
+    public ServiceTimingPostProcessor(MetricsRegistry registry, int samplePeriod) {
+        this.registry = registry;
+        this.samplePeriod = samplePeriod;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> type = bean.getClass();
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(type);
+        if (interfaces.length == 0 || !AnnotatedElementUtils.hasAnnotation(type, Service.class)) {
+            return bean;
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), interfaces, new Timing(bean));
+    }
+
+    private final class Timing implements InvocationHandler {
+        private final Object target;
+        private final ConcurrentMap<Method, OperationTimer> timers = new ConcurrentHashMap<>();
+
+        private Timing(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            // equals, hashCode and toString are answered by the target, untimed
+            OperationTimer.Sample sample = method.getDeclaringClass() == Object.class ? null
+                    : timers.computeIfAbsent(method, this::timer).start();
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                OperationTimer.stop(sample);
+            }
+        }
+
+        private OperationTimer timer(Method method) {
+            return registry.timer("service", target.getClass().getSimpleName() + "." + method.getName(),
+                    samplePeriod);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package id.ac.ui.cs.advprog.eshop.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is passed back to fetch the following
+ * page and is {@code null} on the last page.
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -1,37 +1,809 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
+import id.ac.ui.cs.advprog.eshop.metrics.MetricsRegistry;
+import id.ac.ui.cs.advprog.eshop.metrics.OperationTimer;
 import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.id.IdGenerator;
+import id.ac.ui.cs.advprog.eshop.repository.id.IdStrategy;
+import id.ac.ui.cs.advprog.eshop.repository.jfr.RepositoryEvent;
+import id.ac.ui.cs.advprog.eshop.repository.jfr.RepositoryReadEvent;
+import id.ac.ui.cs.advprog.eshop.repository.jfr.RepositoryWriteEvent;
+import id.ac.ui.cs.advprog.eshop.repository.search.SearchIndex;
+import id.ac.ui.cs.advprog.eshop.repository.stock.StripedStock;
+import id.ac.ui.cs.advprog.eshop.repository.stock.StripedStock.Outcome;
+import id.ac.ui.cs.advprog.eshop.repository.store.EntityStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.EntityStore.Stored;
+import id.ac.ui.cs.advprog.eshop.repository.store.ObjectStore;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
-public abstract class BaseRepository<T extends IdHolder> {
-    protected List<T> data = new ArrayList<>();
+/**
+ * Concurrent in-memory storage shared by the repository beans.
+ *
+ * <p>Entities are kept in an {@link EntityStore}, indexed by id and ordered by an insertion
+ * sequence number. Writes to the same id are serialized by one of a fixed set of striped locks, so
+ * writes to different ids proceed in parallel. Reads take no repository lock.
+ *
+ * <p>A store may already hold entities when the repository is built (a reopened mapped file).
+ * Numbering continues after them, and state derived from them, such as the search index, is
+ * built on first use rather than at startup (see {@link #addDerivedListener}).
+ *
+ * <p>Entities can be marked hot ({@link #markHot}) for flash sales: their stock then lives in a
+ * {@link StripedStock} that {@link #adjustQuantity} changes without taking the entity's lock,
+ * and the stored quantity is brought up to date by {@link #reconcileHotStock}. Until then,
+ * {@link #findById} shows the current stock, while listings, listeners and the inventory
+ * aggregates see the stored one.
+ *
+ * <p>Each public operation emits a {@link RepositoryReadEvent} or {@link RepositoryWriteEvent}
+ * for Flight Recorder, and is timed once {@link #setMetrics} is called.
+ */
+public abstract class BaseRepository<T extends IdHolder> implements Closeable {
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * A planned batch step; {@code before} is {@code null} for a create, {@code after} for a delete.
+     */
+    private record Write<E>(String id, Stored<E> before, Stored<E> after) { }
+
+    /**
+     * The operations timed once {@link #setMetrics} is called.
+     */
+    private enum Operation {
+        CREATE("create"), CREATE_ALL("createAll"), FIND_BY_ID("findById"), FIND_PAGE("findPage"),
+        SEARCH("search"), UPDATE("update"), UPDATE_ALL("updateAll"), DELETE("delete"),
+        DELETE_ALL("deleteAll"), ADJUST_QUANTITY("adjustQuantity");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+    }
+
+    private final EntityStore<T> store;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final List<RepositoryListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final SearchIndex<T> searchIndex;
+    private final Runnable catchUpSearchIndex;
+    private final ConcurrentMap<String, StripedStock> hotStock = new ConcurrentHashMap<>();
+    // Named after the repository, as in ProductRepository -> Product, for the JFR events
+    private final String entityType = getClass().getSimpleName().replaceFirst("Repository$", "");
+    private volatile IdGenerator idGenerator = IdStrategy.TIME_ORDERED.newGenerator();
+    private volatile OperationTimer[] timers = disabledTimers();
+
+    /**
+     * @param searchableFields the text fields {@link #search} matches against
+     */
+    protected BaseRepository(Function<T, List<String>> searchableFields) {
+        this(searchableFields, new ObjectStore<>());
+    }
+
+    /**
+     * @param searchableFields the text fields {@link #search} matches against
+     * @param store            where the entities are kept
+     */
+    protected BaseRepository(Function<T, List<String>> searchableFields, EntityStore<T> store) {
+        this.store = store;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        sequence.set(store.lastPosition());
+        searchIndex = new SearchIndex<>(searchableFields);
+        catchUpSearchIndex = addDerivedListener(searchIndex);
+    }
+
+    /**
+     * Replaces the generator that assigns ids to entities created without one.
+     */
+    public void setIdGenerator(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Times one call in {@code samplePeriod} of each operation into {@code registry}, under the
+     * {@code repository} layer and this class's name.
+     */
+    public void setMetrics(MetricsRegistry registry, int samplePeriod) {
+        OperationTimer[] enabled = new OperationTimer[Operation.values().length];
+        for (Operation operation : Operation.values()) {
+            enabled[operation.ordinal()] = registry.timer("repository",
+                    getClass().getSimpleName() + "." + operation.label, samplePeriod);
+        }
+        timers = enabled;
+    }
 
     public T create(T entity) {
-        if (entity.getId() == null || entity.getId().isBlank()) {
-            entity.setId(UUID.randomUUID().toString());
+        OperationTimer.Sample sample = startTimer(Operation.CREATE);
+        RepositoryEvent event = new RepositoryWriteEvent();
+        event.begin();
+        try {
+            if (entity.getId() == null || entity.getId().isBlank()) {
+                entity.setId(idGenerator.nextId());
+            }
+            String id = entity.getId();
+            ReentrantLock lock = lockFor(id);
+            lock.lock();
+            try {
+                store.validate(entity);
+                Stored<T> existing = store.find(id);
+                if (existing == null) {
+                    listeners.forEach(listener -> listener.onCreate(entity));
+                } else {
+                    resetHotStock(id, entity);
+                    listeners.forEach(listener -> listener.onUpdate(existing.entity(), entity));
+                }
+                long position = existing != null ? existing.position() : sequence.incrementAndGet();
+                store.put(position, entity);
+                version.incrementAndGet();
+            } finally {
+                lock.unlock();
+            }
+            return entity;
+        } finally {
+            OperationTimer.stop(sample);
+            event.complete(entityType, Operation.CREATE.label, entity.getId(), 1);
         }
-        data.add(entity);
-        return entity;
     }
 
+    /**
+     * Iterates entities in insertion order. The iterator never throws
+     * {@code ConcurrentModificationException}; it covers the entities created before the call,
+     * minus any deleted while iterating.
+     */
     public Iterator<T> findAll() {
-        return data.iterator();
+        return store.iterator(sequence.get());
+    }
+
+    /**
+     * Lazy counterpart of {@link #findAll()} with the same visibility guarantees.
+     */
+    public Stream<T> streamAll() {
+        return store.stream(sequence.get());
+    }
+
+    /**
+     * Returns up to {@code limit} entities in insertion order, starting after {@code cursor}
+     * ({@code null} for the first page). The cursor is the position of the last entity of the
+     * previous page, so deletes and creates between requests never shift or repeat entries.
+     */
+    public Page<T> findPage(String cursor, int limit) {
+        OperationTimer.Sample sample = startTimer(Operation.FIND_PAGE);
+        RepositoryEvent event = new RepositoryReadEvent();
+        event.begin();
+        long scanned = 0;
+        try {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Page limit must be positive.");
+            }
+            long after = parseCursor(cursor);
+            List<T> items = new ArrayList<>(Math.min(limit, 256));
+            long last = after;
+            boolean more = false;
+            for (Iterator<Stored<T>> it = store.after(after); it.hasNext(); ) {
+                if (items.size() == limit) {
+                    more = true;
+                    break;
+                }
+                Stored<T> stored = it.next();
+                items.add(stored.entity());
+                last = stored.position();
+            }
+            scanned = items.size();
+            return new Page<>(items, more ? Long.toString(last) : null);
+        } finally {
+            OperationTimer.stop(sample);
+            event.complete(entityType, Operation.FIND_PAGE.label, null, scanned);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} entities whose searchable fields match {@code query}, best
+     * matches first. See {@link SearchIndex#search} for the matching rules.
+     */
+    public List<T> search(String query, int limit) {
+        OperationTimer.Sample sample = startTimer(Operation.SEARCH);
+        RepositoryEvent event = new RepositoryReadEvent();
+        event.begin();
+        long scanned = 0;
+        try {
+            catchUpSearchIndex.run();
+            List<T> results = searchIndex.search(query, limit, this::lookup);
+            scanned = results.size();
+            return results;
+        } finally {
+            OperationTimer.stop(sample);
+            event.complete(entityType, Operation.SEARCH.label, null, scanned);
+        }
+    }
+
+    /**
+     * A counter that grows with every completed write, for telling whether the contents changed
+     * between two reads.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * The {@link #version} to tag a read of the entity under {@code id} with, or -1 while it is
+     * {@link #markHot hot}: its stock then moves on the striped path without a write, so no
+     * version describes what {@link #findById} returns.
+     */
+    public long versionOf(String id) {
+        return hotStock.containsKey(id) ? -1 : version.get();
     }
 
     public T findById(String id) {
-        for (T entity: data) {
-            if (entity.getId().equals(id)) return entity;
+        OperationTimer.Sample sample = startTimer(Operation.FIND_BY_ID);
+        RepositoryEvent event = new RepositoryReadEvent();
+        event.begin();
+        long scanned = 0;
+        try {
+            T entity = lookup(id);
+            if (entity == null) {
+                throw notFound(id);
+            }
+            scanned = 1;
+            return entity;
+        } finally {
+            OperationTimer.stop(sample);
+            event.complete(entityType, Operation.FIND_BY_ID.label, id, scanned);
         }
-        throw new IllegalArgumentException("Entity with Id " + id + " was not found.");
     }
 
     public void delete(String id) {
-        data.removeIf(entity -> entity.getId().equals(id));
+        OperationTimer.Sample sample = startTimer(Operation.DELETE);
+        RepositoryEvent event = new RepositoryWriteEvent();
+        event.begin();
+        long scanned = 0;
+        try {
+            if (id == null) {
+                return;
+            }
+            ReentrantLock lock = lockFor(id);
+            lock.lock();
+            try {
+                Stored<T> existing = store.find(id);
+                if (existing != null) {
+                    resetHotStock(id, null);
+                    listeners.forEach(listener -> listener.onDelete(existing.entity()));
+                    store.remove(id, existing.position());
+                    version.incrementAndGet();
+                    scanned = 1;
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            OperationTimer.stop(sample);
+            event.complete(entityType, Operation.DELETE.label, id, scanned);
+        }
     }
 
     public abstract T update(String id, T entity);
+
+    /**
+     * Adds {@code delta} to the quantity of the entity stored under {@code id} and returns the
+     * updated entity. The quantity is read and written under the entity's lock, so concurrent
+     * adjustments of one entity never lose each other, and listeners see every one of them. For a
+     * {@link #markHot hot} entity the change goes to its striped stock instead, without the lock,
+     * and listeners see it at the next reconciliation.
+     *
+     * @throws IllegalArgumentException   if no entity has that id, or the quantity would overflow
+     * @throws InsufficientStockException if a negative {@code delta} would take the quantity
+     *                                    below zero; nothing is changed
+     */
+    public T adjustQuantity(String id, int delta) {
+        OperationTimer.Sample sample = startTimer(Operation.ADJUST_QUANTITY);
+        RepositoryEvent event = new RepositoryWriteEvent();
+        event.begin();
+        long scanned = 0;
+        try {
+            StripedStock striped = id == null ? null : hotStock.get(id);
+            T result = null;
+            if (striped != null) {
+                boolean done = delta >= 0 ? striped.add(delta) : striped.tryTake(-(long) delta) == Outcome.TAKEN;
+                result = done ? lookup(id) : null;
+            }
+            if (result == null) {
+                result = adjustLocked(id, delta);
+            }
+            scanned = 1;
+            return result;
+        } finally {
+            OperationTimer.stop(sample);
+            event.complete(entityType, Operation.ADJUST_QUANTITY.label, id, scanned);
+        }
+    }
+
+    /**
+     * Takes {@code quantity} units from the stock of the entity stored under {@code id}, all or
+     * nothing; see {@link #adjustQuantity}.
+     */
+    public T reserve(String id, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Reserved quantity must be positive.");
+        }
+        return adjustQuantity(id, -quantity);
+    }
+
+    /**
+     * Batch counterpart of {@link #update}: each entity replaces the stored one with the same id.
+     */
+    public abstract List<T> updateAll(Collection<T> entities);
+
+    /**
+     * Creates (or, for ids already present, replaces) all {@code entities} while taking each
+     * involved lock once, and notifies listeners once for the whole batch. Entities with a blank
+     * id get a generated one.
+     */
+    public List<T> createAll(Collection<T> entities) {
+        List<String> ids = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            if (entity.getId() == null || entity.getId().isBlank()) {
+                entity.setId(idGenerator.nextId());
+            }
+            ids.add(entity.getId());
+        }
+        writeBatch(Operation.CREATE_ALL, ids, pending -> {
+            List<Write<T>> writes = new ArrayList<>(entities.size());
+            for (T entity : entities) {
+                Stored<T> before = current(pending, entity.getId());
+                long position = before != null ? before.position() : sequence.incrementAndGet();
+                writes.add(stage(pending, new Write<>(entity.getId(), before, new Stored<>(position, entity))));
+            }
+            return writes;
+        });
+        return new ArrayList<>(entities);
+    }
+
+    /**
+     * Replaces every entity in {@code updates} (matched by id) with {@code merge(current, update)}
+     * as one batch. Updates whose id is missing are skipped and yield {@code null}, unless
+     * {@code onMissing} is given, in which case its exception is thrown before anything changes.
+     */
+    protected List<T> replaceAll(Collection<T> updates, BinaryOperator<T> merge,
+                                 Function<String, RuntimeException> onMissing) {
+        List<String> ids = new ArrayList<>(updates.size());
+        for (T update : updates) {
+            if (update.getId() != null) {
+                ids.add(update.getId());
+            }
+        }
+        List<T> results = new ArrayList<>(updates.size());
+        writeBatch(Operation.UPDATE_ALL, ids, pending -> {
+            List<Write<T>> writes = new ArrayList<>(updates.size());
+            for (T update : updates) {
+                Stored<T> before = update.getId() == null ? null : current(pending, update.getId());
+                if (before == null) {
+                    if (onMissing != null) {
+                        throw onMissing.apply(update.getId());
+                    }
+                    results.add(null);
+                    continue;
+                }
+                T replacement = merge.apply(before.entity(), update);
+                Stored<T> after = new Stored<>(before.position(), replacement);
+                writes.add(stage(pending, new Write<>(update.getId(), before, after)));
+                results.add(replacement);
+            }
+            return writes;
+        });
+        return results;
+    }
+
+    /**
+     * Deletes every entity in {@code ids} as one batch; ids that are not present are ignored.
+     */
+    public void deleteAll(Collection<String> ids) {
+        List<String> present = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (id != null) {
+                present.add(id);
+            }
+        }
+        writeBatch(Operation.DELETE_ALL, present, pending -> {
+            List<Write<T>> writes = new ArrayList<>(present.size());
+            for (String id : present) {
+                Stored<T> before = current(pending, id);
+                if (before != null) {
+                    writes.add(stage(pending, new Write<>(id, before, null)));
+                }
+            }
+            return writes;
+        });
+    }
+
+    /**
+     * Moves the stock of the entity stored under {@code id} into a {@link StripedStock}, so that
+     * concurrent {@link #adjustQuantity} and {@link #reserve} calls on it no longer serialize on
+     * its lock. Does nothing if it is already hot.
+     *
+     * @throws IllegalArgumentException if no entity has that id
+     */
+    public void markHot(String id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Stored<T> current = store.find(id);
+            if (current == null) {
+                throw notFound(id);
+            }
+            hotStock.putIfAbsent(id, new StripedStock(quantityOf(current.entity())));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the striped stock of a hot entity back to it and makes it an ordinary entity again.
+     */
+    public void markCold(String id) {
+        replaceLocked(id, current -> {
+            StripedStock striped = hotStock.remove(id);
+            return striped == null ? current : withQuantity(current, clamp(striped.close()));
+        });
+    }
+
+    public Set<String> hotIds() {
+        return Set.copyOf(hotStock.keySet());
+    }
+
+    /**
+     * Writes the current stock of every hot entity to the stored entity, so listings, listeners
+     * and the write-ahead log catch up, and spreads it evenly over the cells again. A hot entity
+     * whose stock has not moved since it was last written is not written again, so an idle sale
+     * leaves the version, the log and the services' caches alone.
+     *
+     * @return the ids of the entities written
+     */
+    public Set<String> reconcileHotStock() {
+        Set<String> written = new HashSet<>();
+        for (String id : hotStock.keySet()) {
+            if (reconcileLocked(id)) {
+                written.add(id);
+            }
+        }
+        return written;
+    }
+
+    public void addListener(RepositoryListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers a listener that can refuse writes by throwing, such as a journal that must record
+     * a write before it happens. It runs before every other listener, so none of them has applied
+     * a write it refused.
+     */
+    public void addFirstListener(RepositoryListener<T> listener) {
+        listeners.add(0, listener);
+    }
+
+    public void removeListener(RepositoryListener<T> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers a listener that keeps state derived from every stored entity, such as an index or
+     * an aggregate. When the store held entities on opening, the listener is left out until the
+     * returned action first runs: with writes paused, that passes every stored entity to its
+     * {@code onCreate} and then adds it to the listeners, so no write is missed or seen twice.
+     * Later runs do nothing.
+     */
+    protected Runnable addDerivedListener(RepositoryListener<T> listener) {
+        if (sequence.get() == 0) {
+            listeners.add(listener);
+            return () -> { };
+        }
+        AtomicBoolean added = new AtomicBoolean();
+        return () -> {
+            if (!added.get()) {
+                withWritesPaused(() -> {
+                    if (!added.get()) {
+                        store.iterator(sequence.get()).forEachRemaining(listener::onCreate);
+                        listeners.add(listener);
+                        added.set(true);
+                    }
+                    return null;
+                });
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} while no write is in progress and none can start, giving listeners a
+     * consistent cut point (for example, to roll a write log before a snapshot).
+     */
+    public <R> R withWritesPaused(Supplier<R> action) {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Closes the store. Spring calls this when the application context shuts down.
+     */
+    @Override
+    public void close() throws IOException {
+        reconcileHotStock();
+        store.close();
+    }
+
+    protected T lookup(String id) {
+        if (id == null) {
+            return null;
+        }
+        Stored<T> stored = store.find(id);
+        if (stored == null) {
+            return null;
+        }
+        StripedStock striped = hotStock.get(id);
+        long available = striped == null ? -1 : striped.available();
+        // A closed stock is being reconciled, and the stored entity is about to be current again
+        return available < 0 ? stored.entity() : withQuantity(stored.entity(), clamp(available));
+    }
+
+    /**
+     * Atomically swaps the entity stored under {@code id} for the one built by {@code updater},
+     * keeping its position in {@link #findAll()}. Returns {@code null} when no entity has that id.
+     */
+    protected T replace(String id, UnaryOperator<T> updater) {
+        OperationTimer.Sample sample = startTimer(Operation.UPDATE);
+        RepositoryEvent event = new RepositoryWriteEvent();
+        event.begin();
+        long scanned = 0;
+        try {
+            T replacement = replaceLocked(id, updater);
+            scanned = replacement == null ? 0 : 1;
+            return replacement;
+        } finally {
+            OperationTimer.stop(sample);
+            event.complete(entityType, Operation.UPDATE.label, id, scanned);
+        }
+    }
+
+    protected abstract int quantityOf(T entity);
+
+    /**
+     * A copy of {@code entity} holding {@code quantity}; stored entities are never changed in place.
+     */
+    protected abstract T withQuantity(T entity, int quantity);
+
+    /**
+     * What {@link #replace} does, without being timed as an update; adjustments use it too.
+     */
+    private T replaceLocked(String id, UnaryOperator<T> updater) {
+        if (id == null) {
+            return null;
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Stored<T> current = store.find(id);
+            if (current == null) {
+                return null;
+            }
+            T replacement = updater.apply(current.entity());
+            store.validate(replacement);
+            resetHotStock(id, replacement);
+            listeners.forEach(listener -> listener.onUpdate(current.entity(), replacement));
+            store.put(current.position(), replacement);
+            version.incrementAndGet();
+            return replacement;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The locked side of {@link #adjustQuantity}, taken for ordinary entities and when a hot
+     * entity's cells cannot serve the change on their own. For a hot entity it closes the striped
+     * stock to read its exact remainder, writes the result to the stored entity, and starts a new
+     * striped stock with it.
+     */
+    private T adjustLocked(String id, int delta) {
+        T result = replaceLocked(id, current -> {
+            StripedStock striped = hotStock.get(id);
+            long available = striped == null ? quantityOf(current) : striped.close();
+            long adjusted = available + delta;
+            if (delta < 0 && adjusted < 0 || adjusted > Integer.MAX_VALUE) {
+                if (striped != null) {
+                    hotStock.put(id, new StripedStock(available));
+                }
+                if (adjusted > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Quantity of " + id + " would exceed " + Integer.MAX_VALUE
+                            + ".");
+                }
+                throw new InsufficientStockException(id, clamp(available), -delta);
+            }
+            return withQuantity(current, (int) adjusted);
+        });
+        if (result == null) {
+            throw notFound(id);
+        }
+        return result;
+    }
+
+    /**
+     * Closes the striped stock of {@code id} to read its exact remainder, and writes it to the
+     * stored entity if they differ. Either way the entity gets a new striped stock holding it.
+     */
+    private boolean reconcileLocked(String id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Stored<T> current = store.find(id);
+            StripedStock striped = hotStock.get(id);
+            if (current == null || striped == null) {
+                // Deleted or made cold meanwhile
+                return false;
+            }
+            int available = clamp(striped.close());
+            if (available == quantityOf(current.entity())) {
+                hotStock.put(id, new StripedStock(available));
+                return false;
+            }
+            // Replacing resets the closed stock to one holding the written quantity
+            replaceLocked(id, entity -> withQuantity(entity, available));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives a hot entity being overwritten a new striped stock holding its new quantity, or drops
+     * it when the entity is deleted ({@code entity} is {@code null}). The old stock is closed, so
+     * takers still holding it are refused and retry under the entity's lock.
+     */
+    private void resetHotStock(String id, T entity) {
+        if (!hotStock.isEmpty()) {
+            hotStock.computeIfPresent(id, (key, old) -> {
+                old.close();
+                return entity == null ? null : new StripedStock(quantityOf(entity));
+            });
+        }
+    }
+
+    protected EntityNotFoundException notFound(String id) {
+        return new EntityNotFoundException(id);
+    }
+
+    /**
+     * Locks the stripes of all {@code ids} in ascending order (the order {@link #withWritesPaused}
+     * uses, so the two cannot deadlock), plans the batch against the current state plus its own
+     * earlier steps, notifies listeners once, then applies the steps in order.
+     */
+    private void writeBatch(Operation operation, List<String> ids,
+                            Function<Map<String, Stored<T>>, List<Write<T>>> plan) {
+        OperationTimer.Sample sample = startTimer(operation);
+        RepositoryEvent event = new RepositoryWriteEvent();
+        event.begin();
+        long scanned = 0;
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (String id : ids) {
+            stripes.add(stripeOf(id));
+        }
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                held.add(locks[stripe]);
+            }
+            List<Write<T>> writes = plan.apply(new HashMap<>());
+            scanned = writes.size();
+            if (writes.isEmpty()) {
+                return;
+            }
+            List<RepositoryListener.Change<T>> changes = new ArrayList<>(writes.size());
+            for (Write<T> write : writes) {
+                if (write.after() != null) {
+                    store.validate(write.after().entity());
+                }
+                changes.add(new RepositoryListener.Change<>(
+                        write.before() == null ? null : write.before().entity(),
+                        write.after() == null ? null : write.after().entity()));
+            }
+            for (Write<T> write : writes) {
+                if (write.before() != null) {
+                    resetHotStock(write.id(), write.after() == null ? null : write.after().entity());
+                }
+            }
+            listeners.forEach(listener -> listener.onBatch(changes));
+            for (Write<T> write : writes) {
+                if (write.after() == null) {
+                    store.remove(write.id(), write.before().position());
+                } else {
+                    store.put(write.after().position(), write.after().entity());
+                }
+            }
+            version.incrementAndGet();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+            OperationTimer.stop(sample);
+            event.complete(entityType, operation.label, null, scanned);
+        }
+    }
+
+    /**
+     * What is stored under {@code id} after the batch steps planned so far ({@code pending} maps
+     * deleted ids to {@code null}).
+     */
+    private Stored<T> current(Map<String, Stored<T>> pending, String id) {
+        return pending.containsKey(id) ? pending.get(id) : store.find(id);
+    }
+
+    private static <E> Write<E> stage(Map<String, Stored<E>> pending, Write<E> write) {
+        pending.put(write.id(), write.after());
+        return write;
+    }
+
+    private OperationTimer.Sample startTimer(Operation operation) {
+        return timers[operation.ordinal()].start();
+    }
+
+    private static OperationTimer[] disabledTimers() {
+        OperationTimer[] disabled = new OperationTimer[Operation.values().length];
+        Arrays.fill(disabled, OperationTimer.disabled());
+        return disabled;
+    }
+
+    private ReentrantLock lockFor(String id) {
+        return locks[stripeOf(id)];
+    }
+
+    private static int stripeOf(String id) {
+        int hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    private static int clamp(long quantity) {
+        return (int) Math.min(Integer.MAX_VALUE, quantity);
+    }
+
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor " + cursor + ".");
+        }
+    }
 }
@@ -1,22 +1,93 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.stats.InventoryAggregates;
+import id.ac.ui.cs.advprog.eshop.repository.stats.InventoryStats;
+import id.ac.ui.cs.advprog.eshop.repository.store.CarColumnarStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.CarMappedStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.CarOffHeapStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.MappedStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.ObjectStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.StorageLayout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public class CarRepository extends BaseRepository<Car> {
+    // This repository's own setting, falling back to the one shared by all repositories
+    private static final String STORAGE = "${eshop.repository.cars.storage:${eshop.repository.storage:objects}}";
+    private static final String MAPPED_DIRECTORY =
+            "${eshop.repository.mapped-directory:" + MappedStore.DEFAULT_DIRECTORY + "}";
+
+    private final InventoryAggregates<Car> inventory = new InventoryAggregates<>(Car::getCarQuantity, Car::getCarColor);
+    private final Runnable catchUpInventory;
+
+    public CarRepository() {
+        this(StorageLayout.OBJECTS);
+    }
+
+    public CarRepository(StorageLayout storage) {
+        this(storage, Path.of(MappedStore.DEFAULT_DIRECTORY));
+    }
+
+    /**
+     * @param directory where the {@link StorageLayout#MAPPED} layout keeps its files
+     */
+    @Autowired
+    public CarRepository(@Value(STORAGE) StorageLayout storage, @Value(MAPPED_DIRECTORY) Path directory) {
+        super(car -> Arrays.asList(car.getCarName(), car.getCarColor()), switch (storage) {
+            case OBJECTS -> new ObjectStore<>();
+            case COLUMNAR -> new CarColumnarStore();
+            case OFF_HEAP -> new CarOffHeapStore();
+            case MAPPED -> new CarMappedStore(directory);
+        });
+        catchUpInventory = addDerivedListener(inventory);
+    }
+
+    /**
+     * Current stock figures, counting cars with a quantity below {@code lowStockBelow} as low on stock.
+     */
+    public InventoryStats inventoryStats(int lowStockBelow) {
+        catchUpInventory.run();
+        return inventory.snapshot(lowStockBelow);
+    }
 
     @Override
     public Car update(String id, Car updatedCar) {
-        for (Car car : data) {
-            if (car.getId().equals(id)) {
-                // Update the existing car with the new information
-                car.setCarName(updatedCar.getCarName());
-                car.setCarColor(updatedCar.getCarColor());
-                car.setCarQuantity(updatedCar.getCarQuantity());
-                return car;
-            }
-        }
-        return null; // Handle the case where the car is not found
-    }
-}
\ No newline at end of file
+        // Returns null when the car is not found
+        return replace(id, currentCar -> merge(currentCar, updatedCar));
+    }
+
+    @Override
+    public List<Car> updateAll(Collection<Car> updatedCars) {
+        // All-or-nothing: a missing id fails the batch before anything is written
+        return replaceAll(updatedCars, CarRepository::merge, this::notFound);
+    }
+
+    @Override
+    protected int quantityOf(Car car) {
+        return car.getCarQuantity();
+    }
+
+    @Override
+    protected Car withQuantity(Car currentCar, int quantity) {
+        Car car = merge(currentCar, currentCar);
+        car.setCarQuantity(quantity);
+        return car;
+    }
+
+    private static Car merge(Car currentCar, Car updatedCar) {
+        Car car = new Car();
+        car.setId(currentCar.getId());
+        car.setCarName(updatedCar.getCarName());
+        car.setCarColor(updatedCar.getCarColor());
+        car.setCarQuantity(updatedCar.getCarQuantity());
+        return car;
+    }
+}
@@ -0,0 +1,12 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+/**
+ * Thrown when no entity is stored under the id an operation names. It is an
+ * {@link IllegalArgumentException}, so callers that treat a bad id like any other bad argument
+ * need not tell the two apart.
+ */
+public class EntityNotFoundException extends IllegalArgumentException {
+    public EntityNotFoundException(String id) {
+        super("Entity with Id " + id + " was not found.");
+    }
+}
@@ -0,0 +1,11 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+/**
+ * Thrown when a stock adjustment would take an entity's quantity below zero. The stored entity
+ * is left unchanged.
+ */
+public class InsufficientStockException extends IllegalStateException {
+    public InsufficientStockException(String id, int available, int requested) {
+        super("Entity with Id " + id + " has " + available + " in stock; " + requested + " requested.");
+    }
+}
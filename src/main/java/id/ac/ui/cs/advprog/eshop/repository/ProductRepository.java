@@ -1,10 +1,63 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.stats.InventoryAggregates;
+import id.ac.ui.cs.advprog.eshop.repository.stats.InventoryStats;
+import id.ac.ui.cs.advprog.eshop.repository.store.MappedStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.ObjectStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.ProductColumnarStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.ProductMappedStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.ProductOffHeapStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.StorageLayout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 @Repository
 public class ProductRepository extends BaseRepository<Product> {
+    // This repository's own setting, falling back to the one shared by all repositories
+    private static final String STORAGE = "${eshop.repository.products.storage:${eshop.repository.storage:objects}}";
+    private static final String MAPPED_DIRECTORY =
+            "${eshop.repository.mapped-directory:" + MappedStore.DEFAULT_DIRECTORY + "}";
+
+    private final InventoryAggregates<Product> inventory = new InventoryAggregates<>(Product::getProductQuantity, null);
+    private final Runnable catchUpInventory;
+
+    public ProductRepository() {
+        this(StorageLayout.OBJECTS);
+    }
+
+    public ProductRepository(StorageLayout storage) {
+        this(storage, Path.of(MappedStore.DEFAULT_DIRECTORY));
+    }
+
+    /**
+     * @param directory where the {@link StorageLayout#MAPPED} layout keeps its files
+     */
+    @Autowired
+    public ProductRepository(@Value(STORAGE) StorageLayout storage, @Value(MAPPED_DIRECTORY) Path directory) {
+        super(product -> Collections.singletonList(product.getProductName()), switch (storage) {
+            case OBJECTS -> new ObjectStore<>();
+            case COLUMNAR -> new ProductColumnarStore();
+            case OFF_HEAP -> new ProductOffHeapStore();
+            case MAPPED -> new ProductMappedStore(directory);
+        });
+        catchUpInventory = addDerivedListener(inventory);
+    }
+
+    /**
+     * Current stock figures, counting products with a quantity below {@code lowStockBelow} as low on stock.
+     */
+    public InventoryStats inventoryStats(int lowStockBelow) {
+        catchUpInventory.run();
+        return inventory.snapshot(lowStockBelow);
+    }
+
     public Product update(String id, Product updatedProduct) {
         if (updatedProduct == null || updatedProduct.getId() == null) {
             throw new IllegalArgumentException("Product and Product Id must not be null.");
@@ -14,11 +67,42 @@ public class ProductRepository extends BaseRepository<Product> {
             throw new IllegalArgumentException("Product and Id must match");
         }
 
-        Product currentProduct = findById(id);
+        Product result = replace(id, currentProduct -> merge(currentProduct, updatedProduct));
+
+        if (result == null) {
+            throw notFound(id);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Product> updateAll(Collection<Product> updatedProducts) {
+        for (Product updatedProduct : updatedProducts) {
+            if (updatedProduct == null || updatedProduct.getId() == null) {
+                throw new IllegalArgumentException("Product and Product Id must not be null.");
+            }
+        }
+        // All-or-nothing: a missing id fails the batch before anything is written
+        return replaceAll(updatedProducts, ProductRepository::merge, this::notFound);
+    }
+
+    @Override
+    protected int quantityOf(Product product) {
+        return product.getProductQuantity();
+    }
 
-        currentProduct.setProductName(updatedProduct.getProductName());
-        currentProduct.setProductQuantity(updatedProduct.getProductQuantity());
+    @Override
+    protected Product withQuantity(Product currentProduct, int quantity) {
+        Product product = merge(currentProduct, currentProduct);
+        product.setProductQuantity(quantity);
+        return product;
+    }
 
-        return currentProduct;
+    private static Product merge(Product currentProduct, Product updatedProduct) {
+        Product product = new Product();
+        product.setId(currentProduct.getId());
+        product.setProductName(updatedProduct.getProductName());
+        product.setProductQuantity(updatedProduct.getProductQuantity());
+        return product;
     }
 }
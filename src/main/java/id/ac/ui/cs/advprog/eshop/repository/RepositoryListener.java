@@ -0,0 +1,40 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.List;
+
+/**
+ * Callback invoked by {@link BaseRepository} for every write, while the write still holds the
+ * lock for the entity's id. Listeners run before the change becomes visible to readers, in the
+ * order they were added except that those added with {@link BaseRepository#addFirstListener} come
+ * first; if one throws, the write is abandoned, the listeners after it are not called and the
+ * exception reaches the caller.
+ */
+public interface RepositoryListener<T> {
+    /**
+     * One entity's change within a batch: {@code previous} is {@code null} for a create and
+     * {@code current} is {@code null} for a delete.
+     */
+    record Change<T>(T previous, T current) { }
+
+    default void onCreate(T entity) { }
+
+    default void onUpdate(T previous, T current) { }
+
+    default void onDelete(T entity) { }
+
+    /**
+     * Called once for a batch write, in place of the per-entity callbacks, while the batch holds
+     * the locks of all its ids. By default each change is passed to the per-entity callback.
+     */
+    default void onBatch(List<Change<T>> changes) {
+        for (Change<T> change : changes) {
+            if (change.previous() == null) {
+                onCreate(change.current());
+            } else if (change.current() == null) {
+                onDelete(change.previous());
+            } else {
+                onUpdate(change.previous(), change.current());
+            }
+        }
+    }
+}
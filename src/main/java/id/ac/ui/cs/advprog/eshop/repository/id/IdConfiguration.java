@@ -0,0 +1,28 @@
+package id.ac.ui.cs.advprog.eshop.repository.id;
+
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gives {@link ProductRepository} and {@link CarRepository} the id generator chosen with
+ * {@code eshop.repository.id-strategy}.
+ */
+@Configuration
+@EnableConfigurationProperties(IdProperties.class)
+@RequiredArgsConstructor
+public class IdConfiguration {
+
+    private final IdProperties properties;
+    private final ProductRepository productRepository;
+    private final CarRepository carRepository;
+
+    @PostConstruct
+    public void configure() {
+        productRepository.setIdGenerator(properties.getIdStrategy().newGenerator());
+        carRepository.setIdGenerator(properties.getIdStrategy().newGenerator());
+    }
+}
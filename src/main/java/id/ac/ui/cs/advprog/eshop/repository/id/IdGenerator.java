@@ -0,0 +1,9 @@
+package id.ac.ui.cs.advprog.eshop.repository.id;
+
+/**
+ * Supplies ids for entities created without one.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+    String nextId();
+}
@@ -0,0 +1,11 @@
+package id.ac.ui.cs.advprog.eshop.repository.id;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "eshop.repository")
+public class IdProperties {
+    private IdStrategy idStrategy = IdStrategy.TIME_ORDERED;
+}
@@ -0,0 +1,26 @@
+package id.ac.ui.cs.advprog.eshop.repository.id;
+
+import java.util.UUID;
+
+/**
+ * How repositories generate ids for entities created without one.
+ */
+public enum IdStrategy {
+    /**
+     * Random version 4 UUIDs from {@code SecureRandom}: unguessable, but every id waits on a shared
+     * entropy source and consecutive ids are scattered.
+     */
+    RANDOM_UUID,
+    /**
+     * Version 7 UUIDs ({@link TimeOrderedIdGenerator}): increasing in creation order and generated
+     * without blocking, but an id hints at when its entity was created and its neighbours.
+     */
+    TIME_ORDERED;
+
+    public IdGenerator newGenerator() {
+        return switch (this) {
+            case RANDOM_UUID -> () -> UUID.randomUUID().toString();
+            case TIME_ORDERED -> new TimeOrderedIdGenerator();
+        };
+    }
+}
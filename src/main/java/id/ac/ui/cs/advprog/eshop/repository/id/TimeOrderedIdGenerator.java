@@ -0,0 +1,44 @@
+package id.ac.ui.cs.advprog.eshop.repository.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Version 7 UUIDs (RFC 9562): a 48-bit Unix millisecond timestamp, a 12-bit counter that orders
+ * ids generated within the same millisecond, and 62 random bits.
+ *
+ * <p>Timestamp and counter are advanced together in one atomic step, so ids from one generator
+ * are strictly increasing, in both value and string form, across threads and even if the clock
+ * steps back; past 4096 ids in a millisecond the timestamp runs slightly ahead of the clock. The
+ * random bits come from {@link ThreadLocalRandom}, so generating an id never blocks on entropy.
+ */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+    private static final int COUNTER_BITS = 12;
+
+    private final LongSupplier clock;
+    // (milliseconds << COUNTER_BITS) | counter of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextId() {
+        return nextUuid().toString();
+    }
+
+    public UUID nextUuid() {
+        long stamp = last.accumulateAndGet(clock.getAsLong() << COUNTER_BITS,
+                (previous, now) -> Math.max(now, previous + 1));
+        long mostSignificant = (stamp >>> COUNTER_BITS) << 16 | 0x7000L | (stamp & 0xFFFL);
+        long leastSignificant = ThreadLocalRandom.current().nextLong() >>> 2 | 0x8000_0000_0000_0000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -0,0 +1,52 @@
+package id.ac.ui.cs.advprog.eshop.repository.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A repository operation, recorded by Java Flight Recorder when it takes at least the event's
+ * threshold. Repositories {@link #begin()} the event before the operation and
+ * {@link #complete complete} it after; while no recording has the event enabled, that costs
+ * next to nothing.
+ *
+ * <p>The default threshold below applies to recordings that do not set one; the application sets
+ * its own through {@link RepositoryEventSettings}. Stack traces are off by default: the
+ * operation is named by the fields, and capturing a stack costs more than most operations do.
+ */
+@Category({"eShop", "Repository"})
+@StackTrace(false)
+@Threshold("10 ms")
+public abstract class RepositoryEvent extends Event {
+    @Label("Entity Type")
+    String entityType;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Id")
+    @Description("Id of the entity operated on; absent for batches, listings and searches")
+    String id;
+
+    @Label("Scanned")
+    @Description("Entities the operation read or wrote")
+    long scanned;
+
+    /**
+     * Ends the event and commits it if the recordings ask for it; the fields are only filled in
+     * then.
+     */
+    public void complete(String entityType, String operation, String id, long scanned) {
+        end();
+        if (shouldCommit()) {
+            this.entityType = entityType;
+            this.operation = operation;
+            this.id = id;
+            this.scanned = scanned;
+            commit();
+        }
+    }
+}
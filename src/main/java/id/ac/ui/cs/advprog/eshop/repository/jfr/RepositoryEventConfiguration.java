@@ -0,0 +1,38 @@
+package id.ac.ui.cs.advprog.eshop.repository.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gives Flight Recorder recordings the repository event thresholds set with
+ * {@code eshop.jfr.read-threshold} and {@code eshop.jfr.write-threshold}, unless
+ * {@code eshop.jfr.enabled} is {@code false}, in which case the recordings' own settings apply.
+ */
+@Configuration
+@EnableConfigurationProperties(RepositoryEventProperties.class)
+@RequiredArgsConstructor
+public class RepositoryEventConfiguration {
+
+    private final RepositoryEventProperties properties;
+
+    private RepositoryEventSettings settings;
+
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            settings = new RepositoryEventSettings(properties.getReadThreshold(), properties.getWriteThreshold(),
+                    properties.isStackTrace());
+            settings.register();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (settings != null) {
+            settings.unregister();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package id.ac.ui.cs.advprog.eshop.repository.jfr;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "eshop.jfr")
+public class RepositoryEventProperties {
+    private boolean enabled = true;
+    private Duration readThreshold = Duration.ofMillis(1);
+    private Duration writeThreshold = Duration.ofMillis(5);
+    private boolean stackTrace = false;
+}
@@ -0,0 +1,73 @@
+package id.ac.ui.cs.advprog.eshop.repository.jfr;
+
+import jdk.jfr.EventSettings;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.time.Duration;
+
+/**
+ * Applies the application's thresholds for {@link RepositoryReadEvent} and
+ * {@link RepositoryWriteEvent} to every Flight Recorder recording, whether started with
+ * {@code -XX:StartFlightRecording}, through {@code jcmd} or in-process, overriding what the
+ * recording's own settings say about these two events.
+ */
+public class RepositoryEventSettings implements FlightRecorderListener {
+    private final Duration readThreshold;
+    private final Duration writeThreshold;
+    private final boolean stackTrace;
+
+    public RepositoryEventSettings(Duration readThreshold, Duration writeThreshold, boolean stackTrace) {
+        this.readThreshold = readThreshold;
+        this.writeThreshold = writeThreshold;
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * Applies the settings to the recordings already running and to every one started later.
+     * Does nothing on a JVM without Flight Recorder.
+     */
+    public void register() {
+        if (!FlightRecorder.isAvailable()) {
+            return;
+        }
+        FlightRecorder.addListener(this);
+        // Asking for the recorder would start it up, so only look when something already has
+        if (FlightRecorder.isInitialized()) {
+            for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+                if (recording.getState() == RecordingState.RUNNING) {
+                    apply(recording);
+                }
+            }
+        }
+    }
+
+    public void unregister() {
+        if (FlightRecorder.isAvailable()) {
+            FlightRecorder.removeListener(this);
+        }
+    }
+
+    @Override
+    public void recordingStateChanged(Recording recording) {
+        if (recording.getState() == RecordingState.RUNNING) {
+            apply(recording);
+        }
+    }
+
+    public void apply(Recording recording) {
+        configure(recording.enable(RepositoryReadEvent.class), readThreshold);
+        configure(recording.enable(RepositoryWriteEvent.class), writeThreshold);
+    }
+
+    private void configure(EventSettings settings, Duration threshold) {
+        settings.withThreshold(threshold);
+        if (stackTrace) {
+            settings.withStackTrace();
+        } else {
+            settings.withoutStackTrace();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package id.ac.ui.cs.advprog.eshop.repository.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A lookup, listing or search.
+ */
+@Name(RepositoryReadEvent.NAME)
+@Label("Repository Read")
+public class RepositoryReadEvent extends RepositoryEvent {
+    public static final String NAME = "eshop.RepositoryRead";
+}
@@ -0,0 +1,13 @@
+package id.ac.ui.cs.advprog.eshop.repository.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A create, update, delete, batch of them, or stock adjustment.
+ */
+@Name(RepositoryWriteEvent.NAME)
+@Label("Repository Write")
+public class RepositoryWriteEvent extends RepositoryEvent {
+    public static final String NAME = "eshop.RepositoryWrite";
+}
@@ -0,0 +1,31 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static id.ac.ui.cs.advprog.eshop.repository.persistence.EntityCodec.readNullableString;
+import static id.ac.ui.cs.advprog.eshop.repository.persistence.EntityCodec.writeNullableString;
+
+public class CarCodec implements EntityCodec<Car> {
+
+    @Override
+    public void write(DataOutput out, Car car) throws IOException {
+        out.writeUTF(car.getId());
+        writeNullableString(out, car.getCarName());
+        writeNullableString(out, car.getCarColor());
+        out.writeInt(car.getCarQuantity());
+    }
+
+    @Override
+    public Car read(DataInput in) throws IOException {
+        Car car = new Car();
+        car.setId(in.readUTF());
+        car.setCarName(readNullableString(in));
+        car.setCarColor(readNullableString(in));
+        car.setCarQuantity(in.readInt());
+        return car;
+    }
+}
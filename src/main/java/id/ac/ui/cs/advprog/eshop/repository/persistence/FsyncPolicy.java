@@ -0,0 +1,10 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+public enum FsyncPolicy {
+    /** Every append waits until it is on disk; concurrent appends share one fsync. */
+    ALWAYS,
+    /** A background thread fsyncs pending appends every configured interval. */
+    INTERVAL,
+    /** Appends are handed to the OS and only forced to disk on close. */
+    OS
+}
@@ -0,0 +1,29 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static id.ac.ui.cs.advprog.eshop.repository.persistence.EntityCodec.readNullableString;
+import static id.ac.ui.cs.advprog.eshop.repository.persistence.EntityCodec.writeNullableString;
+
+public class ProductCodec implements EntityCodec<Product> {
+
+    @Override
+    public void write(DataOutput out, Product product) throws IOException {
+        out.writeUTF(product.getId());
+        writeNullableString(out, product.getProductName());
+        out.writeInt(product.getProductQuantity());
+    }
+
+    @Override
+    public Product read(DataInput in) throws IOException {
+        Product product = new Product();
+        product.setId(in.readUTF());
+        product.setProductName(readNullableString(in));
+        product.setProductQuantity(in.readInt());
+        return product;
+    }
+}
@@ -0,0 +1,169 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+import id.ac.ui.cs.advprog.eshop.repository.BaseRepository;
+import id.ac.ui.cs.advprog.eshop.repository.RepositoryListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records every write of one repository in a {@link WriteAheadLog} and rebuilds the repository
+ * from the newest snapshot plus the log tail on startup. Creates and updates are logged as the
+ * full entity state, so replaying a record that the snapshot already reflects is harmless.
+ */
+public class RepositoryJournal<T extends IdHolder> implements RepositoryListener<T>, Closeable {
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private final BaseRepository<T> repository;
+    private final EntityCodec<T> codec;
+    private final WriteAheadLog log;
+    private final SnapshotStore snapshots;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final AtomicLong writesSinceSnapshot = new AtomicLong();
+
+    public RepositoryJournal(BaseRepository<T> repository, EntityCodec<T> codec,
+                             WriteAheadLog log, SnapshotStore snapshots) {
+        this.repository = repository;
+        this.codec = codec;
+        this.log = log;
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Loads the newest snapshot and replays the log after it into the repository, then starts
+     * journaling its writes. The journal runs before the repository's other listeners, so a write
+     * it fails to log never reaches its index or aggregates.
+     */
+    public void recover() throws IOException {
+        long fromSegment = snapshots.load(codec, repository::create);
+        log.replay(fromSegment, record -> {
+            byte operation = record.readByte();
+            if (operation == PUT) {
+                repository.create(codec.read(record));
+            } else if (operation == DELETE) {
+                repository.delete(record.readUTF());
+            } else {
+                throw new IOException("Unknown journal operation " + operation);
+            }
+            writesSinceSnapshot.incrementAndGet();
+        });
+        repository.addFirstListener(this);
+    }
+
+    /**
+     * Writes a snapshot of the repository and drops the log segments and snapshots it supersedes.
+     * Returns {@code false} without doing anything when nothing was written since the last one.
+     */
+    public boolean snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            if (writesSinceSnapshot.get() == 0) {
+                return false;
+            }
+            long[] covered = new long[1];
+            // Rolling with writes paused guarantees every record left in the old segments is
+            // already visible to findAll(), so the snapshot covers them.
+            long segment = repository.withWritesPaused(() -> {
+                try {
+                    long next = log.roll();
+                    covered[0] = writesSinceSnapshot.getAndSet(0);
+                    return next;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            try {
+                snapshots.write(segment, repository.findAll(), codec);
+            } catch (IOException e) {
+                writesSinceSnapshot.addAndGet(covered[0]);
+                throw e;
+            }
+            log.deleteSegmentsBefore(segment);
+            snapshots.deleteBefore(segment);
+            return true;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void onCreate(T entity) {
+        put(entity);
+    }
+
+    @Override
+    public void onUpdate(T previous, T current) {
+        put(current);
+    }
+
+    @Override
+    public void onDelete(T entity) {
+        try {
+            log.append(deleteRecord(entity));
+            writesSinceSnapshot.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Logs the whole batch with one append (and so at most one fsync).
+     */
+    @Override
+    public void onBatch(List<Change<T>> changes) {
+        try {
+            List<byte[]> records = new ArrayList<>(changes.size());
+            for (Change<T> change : changes) {
+                records.add(change.current() == null
+                        ? deleteRecord(change.previous())
+                        : putRecord(change.current()));
+            }
+            log.appendAll(records);
+            writesSinceSnapshot.addAndGet(records.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        repository.removeListener(this);
+        log.close();
+    }
+
+    private void put(T entity) {
+        try {
+            log.append(putRecord(entity));
+            writesSinceSnapshot.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] putRecord(T entity) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(PUT);
+        codec.write(out, entity);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deleteRecord(IdHolder entity) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(DELETE);
+        out.writeUTF(entity.getId());
+        return bytes.toByteArray();
+    }
+}
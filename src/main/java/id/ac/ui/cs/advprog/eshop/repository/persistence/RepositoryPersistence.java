@@ -0,0 +1,108 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable mode: journals {@link ProductRepository} and {@link CarRepository} writes to disk,
+ * snapshots them periodically, and restores them on startup. Enabled with
+ * {@code eshop.persistence.enabled=true}.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(PersistenceProperties.class)
+@ConditionalOnProperty(prefix = "eshop.persistence", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class RepositoryPersistence {
+
+    private final PersistenceProperties properties;
+    private final ProductRepository productRepository;
+    private final CarRepository carRepository;
+
+    private RepositoryJournal<Product> productJournal;
+    private RepositoryJournal<Car> carJournal;
+    private ScheduledExecutorService snapshotter;
+
+    @PostConstruct
+    public void recover() throws IOException {
+        Path directory = Files.createDirectories(Path.of(properties.getDirectory()));
+
+        long started = System.nanoTime();
+        RepositoryJournal<Product> products = new RepositoryJournal<>(productRepository, new ProductCodec(),
+                openLog(directory, "products"), new SnapshotStore(directory, "products"));
+        products.recover();
+        productJournal = products;
+
+        RepositoryJournal<Car> cars = new RepositoryJournal<>(carRepository, new CarCodec(),
+                openLog(directory, "cars"), new SnapshotStore(directory, "cars"));
+        cars.recover();
+        carJournal = cars;
+        log.info("Restored repositories from {} in {} ms", directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        long interval = properties.getSnapshotInterval().toMillis();
+        if (interval > 0) {
+            snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "repository-snapshotter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotter.scheduleWithFixedDelay(this::snapshot, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void snapshot() {
+        for (RepositoryJournal<?> journal : List.of(productJournal, carJournal)) {
+            try {
+                journal.snapshot();
+            } catch (IOException e) {
+                log.warn("Repository snapshot failed; the write-ahead log is kept", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+            try {
+                snapshotter.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Journal the stock hot entities sold since their last reconciliation
+        productRepository.reconcileHotStock();
+        carRepository.reconcileHotStock();
+        try {
+            if (productJournal != null) {
+                productJournal.close();
+            }
+        } finally {
+            if (carJournal != null) {
+                carJournal.close();
+            }
+        }
+    }
+
+    private WriteAheadLog openLog(Path directory, String name) throws IOException {
+        return new WriteAheadLog(directory, name, properties.getFsyncPolicy(), properties.getFsyncInterval());
+    }
+}
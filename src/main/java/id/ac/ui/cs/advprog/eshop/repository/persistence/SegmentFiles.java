@@ -0,0 +1,43 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Naming scheme shared by log segments and snapshots: {@code <name>.<16-digit number><extension>}.
+ */
+final class SegmentFiles {
+
+    private SegmentFiles() { }
+
+    static Path path(Path directory, String name, long number, String extension) {
+        return directory.resolve(String.format("%s.%016d%s", name, number, extension));
+    }
+
+    /**
+     * Numbers of the existing files for {@code name}, in ascending order.
+     */
+    static List<Long> list(Path directory, String name, String extension) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        String prefix = name + ".";
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String fileName = file.getFileName().toString();
+                if (!fileName.startsWith(prefix) || !fileName.endsWith(extension)) {
+                    continue;
+                }
+                String number = fileName.substring(prefix.length(), fileName.length() - extension.length());
+                if (!number.isEmpty() && number.chars().allMatch(Character::isDigit)) {
+                    numbers.add(Long.parseLong(number));
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+}
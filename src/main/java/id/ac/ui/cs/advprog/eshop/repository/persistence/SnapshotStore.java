@@ -0,0 +1,165 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Full-state snapshots of one repository, stored as {@code <name>.<segment>.snapshot}. The segment
+ * number is the first log segment that is not covered by the snapshot.
+ *
+ * <p>File layout: {@code [int magic][int version][long count][int crc32 of body][body]}. Snapshots are
+ * written to a temporary file and renamed into place, and read back through memory-mapped windows so
+ * loading does not copy the file through the heap.
+ */
+public class SnapshotStore {
+    private static final int MAGIC = 0x45534e50; // "ESNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES;
+    private static final int MAP_WINDOW = 1 << 30;
+    private static final String EXTENSION = ".snapshot";
+
+    private final Path directory;
+    private final String name;
+
+    public SnapshotStore(Path directory, String name) {
+        this.directory = directory;
+        this.name = name;
+    }
+
+    public <T> void write(long segment, Iterator<T> entities, EntityCodec<T> codec) throws IOException {
+        Path temporary = directory.resolve(name + EXTENSION + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            long count = 0;
+            while (entities.hasNext()) {
+                codec.write(out, entities.next());
+                count++;
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC).putInt(VERSION).putLong(count).putInt((int) crc.getValue()).flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(temporary, SegmentFiles.path(directory, name, segment, EXTENSION),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Feeds the entities of the newest snapshot to {@code sink} and returns the first log segment
+     * to replay after it, or {@code 0} when there is no snapshot.
+     */
+    public <T> long load(EntityCodec<T> codec, Consumer<T> sink) throws IOException {
+        List<Long> snapshots = SegmentFiles.list(directory, name, EXTENSION);
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        long segment = snapshots.get(snapshots.size() - 1);
+        Path file = SegmentFiles.path(directory, name, segment, EXTENSION);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Truncated snapshot " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Unsupported snapshot format in " + file);
+            }
+            long count = header.getLong();
+            int checksum = header.getInt();
+            if (checksum(channel) != checksum) {
+                throw new IOException("Snapshot checksum mismatch in " + file);
+            }
+
+            DataInputStream in = new DataInputStream(new MappedInputStream(channel, HEADER_BYTES));
+            for (long i = 0; i < count; i++) {
+                sink.accept(codec.read(in));
+            }
+        }
+        return segment;
+    }
+
+    public void deleteBefore(long segment) throws IOException {
+        for (long existing : SegmentFiles.list(directory, name, EXTENSION)) {
+            if (existing < segment) {
+                Files.deleteIfExists(SegmentFiles.path(directory, name, existing, EXTENSION));
+            }
+        }
+    }
+
+    private static int checksum(FileChannel channel) throws IOException {
+        CRC32 crc = new CRC32();
+        long size = channel.size();
+        for (long position = HEADER_BYTES; position < size; position += MAP_WINDOW) {
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position)));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Reads a file sequentially through consecutive memory-mapped windows.
+     */
+    private static final class MappedInputStream extends InputStream {
+        private final FileChannel channel;
+        private long nextWindow;
+        private MappedByteBuffer window;
+
+        MappedInputStream(FileChannel channel, long start) {
+            this.channel = channel;
+            this.nextWindow = start;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return nextWindow() ? window.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextWindow()) {
+                return -1;
+            }
+            int count = Math.min(length, window.remaining());
+            window.get(buffer, offset, count);
+            return count;
+        }
+
+        private boolean nextWindow() throws IOException {
+            if (window != null && window.hasRemaining()) {
+                return true;
+            }
+            long size = channel.size();
+            if (nextWindow >= size) {
+                return false;
+            }
+            long length = Math.min(MAP_WINDOW, size - nextWindow);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, nextWindow, length);
+            nextWindow += length;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of length-prefixed, checksummed records, split into numbered segment files
+ * ({@code <name>.<segment>.wal}) so that a snapshot can retire the segments it covers.
+ *
+ * <p>Each record is framed as {@code [int length][int crc32][payload]}. When {@link FsyncPolicy#ALWAYS}
+ * is used, appenders that arrive while an fsync is running wait for the next one instead of issuing
+ * their own, so a burst of concurrent writes costs one fsync (group commit).
+ *
+ * <p>A failed append never leaves a torn record in front of later ones: a failed write is cut off
+ * the segment again, and under {@link FsyncPolicy#ALWAYS} so is everything a failed fsync left
+ * unacknowledged. After a failed fsync, or if cutting off fails, the log refuses every later append
+ * and sync, as what reached the disk is no longer known.
+ */
+public class WriteAheadLog implements Closeable {
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final String EXTENSION = ".wal";
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void accept(DataInput record) throws IOException;
+    }
+
+    private final Path directory;
+    private final String name;
+    private final FsyncPolicy policy;
+    private final ScheduledExecutorService flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private FileChannel channel;
+    private long segment;
+    // Logical positions across all segments, used only to decide which appends are durable.
+    private long writtenPosition;
+    private long durablePosition;
+    // Where durablePosition falls in the current segment
+    private long durableOffset;
+    private boolean syncInProgress;
+    private IOException failure;
+
+    public WriteAheadLog(Path directory, String name, FsyncPolicy policy, Duration fsyncInterval) throws IOException {
+        this.directory = directory;
+        this.name = name;
+        this.policy = policy;
+
+        List<Long> segments = SegmentFiles.list(directory, name, EXTENSION);
+        this.segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        this.channel = openSegment(segment);
+        channel.position(channel.size());
+        durableOffset = channel.size();
+
+        if (policy == FsyncPolicy.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-flusher-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(1, fsyncInterval.toMillis());
+            flusher.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Feeds every intact record in segments numbered {@code fromSegment} or later to
+     * {@code handler}, in append order. A torn or corrupt tail in the newest segment, left behind
+     * by a crash in the middle of an append, is truncated so later appends start cleanly.
+     */
+    public void replay(long fromSegment, RecordHandler handler) throws IOException {
+        lock.lock();
+        try {
+            for (long number : SegmentFiles.list(directory, name, EXTENSION)) {
+                if (number < fromSegment) {
+                    continue;
+                }
+                if (number == segment) {
+                    long end = replaySegment(channel, handler);
+                    if (end < channel.size()) {
+                        channel.truncate(end);
+                    }
+                    channel.position(end);
+                    durableOffset = end;
+                } else {
+                    try (FileChannel sealed = FileChannel.open(segmentFile(number), StandardOpenOption.READ)) {
+                        if (replaySegment(sealed, handler) < sealed.size()) {
+                            throw new IOException("Corrupt record in sealed log segment " + segmentFile(number));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void append(byte[] payload) throws IOException {
+        appendAll(List.of(payload));
+    }
+
+    /**
+     * Appends {@code payloads} as consecutive records in a single write, so a batch costs one
+     * system call and, under {@link FsyncPolicy#ALWAYS}, one fsync.
+     */
+    public void appendAll(List<byte[]> payloads) throws IOException {
+        int size = 0;
+        for (byte[] payload : payloads) {
+            size += HEADER_BYTES + payload.length;
+        }
+        ByteBuffer records = ByteBuffer.allocate(size);
+        for (byte[] payload : payloads) {
+            records.putInt(payload.length).putInt(checksum(payload)).put(payload);
+        }
+        records.flip();
+
+        long end;
+        lock.lock();
+        try {
+            checkNotFailed();
+            long start = channel.position();
+            try {
+                while (records.hasRemaining()) {
+                    channel.write(records);
+                }
+            } catch (IOException e) {
+                cutOff(start, e);
+                throw e;
+            }
+            writtenPosition += records.capacity();
+            end = writtenPosition;
+        } finally {
+            lock.unlock();
+        }
+
+        if (policy == FsyncPolicy.ALWAYS) {
+            awaitDurable(end);
+        }
+    }
+
+    /**
+     * Seals the current segment and starts a new one. Returns the new segment's number; every
+     * record appended from now on lands in that segment or a later one.
+     */
+    public long roll() throws IOException {
+        lock.lock();
+        try {
+            while (syncInProgress) {
+                synced.awaitUninterruptibly();
+            }
+            checkNotFailed();
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                forceFailed(e);
+                throw e;
+            }
+            durablePosition = writtenPosition;
+            durableOffset = 0;
+            FileChannel next = openSegment(segment + 1);
+            channel.close();
+            channel = next;
+            segment++;
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void deleteSegmentsBefore(long number) throws IOException {
+        for (long existing : SegmentFiles.list(directory, name, EXTENSION)) {
+            if (existing < number) {
+                Files.deleteIfExists(segmentFile(existing));
+            }
+        }
+    }
+
+    public void sync() throws IOException {
+        long end;
+        lock.lock();
+        try {
+            end = writtenPosition;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void awaitDurable(long position) throws IOException {
+        lock.lock();
+        try {
+            while (durablePosition < position) {
+                checkNotFailed();
+                if (syncInProgress) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                // Become the leader: one fsync covers everything written so far.
+                long target = writtenPosition;
+                long targetOffset = channel.position();
+                FileChannel current = channel;
+                syncInProgress = true;
+                IOException error = null;
+                lock.unlock();
+                try {
+                    current.force(false);
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                    syncInProgress = false;
+                    if (error != null) {
+                        forceFailed(error);
+                    } else if (target > durablePosition) {
+                        durablePosition = target;
+                        durableOffset = targetOffset;
+                    }
+                    synced.signalAll();
+                }
+                if (error != null) {
+                    throw error;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            // The log has failed; the next append reports it
+        }
+    }
+
+    private void checkNotFailed() throws IOException {
+        if (failure != null) {
+            throw new IOException("Write-ahead log failed earlier; no more records are accepted", failure);
+        }
+    }
+
+    /**
+     * Removes what a failed write left at {@code offset} and beyond in the current segment, or
+     * fails the log if that is not possible. Called with the lock held.
+     */
+    private void cutOff(long offset, IOException cause) {
+        try {
+            channel.truncate(offset);
+            channel.position(offset);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            failure = cause;
+        }
+    }
+
+    /**
+     * Fails the log after an fsync failed. Under {@link FsyncPolicy#ALWAYS} no record past the
+     * last successful fsync has been acknowledged, so those records are cut off; under the other
+     * policies they were, and stay. Called with the lock held.
+     */
+    private void forceFailed(IOException cause) {
+        if (policy == FsyncPolicy.ALWAYS) {
+            cutOff(durableOffset, cause);
+            writtenPosition = durablePosition;
+        }
+        failure = cause;
+    }
+
+    /**
+     * Returns the offset just past the last intact record.
+     */
+    private static long replaySegment(FileChannel source, RecordHandler handler) throws IOException {
+        long size = source.size();
+        long position = 0;
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(source.position(0)), 1 << 16));
+        try {
+            while (position + HEADER_BYTES <= size) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || position + HEADER_BYTES + length > size) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (checksum(payload) != checksum) {
+                    break;
+                }
+                handler.accept(new DataInputStream(new ByteArrayInputStream(payload)));
+                position += HEADER_BYTES + length;
+            }
+        } catch (EOFException e) {
+            throw new IOException("Write-ahead log changed while it was being replayed", e);
+        }
+        return position;
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return open(segmentFile(number));
+    }
+
+    /**
+     * Opens a segment file for reading and appending; tests override it to inject I/O failures.
+     */
+    FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentFile(long number) {
+        return SegmentFiles.path(directory, name, number, EXTENSION);
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
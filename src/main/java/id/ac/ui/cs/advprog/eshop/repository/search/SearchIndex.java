@@ -0,0 +1,285 @@
+package id.ac.ui.cs.advprog.eshop.repository.search;
+
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+import id.ac.ui.cs.advprog.eshop.repository.RepositoryListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory text index over selected fields of a repository's entities, kept current through
+ * {@link RepositoryListener} callbacks.
+ *
+ * <p>Two structures back it: a map from each word (and each whole field value) to entity ids, with
+ * its keys also kept sorted for prefix search, and a trigram map for substring search and
+ * typo-tolerant matching. Posting sets are only changed inside {@code ConcurrentHashMap.compute},
+ * so writes to different entities sharing a term cannot lose each other's ids.
+ */
+public class SearchIndex<T extends IdHolder> implements RepositoryListener<T> {
+    private static final int GRAM = 3;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Upper bound on the candidates an approximate query examines, which keeps typo-tolerant
+    // queries fast even when every trigram of the query is common.
+    private static final int FUZZY_CANDIDATE_LIMIT = 20_000;
+    // An approximate match must share this fraction of the query's trigrams, and at least two.
+    private static final double FUZZY_THRESHOLD = 0.6;
+    private static final int FUZZY_MIN_SHARED = 2;
+
+    private final Function<T, List<String>> fields;
+    private final ConcurrentMap<String, Set<String>> terms = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> sortedTerms = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<String, Set<String>> grams = new ConcurrentHashMap<>();
+
+    public SearchIndex(Function<T, List<String>> fields) {
+        this.fields = fields;
+    }
+
+    @Override
+    public void onCreate(T entity) {
+        add(entity);
+    }
+
+    @Override
+    public void onUpdate(T previous, T current) {
+        // Stock changes and other edits of unindexed fields leave the postings as they are
+        if (previous.getId().equals(current.getId()) && fields.apply(previous).equals(fields.apply(current))) {
+            return;
+        }
+        remove(previous);
+        add(current);
+    }
+
+    @Override
+    public void onDelete(T entity) {
+        remove(entity);
+    }
+
+    /**
+     * Returns up to {@code limit} entities matching {@code query}: word or field prefix matches
+     * first, then substring matches, then approximate matches ranked by trigram similarity.
+     * {@code lookup} resolves ids to the current entities and returns {@code null} for ids that
+     * have since been deleted.
+     */
+    public List<T> search(String query, int limit, Function<String, T> lookup) {
+        String normalized = normalize(query);
+        Map<String, T> results = new LinkedHashMap<>();
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        collectPrefixMatches(normalized, limit, lookup, results);
+        if (results.size() < limit && normalized.length() >= GRAM) {
+            collectSubstringMatches(normalized, limit, lookup, results);
+        }
+        if (results.size() < limit && normalized.length() >= GRAM) {
+            collectApproximateMatches(normalized, limit, lookup, results);
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    private void collectPrefixMatches(String query, int limit, Function<String, T> lookup, Map<String, T> results) {
+        for (String term : sortedTerms.subSet(query, true, query + Character.MAX_VALUE, true)) {
+            Set<String> ids = terms.getOrDefault(term, Collections.emptySet());
+            for (String id : ids) {
+                if (results.size() == limit) {
+                    return;
+                }
+                addResult(id, lookup, results);
+            }
+        }
+    }
+
+    private void collectSubstringMatches(String query, int limit, Function<String, T> lookup, Map<String, T> results) {
+        List<Set<String>> postings = new ArrayList<>();
+        for (String gram : trigrams(query)) {
+            Set<String> ids = grams.get(gram);
+            if (ids == null) {
+                return;
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        Set<String> smallest = postings.get(0);
+        List<Set<String>> others = postings.subList(1, postings.size());
+        for (String id : smallest) {
+            if (results.size() == limit) {
+                return;
+            }
+            if (results.containsKey(id) || !others.stream().allMatch(ids -> ids.contains(id))) {
+                continue;
+            }
+            T entity = lookup.apply(id);
+            if (entity != null && normalizedFields(entity).stream().anyMatch(text -> text.contains(query))) {
+                results.put(id, entity);
+            }
+        }
+    }
+
+    private void collectApproximateMatches(String query, int limit, Function<String, T> lookup, Map<String, T> results) {
+        Set<String> queryGrams = trigrams(query);
+        int required = Math.max(FUZZY_MIN_SHARED, (int) Math.ceil(FUZZY_THRESHOLD * queryGrams.size()));
+        if (required > queryGrams.size()) {
+            return;
+        }
+        List<Set<String>> postings = new ArrayList<>();
+        for (String gram : queryGrams) {
+            postings.add(grams.getOrDefault(gram, Collections.emptySet()));
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        // A match shares at least `required` trigrams, so it must appear in one of the
+        // (size - required + 1) smallest posting sets; only those are scanned for candidates,
+        // rarest trigrams first, until enough matches are found to fill the page.
+        int wanted = limit - results.size();
+        Set<String> examined = new HashSet<>();
+        List<Scored<T>> ranked = new ArrayList<>();
+        scan:
+        for (Set<String> posting : postings.subList(0, postings.size() - required + 1)) {
+            for (String id : posting) {
+                if (ranked.size() >= wanted || examined.size() >= FUZZY_CANDIDATE_LIMIT) {
+                    break scan;
+                }
+                if (!examined.add(id) || results.containsKey(id)
+                        || postings.stream().filter(ids -> ids.contains(id)).count() < required) {
+                    continue;
+                }
+                scoreCandidate(id, queryGrams, required, lookup, ranked);
+            }
+        }
+
+        ranked.sort(Comparator.comparingDouble((Scored<T> candidate) -> candidate.score()).reversed());
+        for (Scored<T> candidate : ranked) {
+            if (results.size() == limit) {
+                return;
+            }
+            results.put(candidate.id(), candidate.entity());
+        }
+    }
+
+    private void scoreCandidate(String id, Set<String> queryGrams, int required,
+                                Function<String, T> lookup, List<Scored<T>> ranked) {
+        T entity = lookup.apply(id);
+        if (entity == null) {
+            return;
+        }
+        int best = 0;
+        for (String text : normalizedFields(entity)) {
+            Set<String> shared = trigrams(text);
+            shared.retainAll(queryGrams);
+            best = Math.max(best, shared.size());
+        }
+        if (best >= required) {
+            ranked.add(new Scored<>(id, entity, (double) best / queryGrams.size()));
+        }
+    }
+
+    private record Scored<E>(String id, E entity, double score) { }
+
+    private static <T extends IdHolder> void addResult(String id, Function<String, T> lookup, Map<String, T> results) {
+        if (!results.containsKey(id)) {
+            T entity = lookup.apply(id);
+            if (entity != null) {
+                results.put(id, entity);
+            }
+        }
+    }
+
+    private void add(T entity) {
+        String id = entity.getId();
+        for (String text : normalizedFields(entity)) {
+            for (String term : terms(text)) {
+                terms.compute(term, (key, ids) -> {
+                    if (ids == null) {
+                        sortedTerms.add(key);
+                    }
+                    return withId(ids, id);
+                });
+            }
+            for (String gram : trigrams(text)) {
+                grams.compute(gram, (key, ids) -> withId(ids, id));
+            }
+        }
+    }
+
+    private void remove(T entity) {
+        String id = entity.getId();
+        for (String text : normalizedFields(entity)) {
+            for (String term : terms(text)) {
+                terms.computeIfPresent(term, (key, ids) -> {
+                    Set<String> remaining = withoutId(ids, id);
+                    if (remaining == null) {
+                        sortedTerms.remove(key);
+                    }
+                    return remaining;
+                });
+            }
+            for (String gram : trigrams(text)) {
+                grams.computeIfPresent(gram, (key, ids) -> withoutId(ids, id));
+            }
+        }
+    }
+
+    private static Set<String> withId(Set<String> ids, String id) {
+        Set<String> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+        result.add(id);
+        return result;
+    }
+
+    private static Set<String> withoutId(Set<String> ids, String id) {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+    }
+
+    private List<String> normalizedFields(T entity) {
+        List<String> values = fields.apply(entity);
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        List<String> normalized = new ArrayList<>(values.size());
+        for (String value : values) {
+            String text = normalize(value);
+            if (!text.isEmpty()) {
+                normalized.add(text);
+            }
+        }
+        return normalized;
+    }
+
+    private static Set<String> terms(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        result.add(text);
+        for (String word : WORD_SEPARATOR.split(text)) {
+            if (!word.isEmpty()) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            result.add(text.substring(i, i + GRAM));
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return Objects.requireNonNullElse(text, "").trim().toLowerCase(Locale.ROOT);
+    }
+}
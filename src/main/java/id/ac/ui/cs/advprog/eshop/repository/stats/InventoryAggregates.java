@@ -0,0 +1,100 @@
+package id.ac.ui.cs.advprog.eshop.repository.stats;
+
+import id.ac.ui.cs.advprog.eshop.repository.RepositoryListener;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Stock figures of a repository's entities, adjusted by every write through
+ * {@link RepositoryListener} callbacks so that reading them never scans the entities.
+ *
+ * <p>Besides the entity count and the total and per-group quantities, it keeps how many entities
+ * hold each quantity below {@link #QUANTITY_BUCKETS}, so a low-stock count can be read for any
+ * threshold up to that limit by summing at most that many buckets. Quantities below zero count as
+ * zero.
+ *
+ * <p>Writes to different entities update the counters concurrently. Each figure is exact once the
+ * writes in progress finish; a snapshot taken meanwhile may show a write in some figures and not
+ * yet in others.
+ */
+public class InventoryAggregates<T> implements RepositoryListener<T> {
+    /**
+     * Entities are counted per exact quantity below this; larger quantities share one bucket.
+     */
+    public static final int QUANTITY_BUCKETS = 1024;
+
+    // Stands for an entity without a group, since the map cannot hold a null key
+    private static final String NO_GROUP = "";
+
+    private final ToIntFunction<T> quantity;
+    private final Function<T, String> group;
+    private final LongAdder entities = new LongAdder();
+    private final LongAdder totalQuantity = new LongAdder();
+    private final AtomicLongArray byQuantity = new AtomicLongArray(QUANTITY_BUCKETS + 1);
+    private final ConcurrentMap<String, LongAdder> quantityByGroup = new ConcurrentHashMap<>();
+
+    /**
+     * @param quantity the stock of an entity
+     * @param group    the group an entity's stock is also totalled under, or {@code null} to keep
+     *                 no per-group totals
+     */
+    public InventoryAggregates(ToIntFunction<T> quantity, Function<T, String> group) {
+        this.quantity = quantity;
+        this.group = group;
+    }
+
+    @Override
+    public void onCreate(T entity) {
+        add(entity, 1);
+    }
+
+    @Override
+    public void onUpdate(T previous, T current) {
+        add(previous, -1);
+        add(current, 1);
+    }
+
+    @Override
+    public void onDelete(T entity) {
+        add(entity, -1);
+    }
+
+    /**
+     * @param lowStockBelow the quantity an entity must fall below to count as low on stock;
+     *                      clamped to {@code 0..QUANTITY_BUCKETS}
+     */
+    public InventoryStats snapshot(int lowStockBelow) {
+        int below = Math.max(0, Math.min(QUANTITY_BUCKETS, lowStockBelow));
+        long lowStock = 0;
+        for (int bucket = 0; bucket < below; bucket++) {
+            lowStock += byQuantity.get(bucket);
+        }
+        Map<String, Long> groups = new TreeMap<>();
+        quantityByGroup.forEach((name, sum) -> {
+            long value = sum.sum();
+            if (value != 0) {
+                groups.put(name, value);
+            }
+        });
+        return new InventoryStats(entities.sum(), totalQuantity.sum(), below, lowStock, groups);
+    }
+
+    private void add(T entity, int sign) {
+        int amount = quantity.applyAsInt(entity);
+        entities.add(sign);
+        totalQuantity.add((long) sign * amount);
+        byQuantity.addAndGet(Math.max(0, Math.min(QUANTITY_BUCKETS, amount)), sign);
+        if (group != null) {
+            String name = Objects.requireNonNullElse(group.apply(entity), NO_GROUP);
+            quantityByGroup.computeIfAbsent(name, key -> new LongAdder()).add((long) sign * amount);
+        }
+    }
+}
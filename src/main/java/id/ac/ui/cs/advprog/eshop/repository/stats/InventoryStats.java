@@ -0,0 +1,12 @@
+package id.ac.ui.cs.advprog.eshop.repository.stats;
+
+import java.util.Map;
+
+/**
+ * Point-in-time figures of an {@link InventoryAggregates}: how many entities there are, their
+ * total quantity, how many have a quantity below {@code lowStockBelow}, and the total quantity per
+ * group (per color for cars; empty when the repository does not group its entities).
+ */
+public record InventoryStats(long entities, long totalQuantity, int lowStockBelow, long lowStock,
+                             Map<String, Long> quantityByGroup) {
+}
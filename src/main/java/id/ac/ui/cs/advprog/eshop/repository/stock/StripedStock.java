@@ -0,0 +1,104 @@
+package id.ac.ui.cs.advprog.eshop.repository.stock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One entity's stock split across cells, so that threads taking from it concurrently update
+ * different cache lines instead of all contending for one counter.
+ *
+ * <p>Each cell holds a share of the stock and never goes below zero, so neither does their sum.
+ * A thread takes from its own cell, or from the first other cell holding enough; when no single
+ * cell does, {@link #tryTake} reports a miss and the owner falls back to an exact path: it
+ * {@link #close closes} the stock, which yields the precise remainder, and starts a new one
+ * with the remainder spread evenly again. Once closed, a stock refuses every operation, so no
+ * update can slip in after its remainder was read.
+ */
+public final class StripedStock {
+    /**
+     * The cell count, a power of two of about twice the processors, at most 64.
+     */
+    public static final int CELLS =
+            Math.min(64, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2));
+
+    public enum Outcome { TAKEN, MISS, CLOSED }
+
+    // Cells sit this many longs apart, a cache line each, so neighbours do not falsely share
+    private static final int PAD = 8;
+    private static final long CLOSED = -1;
+
+    private final AtomicLongArray cells = new AtomicLongArray(CELLS * PAD);
+
+    public StripedStock(long quantity) {
+        long share = Math.max(0, quantity) / CELLS;
+        long rest = Math.max(0, quantity) % CELLS;
+        for (int cell = 0; cell < CELLS; cell++) {
+            cells.set(cell * PAD, share + (cell < rest ? 1 : 0));
+        }
+    }
+
+    /**
+     * Takes {@code amount} units from a single cell holding that many.
+     */
+    public Outcome tryTake(long amount) {
+        int home = home();
+        for (int i = 0; i < CELLS; i++) {
+            int at = ((home + i) & (CELLS - 1)) * PAD;
+            long held;
+            while ((held = cells.get(at)) >= amount) {
+                if (cells.compareAndSet(at, held, held - amount)) {
+                    return Outcome.TAKEN;
+                }
+            }
+            if (held == CLOSED) {
+                return Outcome.CLOSED;
+            }
+        }
+        return Outcome.MISS;
+    }
+
+    /**
+     * Adds {@code amount} units to the calling thread's cell; {@code false} if the stock is closed.
+     */
+    public boolean add(long amount) {
+        int at = home() * PAD;
+        long held;
+        while ((held = cells.get(at)) != CLOSED) {
+            if (cells.compareAndSet(at, held, held + amount)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The units currently held, or {@code -1} once closed. Not a snapshot: cells are read one
+     * after another while others may change.
+     */
+    public long available() {
+        long sum = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            long held = cells.get(cell * PAD);
+            if (held == CLOSED) {
+                return CLOSED;
+            }
+            sum += held;
+        }
+        return sum;
+    }
+
+    /**
+     * Closes every cell and returns the exact units they held; {@code 0} if already closed.
+     */
+    public long close() {
+        long sum = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            sum += Math.max(0, cells.getAndSet(cell * PAD, CLOSED));
+        }
+        return sum;
+    }
+
+    private static int home() {
+        long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & (CELLS - 1);
+    }
+}
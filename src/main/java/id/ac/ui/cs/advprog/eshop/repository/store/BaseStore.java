@@ -0,0 +1,193 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * What the stores that keep entities as numbered rows of fields share: a read-write lock guarding
+ * the rows, lookups through the layout's id index, and scans that copy out a batch of rows at a
+ * time under the read lock, so a long listing never holds writers back for its whole length.
+ *
+ * <p>Subclasses lay out the rows and say which row holds the entity at each position; the entity's
+ * own fields are defined further down through {@link #write} and {@link #read}.
+ */
+public abstract class BaseStore<T extends IdHolder> implements EntityStore<T> {
+    private static final int SCAN_BATCH = 256;
+
+    final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Writes the fields of {@code entity}, other than its id, to row {@code row}.
+     */
+    protected abstract void write(int row, T entity);
+
+    /**
+     * Builds the entity stored at row {@code row}.
+     */
+    protected abstract T read(int row, String id);
+
+    // The layout, read under the lock
+
+    /**
+     * The row holding {@code id}, or 0.
+     */
+    abstract int rowOf(String id);
+
+    /**
+     * The row holding the entity at {@code position}, or 0 if there is none.
+     */
+    abstract int rowAt(long position);
+
+    abstract String idOf(int row);
+
+    /**
+     * The highest position a scan has to look at.
+     */
+    abstract long highestPosition();
+
+    /**
+     * The position of the entity in {@code row}; the same number unless the layout reuses rows.
+     */
+    long positionOf(int row) {
+        return row;
+    }
+
+    /**
+     * Throws if the rows can no longer be read.
+     */
+    void checkOpen() {
+    }
+
+    @Override
+    public Stored<T> find(String id) {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            int row = rowOf(id);
+            return row == 0 ? null : new Stored<>(positionOf(row), read(row, id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long lastPosition() {
+        lock.readLock().lock();
+        try {
+            return highestPosition();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator(long through) {
+        return new BatchIterator<>(1, through, this::read);
+    }
+
+    @Override
+    public Stream<T> stream(long through) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(through),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public Iterator<Stored<T>> after(long position) {
+        return new BatchIterator<>(Math.max(1, position + 1), Long.MAX_VALUE,
+                (row, id) -> new Stored<>(positionOf(row), read(row, id)));
+    }
+
+    /**
+     * Sums a field over the live rows without materializing any entity, taking the read lock once
+     * per chunk of {@link Columns#CHUNK_SIZE} rows.
+     */
+    final long sumLive(ChunkSum chunkSum) {
+        long sum = 0;
+        for (int chunk = 0; ; chunk++) {
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                long start = (long) chunk << Columns.CHUNK_BITS;
+                long limit = highestPosition() + 1;
+                if (start >= limit) {
+                    return sum;
+                }
+                sum += chunkSum.sum(chunk, (int) Math.min(Columns.CHUNK_SIZE, limit - start));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Sums a field over the live rows among the first {@code rows} of chunk {@code chunk}, straight
+     * from the layout's storage.
+     */
+    @FunctionalInterface
+    interface ChunkSum {
+        long sum(int chunk, int rows);
+    }
+
+    @FunctionalInterface
+    private interface RowReader<E> {
+        E read(int row, String id);
+    }
+
+    /**
+     * Iterates positions in order, copying out up to {@link #SCAN_BATCH} live entities per read
+     * lock.
+     */
+    private final class BatchIterator<E> implements Iterator<E> {
+        private final long through;
+        private final RowReader<E> reader;
+        private final List<E> batch = new ArrayList<>(SCAN_BATCH);
+        private int index;
+        private long next;
+
+        BatchIterator(long first, long through, RowReader<E> reader) {
+            this.next = first;
+            this.through = through;
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index < batch.size()) {
+                return true;
+            }
+            batch.clear();
+            index = 0;
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                long end = Math.min(highestPosition(), through);
+                for (; next <= end && batch.size() < SCAN_BATCH; next++) {
+                    int row = rowAt(next);
+                    if (row != 0) {
+                        batch.add(reader.read(row, idOf(row)));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return !batch.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.get(index++);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+
+/**
+ * {@link ColumnarStore} for cars: a packed name column, a dictionary-encoded color column and an
+ * {@code int} quantity column.
+ */
+public class CarColumnarStore extends ColumnarStore<Car> {
+    private final LongColumn names = new LongColumn();
+    private final DictionaryColumn colors = new DictionaryColumn();
+    private final IntColumn quantities = new IntColumn();
+
+    /**
+     * Total quantity over all stored cars, read from the quantity column alone.
+     */
+    public long totalQuantity() {
+        return sumLive(quantities);
+    }
+
+    @Override
+    protected void write(int row, Car car) {
+        names.set(row, pack(names.get(row), car.getCarName()));
+        colors.set(row, car.getCarColor());
+        quantities.set(row, car.getCarQuantity());
+    }
+
+    @Override
+    protected Car read(int row, String id) {
+        Car car = new Car();
+        car.setId(id);
+        car.setCarName(unpack(names.get(row)));
+        car.setCarColor(colors.get(row));
+        car.setCarQuantity(quantities.get(row));
+        return car;
+    }
+}
@@ -0,0 +1,46 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+
+import java.nio.file.Path;
+
+/**
+ * {@link MappedStore} for cars, in {@code cars.*} files; each slot holds a name of up to
+ * {@value #NAME_CAPACITY} and a color of up to {@value #COLOR_CAPACITY} UTF-8 bytes, and an
+ * {@code int} quantity.
+ */
+public class CarMappedStore extends MappedStore<Car> {
+    public static final int NAME_CAPACITY = 96;
+    public static final int COLOR_CAPACITY = 30;
+
+    private static final int NAME = 0;
+    private static final int COLOR = NAME + stringBytes(NAME_CAPACITY);
+    private static final int QUANTITY = COLOR + stringBytes(COLOR_CAPACITY);
+
+    public CarMappedStore(Path directory) {
+        super(directory, "cars", QUANTITY + Integer.BYTES);
+    }
+
+    @Override
+    protected void check(Car car) {
+        checkLength("Car name", car.getCarName(), NAME_CAPACITY);
+        checkLength("Car color", car.getCarColor(), COLOR_CAPACITY);
+    }
+
+    @Override
+    protected void write(int slot, Car car) {
+        putString(slot, NAME, car.getCarName());
+        putString(slot, COLOR, car.getCarColor());
+        putInt(slot, QUANTITY, car.getCarQuantity());
+    }
+
+    @Override
+    protected Car read(int slot, String id) {
+        Car car = new Car();
+        car.setId(id);
+        car.setCarName(getString(slot, NAME));
+        car.setCarColor(getString(slot, COLOR));
+        car.setCarQuantity(getInt(slot, QUANTITY));
+        return car;
+    }
+}
@@ -0,0 +1,44 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+
+/**
+ * {@link OffHeapStore} for cars; each record holds a packed name, a color code into an on-heap
+ * {@link StringDictionary} and an {@code int} quantity.
+ */
+public class CarOffHeapStore extends OffHeapStore<Car> {
+    private static final int NAME = 0;
+    private static final int COLOR = NAME + Long.BYTES;
+    private static final int QUANTITY = COLOR + Integer.BYTES;
+
+    // Guarded by the store's lock, like the records
+    private final StringDictionary colors = new StringDictionary();
+
+    public CarOffHeapStore() {
+        super(QUANTITY + Integer.BYTES);
+    }
+
+    /**
+     * Total quantity over all stored cars, read from the records without building entities.
+     */
+    public long totalQuantity() {
+        return sumLive(QUANTITY);
+    }
+
+    @Override
+    protected void write(int row, Car car) {
+        putString(row, NAME, car.getCarName());
+        putInt(row, COLOR, colors.code(car.getCarColor()));
+        putInt(row, QUANTITY, car.getCarQuantity());
+    }
+
+    @Override
+    protected Car read(int row, String id) {
+        Car car = new Car();
+        car.setId(id);
+        car.setCarName(getString(row, NAME));
+        car.setCarColor(colors.value(getInt(row, COLOR)));
+        car.setCarQuantity(getInt(row, QUANTITY));
+        return car;
+    }
+}
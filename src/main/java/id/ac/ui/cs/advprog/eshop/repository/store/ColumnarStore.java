@@ -0,0 +1,150 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps entities column by column instead of as objects: row {@code n} holds the entity at
+ * position {@code n}, each field lives in its own primitive column, and ids and other strings are
+ * packed into shared byte pages. An {@link IdTable} of row numbers finds ids. Entities are
+ * materialized as new objects on every read, so callers never share or mutate stored state.
+ *
+ * <p>Locking and scans are those of {@link BaseStore}. Subclasses define the entity's own columns
+ * through {@link #write} and {@link #read}.
+ */
+public abstract class ColumnarStore<T extends IdHolder> extends BaseStore<T> {
+    private static final int INITIAL_TABLE = 16;
+
+    private final PackedStrings strings = new PackedStrings();
+    private final LongColumn ids = new LongColumn();
+    private final IntColumn hashes = new IntColumn();
+    private final IdTable<byte[]> table = new IdTable<>(INITIAL_TABLE) {
+        private int[] entries;
+
+        @Override
+        int entry(int index) {
+            return entries[index];
+        }
+
+        @Override
+        void setEntry(int index, int row) {
+            entries[index] = row;
+        }
+
+        @Override
+        void allocate(int capacity) {
+            entries = new int[capacity];
+        }
+
+        @Override
+        boolean holds(int row, byte[] id, int hash) {
+            return hashes.get(row) == hash && strings.matches(ids.get(row), id);
+        }
+
+        @Override
+        int hashOf(int row) {
+            return hashes.get(row);
+        }
+    };
+    private int rowLimit = 1;
+
+    /**
+     * Packs {@code value} for a string column, reusing {@code current} when it already holds it.
+     */
+    protected final long pack(long current, String value) {
+        if (value == null) {
+            return 0;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return strings.matches(current, bytes) ? current : strings.add(bytes);
+    }
+
+    protected final String unpack(long reference) {
+        return strings.get(reference);
+    }
+
+    @Override
+    public void put(long position, T entity) {
+        int row = toRow(position);
+        String id = entity.getId();
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        int hash = IdTable.hash(id);
+        lock.writeLock().lock();
+        try {
+            int existing = table.find(idBytes, hash);
+            if (existing != row) {
+                if (existing != 0) {
+                    ids.set(table.remove(idBytes, hash), 0);
+                }
+                ids.set(row, strings.add(idBytes));
+                hashes.set(row, hash);
+                table.add(row, hash);
+            }
+            write(row, entity);
+            rowLimit = Math.max(rowLimit, row + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String id, long position) {
+        lock.writeLock().lock();
+        try {
+            int row = table.remove(id.getBytes(StandardCharsets.UTF_8), IdTable.hash(id));
+            if (row != 0) {
+                ids.set(row, 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sums {@code column} over the live rows straight from the column arrays.
+     */
+    final long sumLive(IntColumn column) {
+        return sumLive((chunk, rows) -> {
+            long[] live = ids.chunk(chunk);
+            int[] values = column.chunk(chunk);
+            if (live == null || values == null) {
+                return 0;
+            }
+            long sum = 0;
+            for (int i = 0; i < rows; i++) {
+                if (live[i] != 0) {
+                    sum += values[i];
+                }
+            }
+            return sum;
+        });
+    }
+
+    @Override
+    int rowOf(String id) {
+        return table.find(id.getBytes(StandardCharsets.UTF_8), IdTable.hash(id));
+    }
+
+    @Override
+    int rowAt(long position) {
+        return ids.get((int) position) != 0 ? (int) position : 0;
+    }
+
+    @Override
+    String idOf(int row) {
+        return strings.get(ids.get(row));
+    }
+
+    @Override
+    long highestPosition() {
+        return rowLimit - 1L;
+    }
+
+    private static int toRow(long position) {
+        if (position <= 0 || position >= Integer.MAX_VALUE) {
+            throw new IllegalStateException("Columnar store cannot hold position " + position + ".");
+        }
+        return (int) position;
+    }
+}
@@ -0,0 +1,10 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+final class Columns {
+    static final int CHUNK_BITS = 14;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Columns() {
+    }
+}
@@ -0,0 +1,18 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+/**
+ * A low-cardinality string per row, stored as its {@link StringDictionary} code. Not thread-safe;
+ * the owning store guards it.
+ */
+final class DictionaryColumn {
+    private final IntColumn codes = new IntColumn();
+    private final StringDictionary dictionary = new StringDictionary();
+
+    String get(int row) {
+        return dictionary.value(codes.get(row));
+    }
+
+    void set(int row, String value) {
+        codes.set(row, dictionary.code(value));
+    }
+}
@@ -0,0 +1,65 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Where a {@code BaseRepository} keeps its entities, by id and by position, the insertion
+ * sequence number that orders listings.
+ *
+ * <p>The repository serializes writes to the same id; writes to different ids may run
+ * concurrently, and reads may run concurrently with any write. Iteration covers the entities at
+ * positions up to {@code through}, minus any removed meanwhile, and never throws
+ * {@code ConcurrentModificationException}.
+ */
+public interface EntityStore<T extends IdHolder> extends Closeable {
+
+    record Stored<E>(long position, E entity) { }
+
+    /**
+     * Returns the entity stored under {@code id} and its position, or {@code null}.
+     */
+    Stored<T> find(String id);
+
+    /**
+     * Stores {@code entity} under its id at {@code position}, replacing the entity already there
+     * when the id is stored.
+     */
+    void put(long position, T entity);
+
+    /**
+     * Throws {@code IllegalArgumentException} if {@link #put} would reject {@code entity}. The
+     * repository checks before notifying its listeners, so a rejected write leaves them untouched.
+     * Stores that accept any entity need nothing.
+     */
+    default void validate(T entity) {
+    }
+
+    void remove(String id, long position);
+
+    Iterator<T> iterator(long through);
+
+    Stream<T> stream(long through);
+
+    /**
+     * Iterates the entities at positions after {@code position}, in position order.
+     */
+    Iterator<Stored<T>> after(long position);
+
+    /**
+     * A position at least as high as that of every stored entity; a repository opening a store
+     * that already holds entities numbers new ones after it.
+     */
+    long lastPosition();
+
+    /**
+     * Releases what the store holds outside the heap. Stores kept on the heap need nothing.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,151 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+/**
+ * Open-addressing hash table of row numbers by id hash, with linear probing. An entry is 0 when
+ * empty and {@link #TOMBSTONE} when its row was removed; the table grows, dropping tombstones,
+ * once half its entries are used.
+ *
+ * <p>Subclasses keep the entries wherever their store keeps its data and tell whether a row holds
+ * a given id, which they look up as {@code K}: bytes or a string, whatever compares cheapest
+ * against their layout. Not thread-safe; the owning store guards it.
+ */
+abstract class IdTable<K> {
+    static final int TOMBSTONE = -1;
+
+    private final int minimumCapacity;
+    private int capacity;
+    private int used;
+    private int live;
+
+    /**
+     * @param minimumCapacity the capacity the entries are first allocated with, a power of two
+     */
+    IdTable(int minimumCapacity) {
+        this.minimumCapacity = minimumCapacity;
+    }
+
+    abstract int entry(int index);
+
+    abstract void setEntry(int index, int row);
+
+    /**
+     * Replaces the entries with {@code capacity} empty ones.
+     */
+    abstract void allocate(int capacity);
+
+    abstract boolean holds(int row, K id, int hash);
+
+    abstract int hashOf(int row);
+
+    /**
+     * Called whenever the number of non-empty entries changes, for tables that record it.
+     */
+    void usedChanged(int used) {
+    }
+
+    static int hash(String id) {
+        int hash = id.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Adopts entries that are already in place, such as those of a mapped file.
+     */
+    final void restore(int capacity, int used, int live) {
+        this.capacity = capacity;
+        this.used = used;
+        this.live = live;
+    }
+
+    /**
+     * Empties the table, sized for {@code expectedLive} rows to be added.
+     */
+    final void reset(long expectedLive) {
+        empty(capacityFor(expectedLive));
+    }
+
+    /**
+     * The row holding {@code id}, or 0.
+     */
+    final int find(K id, int hash) {
+        if (capacity == 0) {
+            return 0;
+        }
+        int mask = capacity - 1;
+        for (int index = hash & mask; ; index = (index + 1) & mask) {
+            int row = entry(index);
+            if (row == 0) {
+                return 0;
+            }
+            if (row != TOMBSTONE && holds(row, id, hash)) {
+                return row;
+            }
+        }
+    }
+
+    final void add(int row, int hash) {
+        if ((used + 1) * 2L > capacity) {
+            rehash(capacityFor(live + 1L));
+        }
+        int mask = capacity - 1;
+        int index = hash & mask;
+        int current;
+        while ((current = entry(index)) != 0 && current != TOMBSTONE) {
+            index = (index + 1) & mask;
+        }
+        if (current == 0) {
+            used++;
+            usedChanged(used);
+        }
+        setEntry(index, row);
+        live++;
+    }
+
+    /**
+     * Removes {@code id}, returning the row that held it, or 0 if none did.
+     */
+    final int remove(K id, int hash) {
+        if (capacity == 0) {
+            return 0;
+        }
+        int mask = capacity - 1;
+        for (int index = hash & mask; ; index = (index + 1) & mask) {
+            int row = entry(index);
+            if (row == 0) {
+                return 0;
+            }
+            if (row != TOMBSTONE && holds(row, id, hash)) {
+                setEntry(index, TOMBSTONE);
+                live--;
+                return row;
+            }
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] rows = new int[live];
+        int count = 0;
+        for (int index = 0; index < capacity; index++) {
+            int row = entry(index);
+            if (row != 0 && row != TOMBSTONE) {
+                rows[count++] = row;
+            }
+        }
+        empty(newCapacity);
+        for (int i = 0; i < count; i++) {
+            add(rows[i], hashOf(rows[i]));
+        }
+    }
+
+    private void empty(int newCapacity) {
+        capacity = newCapacity;
+        used = 0;
+        live = 0;
+        allocate(capacity);
+        usedChanged(used);
+    }
+
+    private int capacityFor(long live) {
+        return Math.max(minimumCapacity, Integer.highestOneBit((int) Math.max(1, live) * 4));
+    }
+}
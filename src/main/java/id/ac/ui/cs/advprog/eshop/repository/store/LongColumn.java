@@ -0,0 +1,34 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import java.util.Arrays;
+
+/**
+ * A {@code long} per row, in fixed-size chunks so growing never copies the values. Rows never
+ * written read as {@code 0}. Not thread-safe; the owning store guards it.
+ */
+final class LongColumn {
+    private long[][] chunks = new long[0][];
+
+    /**
+     * The values of rows {@code index * CHUNK_SIZE} onwards, or {@code null} if none was written.
+     */
+    long[] chunk(int index) {
+        return index < chunks.length ? chunks[index] : null;
+    }
+
+    long get(int row) {
+        int chunk = row >>> Columns.CHUNK_BITS;
+        return chunk < chunks.length && chunks[chunk] != null ? chunks[chunk][row & Columns.CHUNK_MASK] : 0;
+    }
+
+    void set(int row, long value) {
+        int chunk = row >>> Columns.CHUNK_BITS;
+        if (chunk >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length * 2));
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new long[Columns.CHUNK_SIZE];
+        }
+        chunks[chunk][row & Columns.CHUNK_MASK] = value;
+    }
+}
@@ -0,0 +1,542 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps entities in memory-mapped files, so reopening a store maps its files instead of loading
+ * them and the data stays in the OS page cache across restarts. Three files per store:
+ *
+ * <ul>
+ *   <li>{@code <name>.store}: a header with the format version, then fixed-size slots. Each slot
+ *   holds an entity's position, id hash, id and the fields the subclass lays out. Deleted slots
+ *   are chained into a free list and reused.</li>
+ *   <li>{@code <name>.index}: an open-addressing table of slot numbers by id hash.</li>
+ *   <li>{@code <name>.order}: the slot of each position, so listings keep insertion order even
+ *   though slots are reused.</li>
+ * </ul>
+ *
+ * <p>The header records whether the store was closed cleanly. If not, the index, order and free
+ * list are rebuilt from the slots when it is opened. Changes reach the files through the page
+ * cache, so they survive a crash of the process but not necessarily of the machine.
+ *
+ * <p>Strings are stored inline with a fixed capacity in UTF-8 bytes; {@link #put} rejects values
+ * that do not fit with an {@code IllegalArgumentException} before changing anything. Locking and
+ * scans are those of {@link BaseStore}.
+ */
+public abstract class MappedStore<T extends IdHolder> extends BaseStore<T> {
+    public static final String DEFAULT_DIRECTORY = "data/mapped";
+    public static final int FORMAT_VERSION = 1;
+    public static final int ID_CAPACITY = 64;
+
+    private static final int STORE_MAGIC = 0x4553_4D53;
+    private static final int INDEX_MAGIC = 0x4553_4D49;
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_SLOTS = 1 << SEGMENT_BITS;
+    private static final int ORDER_SEGMENT_BITS = 20;
+    private static final int ORDER_SEGMENT_BYTES = Integer.BYTES << ORDER_SEGMENT_BITS;
+    private static final int INITIAL_TABLE = 1 << 10;
+
+    // Store header
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC = 0;
+    private static final int VERSION = 4;
+    private static final int SLOT_BYTES = 8;
+    private static final int CLEAN = 12;
+    private static final int NEXT_SLOT = 16;
+    private static final int FREE_HEAD = 24;
+    private static final int LIVE = 32;
+    private static final int LAST_POSITION = 40;
+
+    // Index header
+    private static final int INDEX_HEADER_BYTES = 16;
+    private static final int CAPACITY = 8;
+    private static final int USED = 12;
+
+    // Slot layout; a free slot has position 0 and links to the next free slot
+    private static final int POSITION = 0;
+    private static final int NEXT_FREE = 8;
+    private static final int HASH = 16;
+    private static final int ID = 20;
+    private static final int FIELDS = ID + Short.BYTES + ID_CAPACITY;
+
+    private final Path directory;
+    private final String name;
+    private final int slotBytes;
+    private final FileChannel data;
+    private final FileChannel order;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final List<MappedByteBuffer> orderSegments = new ArrayList<>();
+    private FileChannel index;
+    private MappedByteBuffer entries;
+    // Slot numbers by id hash, in the mapped index file
+    private final IdTable<String> idIndex = new IdTable<>(INITIAL_TABLE) {
+        @Override
+        int entry(int i) {
+            return entries.getInt(tableOffset(i));
+        }
+
+        @Override
+        void setEntry(int i, int slot) {
+            entries.putInt(tableOffset(i), slot);
+        }
+
+        @Override
+        void allocate(int capacity) {
+            replaceIndex(capacity);
+        }
+
+        @Override
+        boolean holds(int slot, String id, int hash) {
+            return MappedStore.this.holds(slot, id, hash);
+        }
+
+        @Override
+        int hashOf(int slot) {
+            return segment(slot).getInt(offset(slot, HASH));
+        }
+
+        @Override
+        void usedChanged(int used) {
+            entries.putInt(USED, used);
+        }
+    };
+    private boolean closed;
+
+    /**
+     * Opens the store named {@code name} in {@code directory}, creating it if it does not exist.
+     *
+     * @param fieldBytes the width of the subclass's fields in each slot; the {@code field} offsets
+     *                   given to the accessors below count from the first of them
+     * @throws UncheckedIOException if the files cannot be opened, or hold another format version
+     *                              or slot layout
+     */
+    protected MappedStore(Path directory, String name, int fieldBytes) {
+        this.directory = directory;
+        this.name = name;
+        this.slotBytes = (FIELDS + fieldBytes + Long.BYTES - 1) & -Long.BYTES;
+        try {
+            Files.createDirectories(directory);
+            data = open(name + ".store");
+            boolean created = data.size() == 0;
+            header = map(data, 0, HEADER_BYTES);
+            if (created) {
+                header.putInt(MAGIC, STORE_MAGIC).putInt(VERSION, FORMAT_VERSION).putInt(SLOT_BYTES, slotBytes)
+                        .putInt(CLEAN, 1).putLong(NEXT_SLOT, 1);
+            } else {
+                checkHeader();
+            }
+            order = open(name + ".order");
+            index = open(name + ".index");
+            boolean clean = header.getInt(CLEAN) == 1 && loadIndex();
+            header.putInt(CLEAN, 0);
+            header.force();
+            if (clean) {
+                mapOrder(order.size());
+            } else {
+                rebuild();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Throws {@code IllegalArgumentException} if a string field of {@code entity} exceeds its
+     * capacity; called before {@link #write} so a rejected entity changes nothing.
+     */
+    protected abstract void check(T entity);
+
+    protected static void checkLength(String field, String value, int capacity) {
+        if (value != null && value.getBytes(StandardCharsets.UTF_8).length > capacity) {
+            throw new IllegalArgumentException(field + " is longer than " + capacity + " bytes.");
+        }
+    }
+
+    protected final int getInt(int slot, int field) {
+        return segment(slot).getInt(offset(slot, FIELDS + field));
+    }
+
+    protected final void putInt(int slot, int field, int value) {
+        segment(slot).putInt(offset(slot, FIELDS + field), value);
+    }
+
+    /**
+     * Reads a string field stored as a {@code short} byte length ({@code -1} for {@code null})
+     * followed by its UTF-8 bytes.
+     */
+    protected final String getString(int slot, int field) {
+        return readString(slot, FIELDS + field);
+    }
+
+    protected final void putString(int slot, int field, String value) {
+        writeString(slot, FIELDS + field, value);
+    }
+
+    /**
+     * The bytes a string field of {@code capacity} UTF-8 bytes takes in a slot.
+     */
+    protected static int stringBytes(int capacity) {
+        return Short.BYTES + capacity;
+    }
+
+    @Override
+    public void validate(T entity) {
+        checkLength("Id", entity.getId(), ID_CAPACITY);
+        check(entity);
+    }
+
+    @Override
+    public void put(long position, T entity) {
+        int at = toPosition(position);
+        String id = entity.getId();
+        validate(entity);
+        int hash = IdTable.hash(id);
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            int slot = idIndex.find(id, hash);
+            if (slot == 0) {
+                slot = allocate();
+                segment(slot).putInt(offset(slot, HASH), hash);
+                writeString(slot, ID, id);
+                idIndex.add(slot, hash);
+                header.putLong(LIVE, header.getLong(LIVE) + 1);
+            } else if (positionOf(slot) != at) {
+                setOrder(positionOf(slot), 0);
+            }
+            write(slot, entity);
+            segment(slot).putLong(offset(slot, POSITION), at);
+            setOrder(at, slot);
+            if (at > header.getLong(LAST_POSITION)) {
+                header.putLong(LAST_POSITION, at);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String id, long position) {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            int slot = idIndex.remove(id, IdTable.hash(id));
+            if (slot != 0) {
+                setOrder(positionOf(slot), 0);
+                release(slot);
+                header.putLong(LIVE, header.getLong(LIVE) - 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes every mapped page back to the files and marks the store as cleanly closed, so the
+     * next open maps it without a rebuild.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            segments.forEach(MappedByteBuffer::force);
+            orderSegments.forEach(MappedByteBuffer::force);
+            entries.force();
+            header.putInt(CLEAN, 1);
+            header.force();
+            data.close();
+            order.close();
+            index.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    int rowOf(String id) {
+        return idIndex.find(id, IdTable.hash(id));
+    }
+
+    @Override
+    int rowAt(long position) {
+        return slotAt(position);
+    }
+
+    @Override
+    String idOf(int slot) {
+        return readString(slot, ID);
+    }
+
+    /**
+     * The highest position ever stored, so a reopened repository continues after it.
+     */
+    @Override
+    long highestPosition() {
+        return header.getLong(LAST_POSITION);
+    }
+
+    @Override
+    long positionOf(int slot) {
+        return segment(slot).getLong(offset(slot, POSITION));
+    }
+
+    @Override
+    void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Mapped store " + name + " is closed.");
+        }
+    }
+
+    private void checkHeader() throws IOException {
+        if (header.getInt(MAGIC) != STORE_MAGIC) {
+            throw new IOException(directory.resolve(name + ".store") + " is not a mapped store file.");
+        }
+        if (header.getInt(VERSION) != FORMAT_VERSION) {
+            throw new IOException("Mapped store " + name + " has format version " + header.getInt(VERSION)
+                    + "; this build reads version " + FORMAT_VERSION + ".");
+        }
+        if (header.getInt(SLOT_BYTES) != slotBytes) {
+            throw new IOException("Mapped store " + name + " has " + header.getInt(SLOT_BYTES)
+                    + "-byte slots; this build expects " + slotBytes + ".");
+        }
+        long nextSlot = header.getLong(NEXT_SLOT);
+        for (int segment = 0; (long) segment * SEGMENT_SLOTS < nextSlot; segment++) {
+            mapSegment(segment);
+        }
+    }
+
+    /**
+     * Maps the index file if it was left consistent, returning {@code false} when it must be rebuilt.
+     */
+    private boolean loadIndex() throws IOException {
+        if (index.size() < INDEX_HEADER_BYTES) {
+            return false;
+        }
+        MappedByteBuffer indexHeader = map(index, 0, INDEX_HEADER_BYTES);
+        int capacity = indexHeader.getInt(CAPACITY);
+        if (indexHeader.getInt(MAGIC) != INDEX_MAGIC || indexHeader.getInt(VERSION) != FORMAT_VERSION
+                || Integer.bitCount(capacity) != 1 || index.size() < tableBytes(capacity)) {
+            return false;
+        }
+        entries = map(index, 0, tableBytes(capacity));
+        idIndex.restore(capacity, entries.getInt(USED), (int) header.getLong(LIVE));
+        return true;
+    }
+
+    /**
+     * Recreates the index, the order file and the free list from the slots.
+     */
+    private void rebuild() throws IOException {
+        long nextSlot = header.getLong(NEXT_SLOT);
+        long live = 0;
+        long lastPosition = 0;
+        for (int slot = 1; slot < nextSlot; slot++) {
+            if (positionOf(slot) != 0) {
+                live++;
+            }
+        }
+        idIndex.reset(live);
+        orderSegments.clear();
+        order.truncate(0);
+        int freeHead = 0;
+        for (int slot = (int) nextSlot - 1; slot >= 1; slot--) {
+            long position = positionOf(slot);
+            if (position == 0) {
+                segment(slot).putLong(offset(slot, NEXT_FREE), freeHead);
+                freeHead = slot;
+            } else {
+                idIndex.add(slot, segment(slot).getInt(offset(slot, HASH)));
+                setOrder(position, slot);
+                lastPosition = Math.max(lastPosition, position);
+            }
+        }
+        header.putLong(FREE_HEAD, freeHead).putLong(LIVE, live).putLong(LAST_POSITION, lastPosition);
+    }
+
+    private int allocate() {
+        int slot = (int) header.getLong(FREE_HEAD);
+        if (slot != 0) {
+            header.putLong(FREE_HEAD, segment(slot).getLong(offset(slot, NEXT_FREE)));
+            return slot;
+        }
+        long next = header.getLong(NEXT_SLOT);
+        if (next >= Integer.MAX_VALUE) {
+            throw new IllegalStateException("Mapped store " + name + " is full.");
+        }
+        slot = (int) next;
+        if (slot >>> SEGMENT_BITS >= segments.size()) {
+            mapSegment(slot >>> SEGMENT_BITS);
+        }
+        header.putLong(NEXT_SLOT, next + 1);
+        return slot;
+    }
+
+    private void release(int slot) {
+        segment(slot).putLong(offset(slot, POSITION), 0).putLong(offset(slot, NEXT_FREE), header.getLong(FREE_HEAD));
+        header.putLong(FREE_HEAD, slot);
+    }
+
+    /**
+     * Maps an empty table of {@code capacity} entries in a new file and moves it over the index
+     * file. The index fills it afterwards; until the store is closed its header marks it unclean,
+     * so an index left half-filled by a crash is rebuilt rather than trusted.
+     */
+    private void replaceIndex(int capacity) {
+        try {
+            Path temporary = directory.resolve(name + ".index.tmp");
+            Files.deleteIfExists(temporary);
+            FileChannel channel = FileChannel.open(temporary,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            entries = map(channel, 0, tableBytes(capacity));
+            entries.putInt(MAGIC, INDEX_MAGIC).putInt(VERSION, FORMAT_VERSION).putInt(CAPACITY, capacity);
+            Files.move(temporary, directory.resolve(name + ".index"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.close();
+            index = channel;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean holds(int slot, String id, int hash) {
+        MappedByteBuffer segment = segment(slot);
+        int at = offset(slot, ID);
+        if (segment.getInt(offset(slot, HASH)) != hash) {
+            return false;
+        }
+        int length = segment.getShort(at);
+        if (length != id.length()) {
+            // Equal ids can differ in length here only when the id is not ASCII
+            return length > id.length() && id.equals(readString(slot, ID));
+        }
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c >= 0x80) {
+                return id.equals(readString(slot, ID));
+            }
+            if (segment.get(at + Short.BYTES + i) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(int slot, int at) {
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot, at);
+        int length = segment.getShort(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        segment.get(offset + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeString(int slot, int at, String value) {
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot, at);
+        if (value == null) {
+            segment.putShort(offset, (short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        segment.putShort(offset, (short) bytes.length).put(offset + Short.BYTES, bytes);
+    }
+
+    private int slotAt(long position) {
+        int segment = (int) (position >>> ORDER_SEGMENT_BITS);
+        if (segment >= orderSegments.size()) {
+            return 0;
+        }
+        return orderSegments.get(segment).getInt(orderOffset(position));
+    }
+
+    private void setOrder(long position, int slot) {
+        int segment = (int) (position >>> ORDER_SEGMENT_BITS);
+        if (segment >= orderSegments.size()) {
+            try {
+                mapOrder(((long) segment + 1) * ORDER_SEGMENT_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        orderSegments.get(segment).putInt(orderOffset(position), slot);
+    }
+
+    /**
+     * Maps order segments until they cover {@code bytes} bytes of the order file.
+     */
+    private void mapOrder(long bytes) throws IOException {
+        while ((long) orderSegments.size() * ORDER_SEGMENT_BYTES < bytes) {
+            orderSegments.add(map(order, (long) orderSegments.size() * ORDER_SEGMENT_BYTES, ORDER_SEGMENT_BYTES));
+        }
+    }
+
+    private void mapSegment(int segment) {
+        try {
+            long bytes = (long) SEGMENT_SLOTS * slotBytes;
+            while (segments.size() <= segment) {
+                segments.add(map(data, HEADER_BYTES + segments.size() * bytes, bytes));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedByteBuffer segment(int slot) {
+        return segments.get(slot >>> SEGMENT_BITS);
+    }
+
+    private int offset(int slot, int field) {
+        return (slot & (SEGMENT_SLOTS - 1)) * slotBytes + field;
+    }
+
+    private FileChannel open(String file) throws IOException {
+        return FileChannel.open(directory.resolve(file),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static long tableBytes(int capacity) {
+        return INDEX_HEADER_BYTES + (long) capacity * Integer.BYTES;
+    }
+
+    private static int tableOffset(int entry) {
+        return INDEX_HEADER_BYTES + entry * Integer.BYTES;
+    }
+
+    private static int orderOffset(long position) {
+        return (int) (position & ((1 << ORDER_SEGMENT_BITS) - 1)) * Integer.BYTES;
+    }
+
+    private static int toPosition(long position) {
+        if (position <= 0 || position >= Integer.MAX_VALUE) {
+            throw new IllegalStateException("Mapped store cannot hold position " + position + ".");
+        }
+        return (int) position;
+    }
+}
@@ -0,0 +1,70 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the entity objects themselves: a hash map from id for lookups and a skip list by position
+ * for ordered scans. Reads take no lock and return the stored instances.
+ */
+public class ObjectStore<T extends IdHolder> implements EntityStore<T> {
+    private final ConcurrentMap<String, Stored<T>> index = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, T> data = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Stored<T> find(String id) {
+        return index.get(id);
+    }
+
+    @Override
+    public void put(long position, T entity) {
+        data.put(position, entity);
+        index.put(entity.getId(), new Stored<>(position, entity));
+    }
+
+    @Override
+    public void remove(String id, long position) {
+        index.remove(id);
+        data.remove(position);
+    }
+
+    @Override
+    public Iterator<T> iterator(long through) {
+        return data.headMap(through, true).values().iterator();
+    }
+
+    @Override
+    public Stream<T> stream(long through) {
+        return data.headMap(through, true).values().stream();
+    }
+
+    @Override
+    public long lastPosition() {
+        Map.Entry<Long, T> last = data.lastEntry();
+        return last == null ? 0 : last.getKey();
+    }
+
+    @Override
+    public Iterator<Stored<T>> after(long position) {
+        Iterator<Map.Entry<Long, T>> entries = data.tailMap(position, false).entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Stored<T> next() {
+                Map.Entry<Long, T> entry = entries.next();
+                return new Stored<>(entry.getKey(), entry.getValue());
+            }
+        };
+    }
+}
@@ -0,0 +1,203 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Keeps entities outside the Java heap, as fixed-width records in direct buffers: record {@code n}
+ * holds the entity at position {@code n}, starting with its packed id and id hash, followed by
+ * the fields the subclass lays out. Strings live in {@link OffHeapStrings} pages and the id index
+ * is an open-addressing table of record numbers in a direct buffer, so the heap holds only a few
+ * objects per megabyte of data and the garbage collector has nothing to trace.
+ *
+ * <p>Looking up an id hashes and compares it in place without allocating; only the returned
+ * entity is built on the heap. Locking and scans are those of {@link BaseStore}.
+ */
+public abstract class OffHeapStore<T extends IdHolder> extends BaseStore<T> {
+    private static final int INITIAL_TABLE = 16;
+    private static final int ID = 0;
+    private static final int HASH = ID + Long.BYTES;
+    private static final int FIELDS = HASH + Integer.BYTES;
+
+    private final OffHeapStrings strings = new OffHeapStrings();
+    private final int recordBytes;
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    // Record numbers by id hash, in a direct buffer
+    private final IdTable<String> table = new IdTable<>(INITIAL_TABLE) {
+        private ByteBuffer entries;
+
+        @Override
+        int entry(int index) {
+            return entries.getInt(index * Integer.BYTES);
+        }
+
+        @Override
+        void setEntry(int index, int row) {
+            entries.putInt(index * Integer.BYTES, row);
+        }
+
+        @Override
+        void allocate(int capacity) {
+            entries = allocateDirect(capacity * Integer.BYTES);
+        }
+
+        @Override
+        boolean holds(int row, String id, int hash) {
+            return hashOf(row) == hash && strings.matches(idAt(row), id);
+        }
+
+        @Override
+        int hashOf(int row) {
+            return record(row).getInt(offset(row, HASH));
+        }
+    };
+    private int rowLimit = 1;
+
+    /**
+     * @param fieldBytes the width of the subclass's fields in each record; the {@code field}
+     *                   offsets given to the accessors below count from the first of them
+     */
+    protected OffHeapStore(int fieldBytes) {
+        this.recordBytes = (FIELDS + fieldBytes + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    protected final int getInt(int row, int field) {
+        return record(row).getInt(offset(row, FIELDS + field));
+    }
+
+    protected final void putInt(int row, int field, int value) {
+        record(row).putInt(offset(row, FIELDS + field), value);
+    }
+
+    protected final String getString(int row, int field) {
+        return strings.get(record(row).getLong(offset(row, FIELDS + field)));
+    }
+
+    /**
+     * Stores {@code value} in a string field, keeping the packed copy already there when equal.
+     */
+    protected final void putString(int row, int field, String value) {
+        ByteBuffer record = record(row);
+        int at = offset(row, FIELDS + field);
+        if (!strings.matches(record.getLong(at), value)) {
+            record.putLong(at, strings.add(value));
+        }
+    }
+
+    @Override
+    public void put(long position, T entity) {
+        int row = toRow(position);
+        String id = entity.getId();
+        int hash = IdTable.hash(id);
+        lock.writeLock().lock();
+        try {
+            int existing = table.find(id, hash);
+            if (existing != row) {
+                if (existing != 0) {
+                    clearId(table.remove(id, hash));
+                }
+                ensureRecord(row);
+                record(row).putLong(offset(row, ID), strings.add(id)).putInt(offset(row, HASH), hash);
+                table.add(row, hash);
+            }
+            write(row, entity);
+            rowLimit = Math.max(rowLimit, row + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String id, long position) {
+        lock.writeLock().lock();
+        try {
+            int row = table.remove(id, IdTable.hash(id));
+            if (row != 0) {
+                clearId(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sums an {@code int} field over the live records straight from the buffers.
+     */
+    final long sumLive(int field) {
+        return sumLive((chunk, rows) -> {
+            ByteBuffer records = chunk < chunks.length ? chunks[chunk] : null;
+            if (records == null) {
+                return 0;
+            }
+            long sum = 0;
+            int end = rows * recordBytes;
+            for (int at = 0; at < end; at += recordBytes) {
+                if (records.getLong(at + ID) != 0) {
+                    sum += records.getInt(at + FIELDS + field);
+                }
+            }
+            return sum;
+        });
+    }
+
+    @Override
+    int rowOf(String id) {
+        return table.find(id, IdTable.hash(id));
+    }
+
+    @Override
+    int rowAt(long position) {
+        return idAt((int) position) != 0 ? (int) position : 0;
+    }
+
+    @Override
+    String idOf(int row) {
+        return strings.get(idAt(row));
+    }
+
+    @Override
+    long highestPosition() {
+        return rowLimit - 1L;
+    }
+
+    private ByteBuffer record(int row) {
+        return chunks[row >>> Columns.CHUNK_BITS];
+    }
+
+    private int offset(int row, int field) {
+        return (row & Columns.CHUNK_MASK) * recordBytes + field;
+    }
+
+    private long idAt(int row) {
+        int chunk = row >>> Columns.CHUNK_BITS;
+        return chunk < chunks.length && chunks[chunk] != null ? chunks[chunk].getLong(offset(row, ID)) : 0;
+    }
+
+    private void clearId(int row) {
+        record(row).putLong(offset(row, ID), 0);
+    }
+
+    private void ensureRecord(int row) {
+        int chunk = row >>> Columns.CHUNK_BITS;
+        if (chunk >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length * 2));
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = allocateDirect(Columns.CHUNK_SIZE * recordBytes);
+        }
+    }
+
+    private static ByteBuffer allocateDirect(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static int toRow(long position) {
+        if (position <= 0 || position >= Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap store cannot hold position " + position + ".");
+        }
+        return (int) position;
+    }
+}
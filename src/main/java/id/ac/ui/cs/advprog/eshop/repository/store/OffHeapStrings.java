@@ -0,0 +1,83 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The off-heap counterpart of {@link PackedStrings}: length-prefixed UTF-8 in direct buffer pages,
+ * addressed by the same kind of {@code long} reference, with {@code 0} standing for {@code null}.
+ *
+ * <p>Space is only ever appended. Not thread-safe; the owning store guards it.
+ */
+final class OffHeapStrings {
+    private static final int FIRST_PAGE_BYTES = 1 << 12;
+    private static final int MAX_PAGE_BYTES = 1 << 20;
+
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private ByteBuffer page = ByteBuffer.allocateDirect(0);
+
+    long add(String value) {
+        if (value == null) {
+            return 0;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int needed = Integer.BYTES + bytes.length;
+        if (page.remaining() < needed) {
+            int size = Math.min(MAX_PAGE_BYTES, Math.max(FIRST_PAGE_BYTES, page.capacity() * 2));
+            page = ByteBuffer.allocateDirect(Math.max(needed, size));
+            pages.add(page);
+        }
+        long reference = ((long) (pages.size() - 1) << 32 | page.position()) + 1;
+        page.putInt(bytes.length).put(bytes);
+        return reference;
+    }
+
+    String get(long reference) {
+        if (reference == 0) {
+            return null;
+        }
+        ByteBuffer source = pages.get(pageOf(reference));
+        int at = offsetOf(reference);
+        byte[] bytes = new byte[source.getInt(at)];
+        source.get(at + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether the string at {@code reference} equals {@code value}. ASCII values are compared
+     * in place without allocating.
+     */
+    boolean matches(long reference, String value) {
+        if (reference == 0 || value == null) {
+            return reference == 0 && value == null;
+        }
+        ByteBuffer source = pages.get(pageOf(reference));
+        int at = offsetOf(reference);
+        int length = source.getInt(at);
+        int start = at + Integer.BYTES;
+        if (length != value.length()) {
+            // Equal strings can differ in length here only when the value is not ASCII
+            return length > value.length() && value.equals(get(reference));
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                return value.equals(get(reference));
+            }
+            if (source.get(start + i) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int pageOf(long reference) {
+        return (int) ((reference - 1) >>> 32);
+    }
+
+    private static int offsetOf(long reference) {
+        return (int) (reference - 1);
+    }
+}
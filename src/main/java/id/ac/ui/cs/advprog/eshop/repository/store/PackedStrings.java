@@ -0,0 +1,95 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Strings packed as length-prefixed UTF-8 into large byte pages and addressed by a {@code long}
+ * reference, instead of one {@code String} and one array object each. Reference {@code 0} stands
+ * for {@code null}.
+ *
+ * <p>Space is only ever appended: a string that is replaced or removed stays in its page. Not
+ * thread-safe; the owning store guards it.
+ */
+final class PackedStrings {
+    private static final int FIRST_PAGE_BYTES = 1 << 12;
+    private static final int MAX_PAGE_BYTES = 1 << 20;
+
+    private final List<byte[]> pages = new ArrayList<>();
+    private byte[] page = new byte[0];
+    private int offset;
+
+    long add(String value) {
+        return value == null ? 0 : add(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    long add(byte[] bytes) {
+        int needed = prefixLength(bytes.length) + bytes.length;
+        if (offset + needed > page.length) {
+            int size = Math.min(MAX_PAGE_BYTES, Math.max(FIRST_PAGE_BYTES, page.length * 2));
+            page = new byte[Math.max(needed, size)];
+            pages.add(page);
+            offset = 0;
+        }
+        long reference = ((long) (pages.size() - 1) << 32 | offset) + 1;
+        int length = bytes.length;
+        while (length >= 0x80) {
+            page[offset++] = (byte) (length | 0x80);
+            length >>>= 7;
+        }
+        page[offset++] = (byte) length;
+        System.arraycopy(bytes, 0, page, offset, bytes.length);
+        offset += bytes.length;
+        return reference;
+    }
+
+    String get(long reference) {
+        if (reference == 0) {
+            return null;
+        }
+        byte[] source = pages.get(pageOf(reference));
+        int at = offsetOf(reference);
+        int length = lengthAt(source, at);
+        return new String(source, at + prefixLength(length), length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether the string at {@code reference} encodes to exactly {@code bytes}.
+     */
+    boolean matches(long reference, byte[] bytes) {
+        if (reference == 0) {
+            return false;
+        }
+        byte[] source = pages.get(pageOf(reference));
+        int at = offsetOf(reference);
+        int length = lengthAt(source, at);
+        int start = at + prefixLength(length);
+        return length == bytes.length && Arrays.equals(source, start, start + length, bytes, 0, length);
+    }
+
+    private static int lengthAt(byte[] source, int at) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = source[at++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return length;
+    }
+
+    private static int pageOf(long reference) {
+        return (int) ((reference - 1) >>> 32);
+    }
+
+    private static int offsetOf(long reference) {
+        return (int) (reference - 1);
+    }
+
+    private static int prefixLength(int length) {
+        return length < 0x80 ? 1 : length < 0x4000 ? 2 : length < 0x20_0000 ? 3 : length < 0x1000_0000 ? 4 : 5;
+    }
+}
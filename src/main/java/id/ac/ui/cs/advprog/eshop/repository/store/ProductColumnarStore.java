@@ -0,0 +1,33 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+
+/**
+ * {@link ColumnarStore} for products: a packed name column and an {@code int} quantity column.
+ */
+public class ProductColumnarStore extends ColumnarStore<Product> {
+    private final LongColumn names = new LongColumn();
+    private final IntColumn quantities = new IntColumn();
+
+    /**
+     * Total quantity over all stored products, read from the quantity column alone.
+     */
+    public long totalQuantity() {
+        return sumLive(quantities);
+    }
+
+    @Override
+    protected void write(int row, Product product) {
+        names.set(row, pack(names.get(row), product.getProductName()));
+        quantities.set(row, product.getProductQuantity());
+    }
+
+    @Override
+    protected Product read(int row, String id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName(unpack(names.get(row)));
+        product.setProductQuantity(quantities.get(row));
+        return product;
+    }
+}
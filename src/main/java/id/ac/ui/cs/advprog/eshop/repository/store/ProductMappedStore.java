@@ -0,0 +1,40 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+
+import java.nio.file.Path;
+
+/**
+ * {@link MappedStore} for products, in {@code products.*} files; each slot holds a name of up to
+ * {@value #NAME_CAPACITY} UTF-8 bytes and an {@code int} quantity.
+ */
+public class ProductMappedStore extends MappedStore<Product> {
+    public static final int NAME_CAPACITY = 128;
+
+    private static final int NAME = 0;
+    private static final int QUANTITY = NAME + stringBytes(NAME_CAPACITY);
+
+    public ProductMappedStore(Path directory) {
+        super(directory, "products", QUANTITY + Integer.BYTES);
+    }
+
+    @Override
+    protected void check(Product product) {
+        checkLength("Product name", product.getProductName(), NAME_CAPACITY);
+    }
+
+    @Override
+    protected void write(int slot, Product product) {
+        putString(slot, NAME, product.getProductName());
+        putInt(slot, QUANTITY, product.getProductQuantity());
+    }
+
+    @Override
+    protected Product read(int slot, String id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName(getString(slot, NAME));
+        product.setProductQuantity(getInt(slot, QUANTITY));
+        return product;
+    }
+}
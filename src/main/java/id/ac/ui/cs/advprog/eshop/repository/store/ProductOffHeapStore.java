@@ -0,0 +1,37 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+
+/**
+ * {@link OffHeapStore} for products; each record holds a packed name and an {@code int} quantity.
+ */
+public class ProductOffHeapStore extends OffHeapStore<Product> {
+    private static final int NAME = 0;
+    private static final int QUANTITY = NAME + Long.BYTES;
+
+    public ProductOffHeapStore() {
+        super(QUANTITY + Integer.BYTES);
+    }
+
+    /**
+     * Total quantity over all stored products, read from the records without building entities.
+     */
+    public long totalQuantity() {
+        return sumLive(QUANTITY);
+    }
+
+    @Override
+    protected void write(int row, Product product) {
+        putString(row, NAME, product.getProductName());
+        putInt(row, QUANTITY, product.getProductQuantity());
+    }
+
+    @Override
+    protected Product read(int row, String id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName(getString(row, NAME));
+        product.setProductQuantity(getInt(row, QUANTITY));
+        return product;
+    }
+}
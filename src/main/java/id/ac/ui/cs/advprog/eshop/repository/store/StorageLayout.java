@@ -0,0 +1,26 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+/**
+ * How a repository lays out its entities, chosen with {@code eshop.repository.storage} or, for one
+ * repository, {@code eshop.repository.products.storage} and {@code eshop.repository.cars.storage}.
+ */
+public enum StorageLayout {
+    /**
+     * {@link ObjectStore}: the entity objects themselves, read without locking.
+     */
+    OBJECTS,
+    /**
+     * A {@link ColumnarStore}: primitive and packed columns, a fraction of the heap per entity.
+     */
+    COLUMNAR,
+    /**
+     * An {@link OffHeapStore}: fixed-width records in direct buffers, out of the garbage collector's
+     * sight.
+     */
+    OFF_HEAP,
+    /**
+     * A {@link MappedStore}: fixed-size slots in memory-mapped files under
+     * {@code eshop.repository.mapped-directory}, reopened without reloading on restart.
+     */
+    MAPPED
+}
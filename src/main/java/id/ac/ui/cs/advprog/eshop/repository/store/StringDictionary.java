@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbers the distinct values of a low-cardinality string field from {@code 1}, with {@code 0}
+ * standing for {@code null}, so every row holding the same value shares one {@code String}. Not
+ * thread-safe; the owning store guards it.
+ */
+final class StringDictionary {
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    int code(String value) {
+        return value == null ? 0 : codes.computeIfAbsent(value, added -> {
+            values.add(added);
+            return values.size();
+        });
+    }
+
+    String value(int code) {
+        return code == 0 ? null : values.get(code - 1);
+    }
+}
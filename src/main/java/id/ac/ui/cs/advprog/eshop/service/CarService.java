@@ -1,15 +1,33 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.stats.InventoryStats;
 import id.ac.ui.cs.advprog.eshop.service.base.ReadService;
 import id.ac.ui.cs.advprog.eshop.service.base.WriteService;
+import id.ac.ui.cs.advprog.eshop.service.cache.CacheStats;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CarService extends ReadService<Car>, WriteService<Car> {
     public Car create(Car car);
+    public List<Car> createAll(List<Car> cars);
     public List<Car> findAll();
+    public Page<Car> findPage(String cursor, int limit);
+    public Stream<Car> streamAll();
+    public List<Car> search(String query, int limit);
     Car findById(String CarId);
     public void update(String carId, Car car);
+    public void updateAll(List<Car> cars);
     public void deleteById(String carId);
+    public void deleteAllById(List<String> carIds);
+    public Car adjustQuantity(String carId, int delta);
+    public Car reserve(String carId, int quantity);
+    public void markHot(String carId);
+    public void markCold(String carId);
+    public void reconcileHotStock();
+    public long version();
+    public CacheStats cacheStats();
+    public InventoryStats inventoryStats(int lowStockBelow);
 }
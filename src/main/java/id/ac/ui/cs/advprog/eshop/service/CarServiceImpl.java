@@ -1,49 +1,159 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.EntityNotFoundException;
+import id.ac.ui.cs.advprog.eshop.repository.stats.InventoryStats;
+import id.ac.ui.cs.advprog.eshop.service.cache.CacheStats;
+import id.ac.ui.cs.advprog.eshop.service.cache.ReadThroughCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class CarServiceImpl implements CarService {
 
+    static final int CACHE_SIZE = 10_000;
+
     @Autowired
     private CarRepository carRepository;
 
+    private final ReadThroughCache<Car> cache = new ReadThroughCache<>(CACHE_SIZE);
+
     @Override
     public Car create(Car car) {
         // TODO Auto-generated method stub
         carRepository.create(car);
+        cache.created(car.getId());
         return car;
     }
 
+    @Override
+    public List<Car> createAll(List<Car> cars) {
+        List<Car> created = carRepository.createAll(cars);
+        cache.createdAll(ids(created));
+        return created;
+    }
+
     @Override
     public List<Car> findAll() {
-        Iterator<Car> carIterator = carRepository.findAll();
-        List<Car> allCar = new ArrayList<>();
-        carIterator.forEachRemaining(allCar::add);
-        return allCar;
+        return cache.findAll(() -> {
+            Iterator<Car> carIterator = carRepository.findAll();
+            List<Car> allCar = new ArrayList<>();
+            carIterator.forEachRemaining(allCar::add);
+            return allCar;
+        });
+    }
+
+    @Override
+    public Page<Car> findPage(String cursor, int limit) {
+        return cache.findPage(cursor, limit, () -> carRepository.findPage(cursor, limit));
+    }
+
+    @Override
+    public Stream<Car> streamAll() {
+        return carRepository.streamAll();
+    }
+
+    @Override
+    public List<Car> search(String query, int limit) {
+        return cache.search(query, limit, () -> carRepository.search(query, limit));
     }
 
     @Override
     public Car findById(String carId){
-        Car car = carRepository.findById(carId);
-        return car;
+        return cache.findById(carId, () -> carRepository.findById(carId));
     }
 
     @Override
     public void update(String carId, Car car) {
-        // TODO Auto-generated method stub
-        carRepository.update(carId, car);
+        Car updated = carRepository.update(carId, car);
+        cache.updated(carId);
+        if (updated == null) {
+            throw new EntityNotFoundException(carId);
+        }
+    }
+
+    @Override
+    public void updateAll(List<Car> cars) {
+        carRepository.updateAll(cars);
+        cache.updatedAll(ids(cars));
     }
 
     @Override
     public void deleteById(String carId) {
         // TODO Auto-generated method stub
         carRepository.delete(carId);
+        cache.deleted(carId);
+    }
+
+    @Override
+    public void deleteAllById(List<String> carIds) {
+        carRepository.deleteAll(carIds);
+        cache.deletedAll(carIds);
+    }
+
+    @Override
+    public Car adjustQuantity(String id, int delta) {
+        Car car = carRepository.adjustQuantity(id, delta);
+        cache.updated(id);
+        return car;
+    }
+
+    @Override
+    public Car reserve(String id, int quantity) {
+        Car car = carRepository.reserve(id, quantity);
+        cache.updated(id);
+        return car;
+    }
+
+    @Override
+    public void markHot(String id) {
+        carRepository.markHot(id);
+    }
+
+    @Override
+    public void markCold(String id) {
+        carRepository.markCold(id);
+        cache.updated(id);
+    }
+
+    @Override
+    public void reconcileHotStock() {
+        cache.updatedAll(carRepository.reconcileHotStock());
+    }
+
+    @Override
+    public long version() {
+        return carRepository.version();
+    }
+
+    @Override
+    public long version(String id) {
+        return carRepository.versionOf(id);
+    }
+
+    @Override
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public InventoryStats inventoryStats(int lowStockBelow) {
+        return carRepository.inventoryStats(lowStockBelow);
+    }
+
+    private static List<String> ids(List<Car> cars) {
+        List<String> ids = new ArrayList<>(cars.size());
+        for (Car car : cars) {
+            if (car != null && car.getId() != null) {
+                ids.add(car.getId());
+            }
+        }
+        return ids;
     }
-}
\ No newline at end of file
+}
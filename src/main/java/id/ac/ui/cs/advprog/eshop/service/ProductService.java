@@ -1,15 +1,33 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.stats.InventoryStats;
 import id.ac.ui.cs.advprog.eshop.service.base.ReadService;
 import id.ac.ui.cs.advprog.eshop.service.base.WriteService;
+import id.ac.ui.cs.advprog.eshop.service.cache.CacheStats;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ProductService extends ReadService<Product>, WriteService<Product>  {
     public Product create(Product product);
+    public List<Product> createAll(List<Product> products);
     public List<Product> findAll();
+    public Page<Product> findPage(String cursor, int limit);
+    public Stream<Product> streamAll();
+    public List<Product> search(String query, int limit);
     public Product findById(String id);
     public void update(String productId, Product product);
+    public void updateAll(List<Product> products);
     public void deleteById(String productId);
+    public void deleteAllById(List<String> productIds);
+    public Product adjustQuantity(String productId, int delta);
+    public Product reserve(String productId, int quantity);
+    public void markHot(String productId);
+    public void markCold(String productId);
+    public void reconcileHotStock();
+    public long version();
+    public CacheStats cacheStats();
+    public InventoryStats inventoryStats(int lowStockBelow);
 }
@@ -1,46 +1,154 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.stats.InventoryStats;
+import id.ac.ui.cs.advprog.eshop.service.cache.CacheStats;
+import id.ac.ui.cs.advprog.eshop.service.cache.ReadThroughCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class ProductServiceImpl implements ProductService{
 
+    static final int CACHE_SIZE = 10_000;
+
     @Autowired
     private ProductRepository productRepository;
 
+    private final ReadThroughCache<Product> cache = new ReadThroughCache<>(CACHE_SIZE);
+
     @Override
     public Product create(Product product) {
         productRepository.create(product);
+        cache.created(product.getId());
         return product;
     }
 
+    @Override
+    public List<Product> createAll(List<Product> products) {
+        List<Product> created = productRepository.createAll(products);
+        cache.createdAll(ids(created));
+        return created;
+    }
+
     @Override
     public List<Product> findAll() {
-        Iterator<Product> productIterator = productRepository.findAll();
-        List<Product> allProduct = new ArrayList<>();
-        productIterator.forEachRemaining(allProduct::add);
-        return allProduct;
+        return cache.findAll(() -> {
+            Iterator<Product> productIterator = productRepository.findAll();
+            List<Product> allProduct = new ArrayList<>();
+            productIterator.forEachRemaining(allProduct::add);
+            return allProduct;
+        });
+    }
+
+    @Override
+    public Page<Product> findPage(String cursor, int limit) {
+        return cache.findPage(cursor, limit, () -> productRepository.findPage(cursor, limit));
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return productRepository.streamAll();
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        return cache.search(query, limit, () -> productRepository.search(query, limit));
     }
 
     @Override
     public Product findById(String id) {
-        return productRepository.findById(id);
+        return cache.findById(id, () -> productRepository.findById(id));
     }
 
     @Override
     public void update(String id, Product product) {
         productRepository.update(id, product);
+        cache.updated(id);
+    }
+
+    @Override
+    public void updateAll(List<Product> products) {
+        productRepository.updateAll(products);
+        cache.updatedAll(ids(products));
     }
 
     @Override
     public void deleteById(String id) {
         productRepository.delete(id);
+        cache.deleted(id);
+    }
+
+    @Override
+    public void deleteAllById(List<String> productIds) {
+        productRepository.deleteAll(productIds);
+        cache.deletedAll(productIds);
+    }
+
+    @Override
+    public Product adjustQuantity(String id, int delta) {
+        Product product = productRepository.adjustQuantity(id, delta);
+        cache.updated(id);
+        return product;
+    }
+
+    @Override
+    public Product reserve(String id, int quantity) {
+        Product product = productRepository.reserve(id, quantity);
+        cache.updated(id);
+        return product;
+    }
+
+    @Override
+    public void markHot(String id) {
+        productRepository.markHot(id);
+    }
+
+    @Override
+    public void markCold(String id) {
+        productRepository.markCold(id);
+        cache.updated(id);
+    }
+
+    @Override
+    public void reconcileHotStock() {
+        cache.updatedAll(productRepository.reconcileHotStock());
+    }
+
+    @Override
+    public long version() {
+        return productRepository.version();
+    }
+
+    @Override
+    public long version(String id) {
+        return productRepository.versionOf(id);
+    }
+
+    @Override
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public InventoryStats inventoryStats(int lowStockBelow) {
+        return productRepository.inventoryStats(lowStockBelow);
+    }
+
+    private static List<String> ids(List<Product> products) {
+        List<String> ids = new ArrayList<>(products.size());
+        for (Product product : products) {
+            if (product != null && product.getId() != null) {
+                ids.add(product.getId());
+            }
+        }
+        return ids;
     }
 }
@@ -1,8 +1,21 @@
 package id.ac.ui.cs.advprog.eshop.service.base;
 
+import id.ac.ui.cs.advprog.eshop.model.Page;
+
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ReadService<T> {
     List<T> findAll();
+    Page<T> findPage(String cursor, int limit);
+    Stream<T> streamAll();
+    List<T> search(String query, int limit);
     T findById(String id);
+    long version();
+
+    /**
+     * The version to tag a page showing the entity under {@code id} with, or -1 if its stock
+     * changes without moving the version, so such a page must not be tagged.
+     */
+    long version(String id);
 }
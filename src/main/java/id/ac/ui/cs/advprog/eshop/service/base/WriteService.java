@@ -1,7 +1,12 @@
 package id.ac.ui.cs.advprog.eshop.service.base;
 
+import java.util.List;
+
 public interface WriteService<T> {
     T create(T entity);
+    List<T> createAll(List<T> entities);
     void update(String id, T entity);
+    void updateAll(List<T> entities);
     void deleteById(String id);
+    void deleteAllById(List<String> ids);
 }
@@ -0,0 +1,7 @@
+package id.ac.ui.cs.advprog.eshop.service.cache;
+
+/**
+ * Point-in-time counters of a {@link ReadThroughCache}.
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+}
@@ -0,0 +1,265 @@
+package id.ac.ui.cs.advprog.eshop.service.cache;
+
+import id.ac.ui.cs.advprog.eshop.model.IdHolder;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded, approximately LRU cache for the results of a service's read calls: single entities, the full
+ * listing, listing pages and search results.
+ *
+ * <p>Every cached result records which writes can change it, so a write drops only the affected
+ * entries: the entity itself, the pages holding it, the last page when an entity is created, and
+ * the full listing and search results (which any write can change). The owning service must call
+ * {@link #created}, {@link #updated} or {@link #deleted} after each write has been applied.
+ *
+ * <p>A result loaded while a write was being invalidated is returned but not stored, so a reader
+ * that raced a write can never put a stale result back into the cache.
+ *
+ * <p>Hits read a concurrent map and stamp the entry's access time without taking any lock, so
+ * readers of hot entries never queue behind each other. Stores, evictions and invalidations are
+ * serialized by a lock. When the cache is full, the least recently used of a sample of
+ * {@link #EVICTION_SAMPLE} entries is evicted; a cache no larger than the sample evicts exactly.
+ */
+public class ReadThroughCache<T extends IdHolder> {
+    static final int EVICTION_SAMPLE = 16;
+
+    private static final Object ALL = new Object();
+
+    private record EntityKey(String id) { }
+
+    private record PageKey(String cursor, int limit) { }
+
+    private record SearchKey(String query, int limit) { }
+
+    /**
+     * A cached value and the writes that drop it: writes to any of {@code ids}, every write if
+     * {@code anyWrite}, and the creation of a new entity if {@code tail}.
+     */
+    private static final class Entry {
+        private final Object value;
+        private final Set<String> ids;
+        private final boolean anyWrite;
+        private final boolean tail;
+        private volatile long accessed = System.nanoTime();
+        // Index in the eviction slots, guarded by the lock
+        private int slot;
+
+        Entry(Object value, Set<String> ids, boolean anyWrite, boolean tail) {
+            this.value = value;
+            this.ids = ids;
+            this.anyWrite = anyWrite;
+            this.tail = tail;
+        }
+    }
+
+    private final int maximumSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentMap<Object, Entry> entries = new ConcurrentHashMap<>();
+    // Keys of the stored entries in no particular order, for sampling eviction candidates
+    private final List<Object> slots = new ArrayList<>();
+    private final Map<String, Set<Object>> keysById = new HashMap<>();
+    private final Set<Object> anyWriteKeys = new HashSet<>();
+    private final Set<Object> tailKeys = new HashSet<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long generation;
+    private long evictions;
+
+    public ReadThroughCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    public T findById(String id, Supplier<T> loader) {
+        return get(new EntityKey(id), loader, entity -> new Entry(entity, Set.of(id), false, false));
+    }
+
+    public List<T> findAll(Supplier<List<T>> loader) {
+        return get(ALL, () -> List.copyOf(loader.get()), all -> new Entry(all, Set.of(), true, false));
+    }
+
+    public Page<T> findPage(String cursor, int limit, Supplier<Page<T>> loader) {
+        return get(new PageKey(cursor, limit), loader,
+                page -> new Entry(page, ids(page.items()), false, !page.hasNext()));
+    }
+
+    public List<T> search(String query, int limit, Supplier<List<T>> loader) {
+        return get(new SearchKey(query, limit), () -> List.copyOf(loader.get()),
+                results -> new Entry(results, Set.of(), true, false));
+    }
+
+    public void created(String id) {
+        invalidate(Collections.singletonList(id), true);
+    }
+
+    public void updated(String id) {
+        invalidate(Collections.singletonList(id), false);
+    }
+
+    public void deleted(String id) {
+        invalidate(Collections.singletonList(id), false);
+    }
+
+    /**
+     * Batch counterpart of {@link #created}, taking the cache lock once.
+     */
+    public void createdAll(Collection<String> ids) {
+        invalidate(ids, true);
+    }
+
+    public void updatedAll(Collection<String> ids) {
+        invalidate(ids, false);
+    }
+
+    public void deletedAll(Collection<String> ids) {
+        invalidate(ids, false);
+    }
+
+    public CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses.sum(), evictions, entries.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V get(Object key, Supplier<V> loader, Function<V, Entry> entryFor) {
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            cached.accessed = System.nanoTime();
+            hits.increment();
+            return (V) cached.value;
+        }
+        misses.increment();
+        long seen;
+        lock.lock();
+        try {
+            seen = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        V value = loader.get();
+        if (value == null) {
+            return null;
+        }
+        Entry entry = entryFor.apply(value);
+        lock.lock();
+        try {
+            if (generation == seen) {
+                remove(key);
+                entries.put(key, entry);
+                link(key, entry);
+                if (entries.size() > maximumSize) {
+                    remove(leastRecentlyUsed(key));
+                    evictions++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return value;
+    }
+
+    private void invalidate(Collection<String> ids, boolean created) {
+        lock.lock();
+        try {
+            generation++;
+            Set<Object> stale = new HashSet<>(anyWriteKeys);
+            for (String id : ids) {
+                stale.addAll(keysById.getOrDefault(id, Collections.emptySet()));
+            }
+            if (created) {
+                stale.addAll(tailKeys);
+            }
+            for (Object key : stale) {
+                remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The least recently used key among a sample of the stored ones, never {@code kept}.
+     */
+    private Object leastRecentlyUsed(Object kept) {
+        int size = slots.size();
+        int sample = Math.min(EVICTION_SAMPLE, size);
+        int start = size <= EVICTION_SAMPLE ? 0 : ThreadLocalRandom.current().nextInt(size);
+        Object eldest = null;
+        long eldestAccess = Long.MAX_VALUE;
+        for (int i = 0; i < sample; i++) {
+            Object key = slots.get((start + i) % size);
+            long accessed = entries.get(key).accessed;
+            if (!key.equals(kept) && (eldest == null || accessed - eldestAccess < 0)) {
+                eldest = key;
+                eldestAccess = accessed;
+            }
+        }
+        return eldest;
+    }
+
+    private void link(Object key, Entry entry) {
+        entry.slot = slots.size();
+        slots.add(key);
+        for (String id : entry.ids) {
+            keysById.computeIfAbsent(id, ignored -> new HashSet<>()).add(key);
+        }
+        if (entry.anyWrite) {
+            anyWriteKeys.add(key);
+        }
+        if (entry.tail) {
+            tailKeys.add(key);
+        }
+    }
+
+    private void remove(Object key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        // Fills the emptied slot with the last one
+        Object last = slots.remove(slots.size() - 1);
+        if (entry.slot < slots.size()) {
+            slots.set(entry.slot, last);
+            entries.get(last).slot = entry.slot;
+        }
+        for (String id : entry.ids) {
+            Set<Object> keys = keysById.get(id);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysById.remove(id);
+            }
+        }
+        anyWriteKeys.remove(key);
+        tailKeys.remove(key);
+    }
+
+    private static <T extends IdHolder> Set<String> ids(List<T> items) {
+        Set<String> ids = new HashSet<>();
+        for (T item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+}
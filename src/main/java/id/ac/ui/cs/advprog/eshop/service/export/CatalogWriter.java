@@ -0,0 +1,109 @@
+package id.ac.ui.cs.advprog.eshop.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.importer.RecordFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes entities one at a time as CSV or NDJSON, with the same columns the importer reads, so an
+ * export can be imported again. Nothing but the current entity and a fixed-size buffer is held,
+ * whatever the number of entities.
+ */
+public final class CatalogWriter<T> {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    public record Column<T>(String name, Function<T, Object> value) { }
+
+    public static final CatalogWriter<Product> PRODUCTS = new CatalogWriter<>(List.of(
+            new Column<>("id", Product::getId),
+            new Column<>("productName", Product::getProductName),
+            new Column<>("productQuantity", Product::getProductQuantity)));
+
+    public static final CatalogWriter<Car> CARS = new CatalogWriter<>(List.of(
+            new Column<>("id", Car::getId),
+            new Column<>("carName", Car::getCarName),
+            new Column<>("carColor", Car::getCarColor),
+            new Column<>("carQuantity", Car::getCarQuantity)));
+
+    private final List<Column<T>> columns;
+
+    public CatalogWriter(List<Column<T>> columns) {
+        this.columns = List.copyOf(columns);
+    }
+
+    /**
+     * Writes every entity of {@code entities} to {@code out} and flushes it; {@code out} is left
+     * open.
+     */
+    public void write(Iterator<T> entities, RecordFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case CSV -> writeCsv(entities, out);
+            case NDJSON -> writeNdjson(entities, out);
+        }
+    }
+
+    private void writeCsv(Iterator<T> entities, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_CHARS);
+        for (int i = 0; i < columns.size(); i++) {
+            writer.write(i == 0 ? "" : ",");
+            writer.write(columns.get(i).name());
+        }
+        writer.write("\r\n");
+        while (entities.hasNext()) {
+            T entity = entities.next();
+            for (int i = 0; i < columns.size(); i++) {
+                writer.write(i == 0 ? "" : ",");
+                Object value = columns.get(i).value().apply(entity);
+                if (value != null) {
+                    writeCsvField(writer, value.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeNdjson(Iterator<T> entities, OutputStream out) throws IOException {
+        JsonGenerator generator = MAPPER.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        while (entities.hasNext()) {
+            T entity = entities.next();
+            generator.writeStartObject();
+            for (Column<T> column : columns) {
+                generator.writeObjectField(column.name(), column.value().apply(entity));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+}
@@ -0,0 +1,105 @@
+package id.ac.ui.cs.advprog.eshop.service.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV: the first record names the columns, fields may be quoted (with {@code ""} for a
+ * literal quote) and quoted fields may span lines. Blank lines are skipped.
+ */
+final class CsvRowReader extends RowReader {
+    private List<String> header;
+    private long line = 1;
+    private long rows;
+
+    CsvRowReader(Reader reader) {
+        super(reader);
+    }
+
+    @Override
+    Row next() throws IOException {
+        if (header == null) {
+            header = readRecord();
+            if (header == null) {
+                return null;
+            }
+            header.replaceAll(String::trim);
+            // Drop a UTF-8 byte order mark
+            header.set(0, header.get(0).replace("\uFEFF", ""));
+        }
+        List<String> values;
+        do {
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isEmpty());
+
+        rows++;
+        if (values.size() != header.size()) {
+            return Row.malformed(rows, "Expected " + header.size() + " columns but found " + values.size() + ".");
+        }
+        Map<String, String> fields = new HashMap<>(header.size() * 2);
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return Row.parsed(rows, fields);
+    }
+
+    private List<String> readRecord() throws IOException {
+        int next = read();
+        if (next == -1) {
+            return null;
+        }
+        long startLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int consumed = 0;
+        boolean quoted = false;
+        while (true) {
+            if (++consumed > MAX_RECORD_CHARS) {
+                throw new IOException("Record at line " + startLine + " is longer than "
+                        + MAX_RECORD_CHARS + " characters.");
+            }
+            if (quoted) {
+                if (next == -1) {
+                    throw new IOException("Unterminated quoted field in record at line " + startLine + ".");
+                }
+                if (next == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (next == '\n') {
+                        line++;
+                    }
+                    field.append((char) next);
+                }
+            } else if (next == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (next == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (next == '\r' || next == '\n' || next == -1) {
+                if (next == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (next != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) next);
+            }
+            next = read();
+        }
+    }
+}
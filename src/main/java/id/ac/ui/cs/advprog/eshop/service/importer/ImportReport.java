@@ -0,0 +1,12 @@
+package id.ac.ui.cs.advprog.eshop.service.importer;
+
+import java.util.List;
+
+/**
+ * Outcome of one import. {@code rejections} lists, by row number, at most the first
+ * {@value StreamingImporter#MAX_REPORTED_REJECTIONS} rejected rows; {@code rejected} counts all.
+ */
+public record ImportReport(long rows, long imported, long rejected, long elapsedMillis,
+                           double rowsPerSecond, List<Rejection> rejections) {
+    public record Rejection(long row, String reason) { }
+}
@@ -0,0 +1,97 @@
+package id.ac.ui.cs.advprog.eshop.service.importer;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Streams product and car files into their services. Columns (CSV) or keys (NDJSON) are named
+ * after the entity fields; {@code id} is optional and an existing id is overwritten.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportService {
+    static final int BATCH_SIZE = 1_000;
+    static final int WORKERS = Runtime.getRuntime().availableProcessors();
+
+    private final ProductService productService;
+    private final CarService carService;
+    private final ExecutorService pool = StreamingImporter.workerPool();
+
+    public ImportReport importProducts(InputStream input, RecordFormat format) throws IOException {
+        ImportReport report = new StreamingImporter<>(productService, ImportService::toProduct, pool, WORKERS,
+                BATCH_SIZE).run(input, format);
+        log.info("Imported {} of {} product rows ({} rejected) at {} rows/s",
+                report.imported(), report.rows(), report.rejected(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    public ImportReport importCars(InputStream input, RecordFormat format) throws IOException {
+        ImportReport report = new StreamingImporter<>(carService, ImportService::toCar, pool, WORKERS, BATCH_SIZE)
+                .run(input, format);
+        log.info("Imported {} of {} car rows ({} rejected) at {} rows/s",
+                report.imported(), report.rows(), report.rejected(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    static Product toProduct(Map<String, String> fields) {
+        Product product = new Product();
+        product.setId(optional(fields, "id"));
+        product.setProductName(required(fields, "productName"));
+        product.setProductQuantity(quantity(fields, "productQuantity"));
+        return product;
+    }
+
+    static Car toCar(Map<String, String> fields) {
+        Car car = new Car();
+        car.setId(optional(fields, "id"));
+        car.setCarName(required(fields, "carName"));
+        car.setCarColor(optional(fields, "carColor"));
+        car.setCarQuantity(quantity(fields, "carQuantity"));
+        return car;
+    }
+
+    private static String optional(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = optional(fields, name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + name + ".");
+        }
+        return value;
+    }
+
+    private static int quantity(Map<String, String> fields, String name) {
+        String value = required(fields, name);
+        int quantity;
+        try {
+            quantity = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " " + value + ".");
+        }
+        if (quantity < 0) {
+            throw new IllegalArgumentException(name + " must not be negative.");
+        }
+        return quantity;
+    }
+}
@@ -0,0 +1,75 @@
+package id.ac.ui.cs.advprog.eshop.service.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Newline-delimited JSON: one flat JSON object per line. Scalar values are read as text; blank
+ * lines are skipped.
+ */
+final class NdjsonRowReader extends RowReader {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final StringBuilder line = new StringBuilder();
+    private long lines;
+    private long rows;
+
+    NdjsonRowReader(Reader reader) {
+        super(reader);
+    }
+
+    @Override
+    Row next() throws IOException {
+        do {
+            if (!readLine()) {
+                return null;
+            }
+        } while (line.toString().isBlank());
+
+        rows++;
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(line.toString());
+        } catch (JsonProcessingException e) {
+            return Row.malformed(rows, "Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return Row.malformed(rows, "Expected a JSON object.");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            if (field.getValue().isValueNode() && !field.getValue().isNull()) {
+                fields.put(field.getKey(), field.getValue().asText());
+            }
+        }
+        return Row.parsed(rows, fields);
+    }
+
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        int next = read();
+        if (next == -1) {
+            return false;
+        }
+        lines++;
+        while (next != -1 && next != '\n') {
+            if (line.length() == MAX_RECORD_CHARS) {
+                throw new IOException("Record at line " + lines + " is longer than "
+                        + MAX_RECORD_CHARS + " characters.");
+            }
+            if (next != '\r') {
+                line.append((char) next);
+            }
+            next = read();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package id.ac.ui.cs.advprog.eshop.service.importer;
+
+import java.util.Locale;
+
+/**
+ * Input formats the importer understands, identified by their media type.
+ */
+public enum RecordFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    RecordFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Resolves a {@code Content-Type} header value, ignoring parameters such as {@code charset}.
+     */
+    public static RecordFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+            for (RecordFormat format : values()) {
+                if (format.mediaType.equals(type)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import content type " + contentType + ".");
+    }
+}
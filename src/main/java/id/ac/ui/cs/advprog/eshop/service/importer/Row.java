@@ -0,0 +1,17 @@
+package id.ac.ui.cs.advprog.eshop.service.importer;
+
+import java.util.Map;
+
+/**
+ * One input record: its 1-based row number, and either its fields by column name or the reason it
+ * could not be parsed.
+ */
+record Row(long number, Map<String, String> fields, String error) {
+    static Row parsed(long number, Map<String, String> fields) {
+        return new Row(number, fields, null);
+    }
+
+    static Row malformed(long number, String error) {
+        return new Row(number, null, error);
+    }
+}
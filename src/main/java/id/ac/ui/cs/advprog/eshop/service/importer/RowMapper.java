@@ -0,0 +1,12 @@
+package id.ac.ui.cs.advprog.eshop.service.importer;
+
+import java.util.Map;
+
+/**
+ * Turns a parsed row into an entity, throwing {@link IllegalArgumentException} with the reason
+ * when the row is invalid.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(Map<String, String> fields);
+}
@@ -0,0 +1,65 @@
+package id.ac.ui.cs.advprog.eshop.service.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull parser producing one {@link Row} at a time from a character stream, reading through a
+ * fixed-size buffer so memory stays bounded however large the input is. A record longer than
+ * {@link #MAX_RECORD_CHARS} aborts the import, since the parser cannot tell where it ends.
+ */
+abstract class RowReader {
+    static final int MAX_RECORD_CHARS = 1 << 20;
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_CHARS];
+    private int position;
+    private int limit;
+
+    RowReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    static RowReader open(InputStream input, RecordFormat format) {
+        Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        return switch (format) {
+            case CSV -> new CsvRowReader(reader);
+            case NDJSON -> new NdjsonRowReader(reader);
+        };
+    }
+
+    /**
+     * Returns the next row, or {@code null} at the end of the input.
+     */
+    abstract Row next() throws IOException;
+
+    /**
+     * Returns the next character, or -1 at the end of the input.
+     */
+    int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Returns the next character without consuming it, or -1 at the end of the input.
+     */
+    int peek() throws IOException {
+        int next = read();
+        if (next != -1) {
+            position--;
+        }
+        return next;
+    }
+}
@@ -0,0 +1,227 @@
+package id.ac.ui.cs.advprog.eshop.service.importer;
+
+import id.ac.ui.cs.advprog.eshop.service.base.WriteService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports a stream of records into a {@link WriteService} as a pipeline: the calling thread
+ * parses rows into chunks of {@code batchSize}, and {@code workers} tasks on a shared pool
+ * validate each chunk and insert its valid rows with one {@link WriteService#createAll} call.
+ *
+ * <p>The queue between the two holds at most two chunks per worker, so a parser that outruns
+ * the inserts blocks instead of buffering the input. While blocked it checks on the workers, so a
+ * worker that died fails the import instead of leaving the parser waiting on a queue nobody
+ * drains. Chunks are inserted concurrently, so rows of different chunks may end up in a different
+ * order than in the input.
+ */
+public class StreamingImporter<T> {
+    static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final long OFFER_MILLIS = 100;
+    private static final List<Row> END = new ArrayList<>();
+
+    private final WriteService<T> target;
+    private final RowMapper<T> mapper;
+    private final ExecutorService pool;
+    private final int workers;
+    private final int batchSize;
+
+    /**
+     * @param pool runs the workers; shared between imports, see {@link #workerPool()}
+     */
+    public StreamingImporter(WriteService<T> target, RowMapper<T> mapper, ExecutorService pool,
+                             int workers, int batchSize) {
+        if (workers <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Workers and batch size must be positive.");
+        }
+        this.target = target;
+        this.mapper = mapper;
+        this.pool = pool;
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * A pool of daemon threads for the workers of any number of imports. Threads are reused
+     * between imports, and concurrent imports do not wait for each other's workers.
+     */
+    public static ExecutorService workerPool() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "import-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Imports every record of {@code input}. Invalid rows are rejected and reported without
+     * stopping the import; an {@link IOException} (including input the parser cannot recover
+     * from) stops it after the rows already queued have been inserted. If the calling thread is
+     * interrupted or a worker fails, the import stops at once and its workers are cancelled.
+     */
+    public ImportReport run(InputStream input, RecordFormat format) throws IOException {
+        long start = System.nanoTime();
+        RowReader reader = RowReader.open(input, format);
+        Progress progress = new Progress();
+        BlockingQueue<List<Row>> queue = new ArrayBlockingQueue<>(workers * 2);
+        List<Future<?>> running = new ArrayList<>(workers);
+
+        long rows = 0;
+        IOException unreadable = null;
+        try {
+            for (int i = 0; i < workers; i++) {
+                running.add(pool.submit(() -> {
+                    for (List<Row> chunk = queue.take(); chunk != END; chunk = queue.take()) {
+                        insert(chunk, progress);
+                    }
+                    return null;
+                }));
+            }
+            List<Row> chunk = new ArrayList<>(batchSize);
+            while (true) {
+                Row row;
+                try {
+                    row = reader.next();
+                } catch (IOException e) {
+                    unreadable = e;
+                    break;
+                }
+                if (row == null) {
+                    break;
+                }
+                rows++;
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    put(queue, chunk, running);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty() && unreadable == null) {
+                put(queue, chunk, running);
+            }
+            for (int i = 0; i < workers; i++) {
+                put(queue, END, running);
+            }
+            awaitAll(running);
+        } finally {
+            // A no-op for workers that finished; stops the rest when the import is abandoned
+            for (Future<?> worker : running) {
+                worker.cancel(true);
+            }
+        }
+        if (unreadable != null) {
+            throw unreadable;
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        return new ImportReport(rows, progress.imported.get(), progress.rejected.get(),
+                elapsedNanos / 1_000_000, rows * 1e9 / elapsedNanos, progress.rejections());
+    }
+    private void insert(List<Row> chunk, Progress progress) {
+        List<T> batch = new ArrayList<>(chunk.size());
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (row.error() != null) {
+                progress.reject(row.number(), row.error());
+                continue;
+            }
+            try {
+                batch.add(mapper.map(row.fields()));
+                accepted.add(row);
+            } catch (RuntimeException e) {
+                progress.reject(row.number(), e.getMessage());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            target.createAll(batch);
+            progress.imported.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            for (Row row : accepted) {
+                progress.reject(row.number(), "Insert failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Queues {@code chunk}, failing instead of waiting forever if a worker has died.
+     */
+    private static void put(BlockingQueue<List<Row>> queue, List<Row> chunk, List<Future<?>> running)
+            throws InterruptedIOException {
+        try {
+            while (!queue.offer(chunk, OFFER_MILLIS, TimeUnit.MILLISECONDS)) {
+                for (Future<?> worker : running) {
+                    if (worker.isDone()) {
+                        // Workers only return once they take an end marker, so this one failed
+                        awaitAll(List.of(worker));
+                        throw new IllegalStateException("Import worker stopped early");
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> running) throws InterruptedIOException {
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Import interrupted");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Import worker failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Counts and rejections shared by the workers. Of the rejected rows, those with the lowest
+     * numbers are kept, so the report does not depend on which worker got to its chunk first.
+     */
+    private static final class Progress {
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        // Max-heap on the row number, holding the lowest rejected rows seen so far
+        private final PriorityQueue<ImportReport.Rejection> lowest = new PriorityQueue<>(
+                Comparator.comparingLong(ImportReport.Rejection::row).reversed());
+
+        private void reject(long row, String reason) {
+            rejected.incrementAndGet();
+            synchronized (lowest) {
+                if (lowest.size() < MAX_REPORTED_REJECTIONS) {
+                    lowest.add(new ImportReport.Rejection(row, reason));
+                } else if (row < lowest.peek().row()) {
+                    lowest.poll();
+                    lowest.add(new ImportReport.Rejection(row, reason));
+                }
+            }
+        }
+
+        private List<ImportReport.Rejection> rejections() {
+            synchronized (lowest) {
+                return lowest.stream()
+                        .sorted(Comparator.comparingLong(ImportReport.Rejection::row))
+                        .toList();
+            }
+        }
+    }
+}
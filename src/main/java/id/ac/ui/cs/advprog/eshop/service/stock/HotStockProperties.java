@@ -0,0 +1,13 @@
+package id.ac.ui.cs.advprog.eshop.service.stock;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "eshop.hot-stock")
+public class HotStockProperties {
+    private Duration reconcileInterval = Duration.ofSeconds(1);
+}
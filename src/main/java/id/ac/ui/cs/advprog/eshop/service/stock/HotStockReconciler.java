@@ -0,0 +1,67 @@
+package id.ac.ui.cs.advprog.eshop.service.stock;
+
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the striped stock of hot products and cars back to the stored entities,
+ * so listings, the inventory aggregates and the write-ahead log fall at most
+ * {@code eshop.hot-stock.reconcile-interval} behind. An interval of {@code 0} disables it.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(HotStockProperties.class)
+@RequiredArgsConstructor
+public class HotStockReconciler {
+
+    private final HotStockProperties properties;
+    private final ProductService productService;
+    private final CarService carService;
+
+    private ScheduledExecutorService reconciler;
+
+    @PostConstruct
+    public void start() {
+        long interval = properties.getReconcileInterval().toMillis();
+        if (interval > 0) {
+            reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "hot-stock-reconciler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reconciler.scheduleWithFixedDelay(this::reconcile, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void reconcile() {
+        try {
+            productService.reconcileHotStock();
+            carService.reconcileHotStock();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the striped stock stays authoritative until the next run
+            log.warn("Hot stock reconciliation failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reconciler != null) {
+            reconciler.shutdown();
+            try {
+                reconciler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedResponseCacheTest {
+
+    @Test
+    void put_evictsLeastRecentlyUsedBeyondTotalSize() {
+        CompressedResponseCache cache = new CompressedResponseCache(10);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        cache.get("a");
+
+        cache.put("c", new byte[4]);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void put_ignoresBodiesLargerThanTheCache() {
+        CompressedResponseCache cache = new CompressedResponseCache(10);
+
+        cache.put("a", new byte[11]);
+
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void key_tellsLevelsAndEtagsApart() {
+        assertNotEquals(CompressedResponseCache.key("/product/list", "\"1\"", 1),
+                CompressedResponseCache.key("/product/list", "\"1\"", 6));
+        assertNotEquals(CompressedResponseCache.key("/product/list", "\"1\"", 1),
+                CompressedResponseCache.key("/product/list", "\"2\"", 1));
+    }
+}
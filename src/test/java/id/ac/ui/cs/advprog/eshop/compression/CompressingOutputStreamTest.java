@@ -0,0 +1,98 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressingOutputStreamTest {
+
+    private final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+    private final List<String> opened = new ArrayList<>();
+
+    private OutputStream open(boolean compressed, long length) {
+        opened.add(compressed ? "gzip" : "identity " + length);
+        return sent;
+    }
+
+    private static byte[] page(int rows) {
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            html.append("<tr><td>Product ").append(i).append("</td><td>").append(i % 100).append("</td></tr>\n");
+        }
+        return html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        return new GZIPInputStream(new ByteArrayInputStream(bytes)).readAllBytes();
+    }
+
+    @Test
+    void bodyBelowThreshold_isSentAsItIs() throws IOException {
+        CompressingOutputStream body = new CompressingOutputStream(6, 1024, 1 << 20, this::open);
+
+        body.write("<p>small</p>".getBytes(StandardCharsets.UTF_8));
+        assertTrue(opened.isEmpty());
+        body.finish();
+
+        assertEquals(List.of("identity 12"), opened);
+        assertEquals("<p>small</p>", sent.toString(StandardCharsets.UTF_8));
+        assertNull(body.compressed());
+    }
+
+    @Test
+    void bodyReachingThreshold_isStreamedCompressed() throws IOException {
+        byte[] page = page(1000);
+        CompressingOutputStream body = new CompressingOutputStream(6, 1024, 1 << 20, this::open);
+
+        body.write(page, 0, 2048);
+        assertEquals(List.of("gzip"), opened);
+        body.write(page, 2048, page.length - 2048);
+        body.finish();
+
+        assertArrayEquals(page, gunzip(sent.toByteArray()));
+        assertTrue(sent.size() < page.length / 4);
+        assertArrayEquals(sent.toByteArray(), body.compressed());
+    }
+
+    @Test
+    void compressedBodyLargerThanRetainLimit_isNotKept() throws IOException {
+        CompressingOutputStream body = new CompressingOutputStream(6, 0, 64, this::open);
+
+        body.write(page(1000));
+        body.finish();
+
+        assertEquals(List.of("gzip"), opened);
+        assertNull(body.compressed());
+    }
+
+    @Test
+    void higherLevel_givesSmallerBody() throws IOException {
+        byte[] page = page(5000);
+        CompressingOutputStream fast = new CompressingOutputStream(1, 0, 1 << 20, this::open);
+        fast.write(page);
+        fast.finish();
+        CompressingOutputStream small = new CompressingOutputStream(9, 0, 1 << 20, this::open);
+        small.write(page);
+        small.finish();
+
+        assertTrue(small.compressed().length < fast.compressed().length);
+        assertArrayEquals(page, gunzip(small.compressed()));
+    }
+
+    @Test
+    void writeAfterFinish_fails() throws IOException {
+        CompressingOutputStream body = new CompressingOutputStream(6, 1024, 0, this::open);
+        body.finish();
+
+        assertThrows(IOException.class, () -> body.write(1));
+    }
+}
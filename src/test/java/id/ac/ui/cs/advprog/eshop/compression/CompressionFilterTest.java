@@ -0,0 +1,132 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionFilterTest {
+
+    private final CompressionFilter filter = new CompressionFilter(
+            new CompressionPolicy(Map.of("text/html", 6), 1024), new CompressedResponseCache(1 << 20));
+
+    private static String page(String name, int rows) {
+        StringBuilder html = new StringBuilder("<table>\n");
+        for (int i = 0; i < rows; i++) {
+            html.append("<tr><td>").append(name).append(' ').append(i).append("</td></tr>\n");
+        }
+        return html.append("</table>\n").toString();
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        return new String(new GZIPInputStream(new ByteArrayInputStream(bytes)).readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private MockHttpServletResponse get(String contentType, String etag, String body, String acceptEncoding)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/product/list");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            HttpServletResponse http = (HttpServletResponse) res;
+            http.setContentType(contentType);
+            if (etag != null) {
+                http.setHeader("ETag", etag);
+            }
+            http.getWriter().write(body);
+        });
+        return response;
+    }
+
+    @Test
+    void largePage_isGzippedWithWeakEtag() throws Exception {
+        String html = page("Product", 500);
+
+        MockHttpServletResponse response = get("text/html;charset=UTF-8", "\"1\"", html, "gzip, deflate");
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals("W/\"1\"", response.getHeader("ETag"));
+        assertEquals(html, gunzip(response.getContentAsByteArray()));
+        assertTrue(response.getContentAsByteArray().length < html.length() / 4);
+    }
+
+    @Test
+    void smallPage_isSentAsItIs() throws Exception {
+        MockHttpServletResponse response = get("text/html;charset=UTF-8", "\"1\"", "<p>empty</p>", "gzip");
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals("\"1\"", response.getHeader("ETag"));
+        assertEquals(12, response.getContentLength());
+        assertEquals("<p>empty</p>", response.getContentAsString());
+    }
+
+    @Test
+    void clientWithoutGzip_getsPageAsItIs() throws Exception {
+        String html = page("Product", 500);
+
+        MockHttpServletResponse response = get("text/html;charset=UTF-8", "\"1\"", html, "gzip;q=0");
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals(html, response.getContentAsString());
+    }
+
+    @Test
+    void unchangedPage_reusesCompressedBytes() throws Exception {
+        String first = page("Product", 500);
+        byte[] compressed = get("text/html;charset=UTF-8", "\"1\"", first, "gzip").getContentAsByteArray();
+
+        // Same ETag: the cached bytes are sent, whatever the handler wrote this time
+        MockHttpServletResponse cached = get("text/html;charset=UTF-8", "\"1\"", page("Changed", 500), "gzip");
+        MockHttpServletResponse changed = get("text/html;charset=UTF-8", "\"2\"", page("Changed", 500), "gzip");
+
+        assertArrayEquals(compressed, cached.getContentAsByteArray());
+        assertEquals(compressed.length, cached.getContentLength());
+        assertEquals("W/\"1\"", cached.getHeader("ETag"));
+        assertEquals(page("Changed", 500), gunzip(changed.getContentAsByteArray()));
+    }
+
+    @Test
+    void otherContentTypes_passThrough() throws Exception {
+        String json = "[" + "{\"id\":1},".repeat(500) + "{\"id\":2}]";
+
+        MockHttpServletResponse response = get("application/json", null, json, "gzip");
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertNull(response.getHeader("Vary"));
+        assertEquals(json, response.getContentAsString());
+    }
+
+    @Test
+    void level_comesFromFilterPolicy() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/product/export");
+        assertEquals(Deflater.DEFAULT_COMPRESSION, CompressionFilter.level(request, "text/csv"));
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+
+        assertEquals(6, CompressionFilter.level(request, "text/html"));
+        assertEquals(CompressionPolicy.NONE, CompressionFilter.level(request, "text/csv"));
+    }
+
+    @Test
+    void acceptsGzip_honoursZeroQuality() {
+        assertTrue(CompressionFilter.acceptsGzip("deflate, gzip"));
+        assertTrue(CompressionFilter.acceptsGzip("gzip;q=0.5"));
+        assertFalse(CompressionFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(CompressionFilter.acceptsGzip("br"));
+        assertFalse(CompressionFilter.acceptsGzip(null));
+    }
+}
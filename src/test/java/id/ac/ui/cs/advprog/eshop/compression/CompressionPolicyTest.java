@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.eshop.compression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionPolicyTest {
+
+    @Test
+    void level_ignoresParametersAndCase() {
+        CompressionPolicy policy = new CompressionPolicy(Map.of("text/html", 4, "Text/CSV", 6), 0);
+
+        assertEquals(4, policy.level("text/html;charset=UTF-8"));
+        assertEquals(6, policy.level("text/csv"));
+        assertEquals(CompressionPolicy.NONE, policy.level("application/json"));
+        assertEquals(CompressionPolicy.NONE, policy.level(null));
+    }
+
+    @Test
+    void constructor_rejectsLevelOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new CompressionPolicy(Map.of("text/html", 0), 0));
+        assertThrows(IllegalArgumentException.class, () -> new CompressionPolicy(Map.of("text/html", 10), 0));
+        assertThrows(IllegalArgumentException.class, () -> new CompressionPolicy(Map.of(), -1));
+    }
+}
@@ -0,0 +1,48 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import id.ac.ui.cs.advprog.eshop.service.cache.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheStatsControllerTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private CarService carService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        CacheStatsController controller = new CacheStatsController(productService, carService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void cacheStats_reportsCountersOfBothServices() throws Exception {
+        when(productService.cacheStats()).thenReturn(new CacheStats(10, 2, 1, 5));
+        when(carService.cacheStats()).thenReturn(new CacheStats(0, 3, 0, 3));
+
+        mockMvc.perform(get("/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.hits").value(10))
+                .andExpect(jsonPath("$.products.misses").value(2))
+                .andExpect(jsonPath("$.products.evictions").value(1))
+                .andExpect(jsonPath("$.products.size").value(5))
+                .andExpect(jsonPath("$.cars.misses").value(3));
+    }
+}
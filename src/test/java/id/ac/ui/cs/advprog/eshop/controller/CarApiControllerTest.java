@@ -0,0 +1,137 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.EntityNotFoundException;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.importer.ImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarApiControllerTest {
+
+    @Mock
+    private CarService service;
+
+    @Mock
+    private ImportService importService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        CarApiController controller = new CarApiController(service, importService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void createAll_returnsCreatedCars() throws Exception {
+        Car car = new Car();
+        car.setId("car-1");
+        car.setCarName("Civic");
+        when(service.createAll(anyList())).thenReturn(List.of(car));
+
+        mockMvc.perform(post("/api/cars/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"carName\":\"Civic\",\"carColor\":\"Red\",\"carQuantity\":1}]"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].id").value("car-1"));
+    }
+
+    @Test
+    void updateAll_andDeleteAll_returnNoContent() throws Exception {
+        mockMvc.perform(put("/api/cars/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":\"car-1\",\"carName\":\"Civic\"}]"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/cars/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"car-1\"]"))
+                .andExpect(status().isNoContent());
+
+        verify(service).updateAll(anyList());
+        verify(service).deleteAllById(List.of("car-1"));
+    }
+
+    @Test
+    void updateAll_missingCar_returnsNotFound() throws Exception {
+        doThrow(new EntityNotFoundException("missing")).when(service).updateAll(anyList());
+
+        mockMvc.perform(put("/api/cars/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":\"car-1\",\"carName\":\"Civic\"},{\"id\":\"missing\"}]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findAll_streamsJsonArray() throws Exception {
+        Car car = new Car();
+        car.setId("car-1");
+        car.setCarName("Civic");
+        when(service.streamAll()).thenAnswer(invocation -> Stream.of(car));
+
+        MvcResult result = mockMvc.perform(get("/api/cars"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].carName").value("Civic"));
+    }
+
+    @Test
+    void findById_missing_returnsNotFound() throws Exception {
+        when(service.findById("missing")).thenThrow(new IllegalArgumentException("not found"));
+
+        mockMvc.perform(get("/api/cars/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void update_missing_returnsNotFound() throws Exception {
+        doThrow(new EntityNotFoundException("missing")).when(service).update(eq("missing"), any(Car.class));
+
+        mockMvc.perform(put("/api/cars/missing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"carName\":\"Civic\",\"carColor\":\"Red\",\"carQuantity\":1}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void create_ignoresIdInBody() throws Exception {
+        when(service.create(any(Car.class))).thenAnswer(invocation -> {
+            Car car = invocation.getArgument(0);
+            assertNull(car.getId());
+            car.setId("car-new");
+            return car;
+        });
+
+        mockMvc.perform(post("/api/cars")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":\"car-1\",\"carName\":\"Civic\",\"carQuantity\":1}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("car-new"));
+    }
+}
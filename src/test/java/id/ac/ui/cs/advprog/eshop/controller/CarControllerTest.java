@@ -1,6 +1,7 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.service.CarService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,7 +12,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.car;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -28,19 +31,10 @@ class CarControllerTest {
 
     @BeforeEach
     void setUp() {
-        CarController controller = new CarController(service);
+        CarController controller = new CarController(service, TestTemplates.ENGINE);
         mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
     }
 
-    private static Car car(String id, String name, String color, int qty) {
-        Car c = new Car();
-        c.setId(id);
-        c.setCarName(name);
-        c.setCarColor(color);
-        c.setCarQuantity(qty);
-        return c;
-    }
-
     @Test
     void getCreateCar_returnsView() throws Exception {
         mockMvc.perform(get("/car/createCar"))
@@ -65,14 +59,40 @@ class CarControllerTest {
 
     @Test
     void getListCar_returnsView() throws Exception {
-        when(service.findAll()).thenReturn(List.of(car("c1", "A", "Red", 1)));
+        List<Car> items = List.of(car("c1", "A", "Red", 1));
+        when(service.findPage(null, 50)).thenReturn(new Page<>(items, null));
 
         mockMvc.perform(get("/car/listCar"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("CarList"))
-                .andExpect(model().attributeExists("cars"));
+                .andExpect(model().attributeExists("cars"))
+                .andExpect(model().attribute("rows", ListRows.cars(TestTemplates.ENGINE).apply(items.get(0))));
+
+        verify(service).findPage(null, 50);
+    }
+
+    @Test
+    void getListCar_withCursorAndSize_requestsThatPage() throws Exception {
+        when(service.findPage("3", 10)).thenReturn(new Page<>(List.of(car("c4", "A", "Red", 1)), "4"));
+
+        mockMvc.perform(get("/car/listCar").param("cursor", "3").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("CarList"))
+                .andExpect(model().attribute("nextCursor", "4"));
 
-        verify(service).findAll();
+        verify(service).findPage("3", 10);
+    }
+
+    @Test
+    void getListCar_unchangedCatalog_returnsNotModifiedBeforeRendering() throws Exception {
+        when(service.version()).thenReturn(5L);
+
+        mockMvc.perform(get("/car/listCar").header("If-None-Match", VersionETag.of(5, "")))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(service).version();
+        verifyNoMoreInteractions(service);
     }
 
     @Test
@@ -84,9 +104,31 @@ class CarControllerTest {
                 .andExpect(view().name("EditCar"))
                 .andExpect(model().attributeExists("car"));
 
+        verify(service).version("c1");
         verify(service).findById("c1");
     }
 
+    @Test
+    void getEditCar_unchangedCar_returnsNotModified() throws Exception {
+        when(service.version("c1")).thenReturn(5L);
+
+        mockMvc.perform(get("/car/editCar/c1").header("If-None-Match", VersionETag.of(5, "")))
+                .andExpect(status().isNotModified());
+
+        verify(service).version("c1");
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void getEditCar_hotCar_isRenderedWithoutETag() throws Exception {
+        when(service.version("c1")).thenReturn(-1L);
+        when(service.findById("c1")).thenReturn(car("c1", "A", "Red", 1));
+
+        mockMvc.perform(get("/car/editCar/c1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
     @Test
     void postEditCar_redirectsList_andCallsUpdate() throws Exception {
         mockMvc.perform(post("/car/editCar")
@@ -108,4 +150,28 @@ class CarControllerTest {
 
         verify(service).deleteById("c1");
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSearch_rendersMatchingCars() throws Exception {
+        when(service.search("red", 50)).thenReturn(List.of(car("c1", "A", "Red", 1)));
+
+        mockMvc.perform(get("/car/search").param("q", "red"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("CarList"))
+                .andExpect(model().attribute("query", "red"));
+
+        verify(service).search("red", 50);
+    }
+
+    @Test
+    void getExport_streamsCarsAsCsv() throws Exception {
+        when(service.version()).thenReturn(2L);
+        when(service.streamAll()).thenAnswer(invocation -> Stream.of(car("c1", "A", "Red", 1)));
+
+        mockMvc.perform(get("/car/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", VersionETag.of(2, "csv")))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"cars.csv\""))
+                .andExpect(content().string("id,carName,carColor,carQuantity\r\nc1,A,Red,1\r\n"));
+    }
+}
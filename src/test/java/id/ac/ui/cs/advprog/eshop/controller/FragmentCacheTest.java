@@ -0,0 +1,95 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FragmentCacheTest {
+
+    private static Function<Product, String> counting(AtomicInteger renders) {
+        return product -> {
+            renders.incrementAndGet();
+            return "<" + product.getProductName() + ">";
+        };
+    }
+
+    @Test
+    void render_reusesRowsOfTheSameInstances() {
+        FragmentCache<Product> fragments = new FragmentCache<>(10);
+        AtomicInteger renders = new AtomicInteger();
+        Function<Product, String> renderer = counting(renders);
+        Product a = product("a", "A", 0);
+        Product b = product("b", "B", 0);
+
+        assertEquals("<A><B>", fragments.render(List.of(a, b), renderer));
+        assertEquals("<B><A>", fragments.render(List.of(b, a), renderer));
+
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void render_sameListIsServedWhole() {
+        FragmentCache<Product> fragments = new FragmentCache<>(10);
+        AtomicInteger renders = new AtomicInteger();
+        Function<Product, String> renderer = counting(renders);
+        List<Product> items = List.of(product("a", "A", 0));
+
+        String first = fragments.render(items, renderer);
+
+        assertSame(first, fragments.render(items, renderer));
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void render_newInstanceIsRenderedAgain() {
+        FragmentCache<Product> fragments = new FragmentCache<>(10);
+        AtomicInteger renders = new AtomicInteger();
+        Function<Product, String> renderer = counting(renders);
+        fragments.render(List.of(product("a", "A", 0)), renderer);
+
+        assertEquals("<A2>", fragments.render(List.of(product("a", "A2", 0)), renderer));
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void render_editedEntityReplacesItsRowOnly() {
+        FragmentCache<Product> fragments = new FragmentCache<>(10);
+        AtomicInteger renders = new AtomicInteger();
+        Function<Product, String> renderer = counting(renders);
+        Product b = product("b", "B", 0);
+        fragments.render(List.of(product("a", "A", 0), b), renderer);
+
+        assertEquals("<A2><B>", fragments.render(List.of(product("a", "A2", 0), b), renderer));
+        assertEquals(3, renders.get());
+        assertEquals(2, fragments.size());
+    }
+
+    @Test
+    void render_fullCacheIsEmptiedForNewRows() {
+        FragmentCache<Product> fragments = new FragmentCache<>(2);
+        AtomicInteger renders = new AtomicInteger();
+        Function<Product, String> renderer = counting(renders);
+        Product a = product("a", "A", 0);
+        Product b = product("b", "B", 0);
+        Product c = product("c", "C", 0);
+
+        fragments.render(List.of(a, b), renderer);
+        fragments.render(List.of(c), renderer);
+        assertEquals(1, fragments.size());
+        fragments.render(List.of(c, a), renderer);
+
+        assertEquals(4, renders.get());
+        assertEquals(2, fragments.size());
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new FragmentCache<Product>(0));
+    }
+}
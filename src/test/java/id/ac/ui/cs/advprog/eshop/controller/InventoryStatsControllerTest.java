@@ -0,0 +1,60 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.repository.stats.InventoryStats;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryStatsControllerTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private CarService carService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        InventoryStatsController controller = new InventoryStatsController(productService, carService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void inventoryStats_reportsFiguresOfBothServices() throws Exception {
+        when(productService.inventoryStats(5)).thenReturn(new InventoryStats(3, 42, 5, 1, Map.of()));
+        when(carService.inventoryStats(5)).thenReturn(new InventoryStats(2, 7, 5, 1, Map.of("Red", 4L, "Blue", 3L)));
+
+        mockMvc.perform(get("/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.entities").value(3))
+                .andExpect(jsonPath("$.products.totalQuantity").value(42))
+                .andExpect(jsonPath("$.products.lowStock").value(1))
+                .andExpect(jsonPath("$.cars.lowStockBelow").value(5))
+                .andExpect(jsonPath("$.cars.quantityByGroup.Red").value(4));
+    }
+
+    @Test
+    void inventoryStats_passesLowStockThreshold() throws Exception {
+        when(productService.inventoryStats(20)).thenReturn(new InventoryStats(0, 0, 20, 0, Map.of()));
+        when(carService.inventoryStats(20)).thenReturn(new InventoryStats(1, 10, 20, 1, Map.of("Red", 10L)));
+
+        mockMvc.perform(get("/stats").param("lowStockBelow", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cars.lowStock").value(1));
+    }
+}
@@ -0,0 +1,35 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.metrics.MetricsRegistry;
+import id.ac.ui.cs.advprog.eshop.metrics.OperationTimer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class MetricsControllerTest {
+
+    private MetricsRegistry registry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricsRegistry();
+        mockMvc = MockMvcBuilders.standaloneSetup(new MetricsController(registry)).build();
+    }
+
+    @Test
+    void metrics_servesPrometheusText() throws Exception {
+        OperationTimer.stop(registry.timer("service", "ProductServiceImpl.findAll", 1).start());
+
+        mockMvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andExpect(content().string(containsString(
+                        "eshop_operation_calls_total{layer=\"service\",operation=\"ProductServiceImpl.findAll\"} 1")));
+    }
+}
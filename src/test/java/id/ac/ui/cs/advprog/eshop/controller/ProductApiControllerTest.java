@@ -0,0 +1,288 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.EntityNotFoundException;
+import id.ac.ui.cs.advprog.eshop.repository.InsufficientStockException;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import id.ac.ui.cs.advprog.eshop.service.importer.ImportReport;
+import id.ac.ui.cs.advprog.eshop.service.importer.ImportService;
+import id.ac.ui.cs.advprog.eshop.service.importer.RecordFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductApiControllerTest {
+
+    @Mock
+    private ProductService service;
+
+    @Mock
+    private ImportService importService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ProductApiController controller = new ProductApiController(service, importService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createAll_bindsJsonArray_andReturnsCreatedProducts() throws Exception {
+        when(service.createAll(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            products.forEach(product -> product.setId("id-" + product.getProductName()));
+            return products;
+        });
+
+        mockMvc.perform(post("/api/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"productName\":\"A\",\"productQuantity\":1},"
+                                + "{\"productName\":\"B\",\"productQuantity\":2}]"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value("id-B"))
+                .andExpect(jsonPath("$[1].productQuantity").value(2));
+
+        ArgumentCaptor<List<Product>> captor = ArgumentCaptor.forClass(List.class);
+        verify(service).createAll(captor.capture());
+        assertEquals("A", captor.getValue().get(0).getProductName());
+    }
+
+    @Test
+    void updateAll_returnsNoContent() throws Exception {
+        mockMvc.perform(put("/api/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":\"id-1\",\"productName\":\"A\",\"productQuantity\":5}]"))
+                .andExpect(status().isNoContent());
+
+        verify(service).updateAll(anyList());
+    }
+
+    @Test
+    void deleteAll_passesIds() throws Exception {
+        mockMvc.perform(delete("/api/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"id-1\",\"id-2\"]"))
+                .andExpect(status().isNoContent());
+
+        verify(service).deleteAllById(List.of("id-1", "id-2"));
+    }
+
+    @Test
+    void invalidBatch_returnsBadRequestWithMessage() throws Exception {
+        doThrow(new IllegalArgumentException("Entity with Id x was not found."))
+                .when(service).updateAll(anyList());
+
+        mockMvc.perform(put("/api/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":\"x\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Entity with Id x was not found."));
+    }
+
+    @Test
+    void importProducts_streamsCsvBody_andReturnsReport() throws Exception {
+        ImportReport report = new ImportReport(3, 2, 1, 5, 600.0,
+                List.of(new ImportReport.Rejection(2, "Missing productName.")));
+        when(importService.importProducts(any(), eq(RecordFormat.CSV))).thenReturn(report);
+
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("text/csv")
+                        .content("productName,productQuantity\nA,1\n,2\nB,3\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejections[0].row").value(2));
+    }
+
+    @Test
+    void importProducts_unsupportedContentType_isRejected() throws Exception {
+        mockMvc.perform(post("/api/products/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(importService);
+    }
+
+    @Test
+    void findAll_streamsJsonArray() throws Exception {
+        when(service.streamAll())
+                .thenAnswer(invocation -> Stream.of(product("id-1", "A", 1), product("id-2", "B", 2)));
+
+        MvcResult result = mockMvc.perform(get("/api/products"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].productName").value("B"));
+        verify(service, never()).findAll();
+    }
+
+    @Test
+    void findAll_streamsNdjsonWhenAccepted() throws Exception {
+        when(service.streamAll())
+                .thenAnswer(invocation -> Stream.of(product("id-1", "A", 1), product("id-2", "B", 2)));
+
+        MvcResult result = mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":\"id-1\",\"productName\":\"A\",\"productQuantity\":1}\n"
+                        + "{\"id\":\"id-2\",\"productName\":\"B\",\"productQuantity\":2}\n"));
+    }
+
+    @Test
+    void findPage_clampsSize() throws Exception {
+        when(service.findPage("c", ProductController.MAX_PAGE_SIZE))
+                .thenReturn(new Page<>(List.of(product("id-1", "A", 1)), "next"));
+
+        mockMvc.perform(get("/api/products/page").param("cursor", "c").param("size", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("id-1"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void search_returnsMatches() throws Exception {
+        when(service.search("a", 50)).thenReturn(List.of(product("id-1", "A", 1)));
+
+        mockMvc.perform(get("/api/products/search").param("q", "a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productName").value("A"));
+    }
+
+    @Test
+    void findById_returnsProductOrNotFound() throws Exception {
+        when(service.findById("id-1")).thenReturn(product("id-1", "A", 1));
+        when(service.findById("missing")).thenThrow(new IllegalArgumentException("not found"));
+
+        mockMvc.perform(get("/api/products/id-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productQuantity").value(1));
+        mockMvc.perform(get("/api/products/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void create_returnsCreatedProduct() throws Exception {
+        when(service.create(any())).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            product.setId("id-1");
+            return product;
+        });
+
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\":\"A\",\"productQuantity\":1}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("id-1"));
+    }
+
+    @Test
+    void update_usesPathId() throws Exception {
+        mockMvc.perform(put("/api/products/id-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\":\"A\",\"productQuantity\":3}"))
+                .andExpect(status().isNoContent());
+
+        ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
+        verify(service).update(eq("id-1"), captor.capture());
+        assertEquals("id-1", captor.getValue().getId());
+    }
+
+    @Test
+    void update_missing_returnsNotFound() throws Exception {
+        doThrow(new EntityNotFoundException("missing")).when(service).update(eq("missing"), any(Product.class));
+
+        mockMvc.perform(put("/api/products/missing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\":\"A\",\"productQuantity\":3}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void create_ignoresIdInBody() throws Exception {
+        when(service.create(any())).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            assertNull(product.getId());
+            product.setId("id-new");
+            return product;
+        });
+
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":\"id-1\",\"productName\":\"A\",\"productQuantity\":1}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("id-new"));
+    }
+
+    @Test
+    void delete_returnsNoContent() throws Exception {
+        mockMvc.perform(delete("/api/products/id-1"))
+                .andExpect(status().isNoContent());
+
+        verify(service).deleteById("id-1");
+    }
+
+    @Test
+    void reserve_returnsUpdatedProduct_orConflictWhenOutOfStock() throws Exception {
+        Product product = new Product();
+        product.setId("id-1");
+        product.setProductQuantity(4);
+        when(service.reserve("id-1", 1)).thenReturn(product);
+        when(service.reserve("id-1", 9)).thenThrow(new InsufficientStockException("id-1", 4, 9));
+
+        mockMvc.perform(post("/api/products/id-1/reserve").param("quantity", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productQuantity").value(4));
+        mockMvc.perform(post("/api/products/id-1/reserve").param("quantity", "9"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void adjustQuantity_passesSignedDelta() throws Exception {
+        Product product = new Product();
+        product.setId("id-1");
+        when(service.adjustQuantity("id-1", -2)).thenReturn(product);
+
+        mockMvc.perform(post("/api/products/id-1/quantity").param("delta", "-2"))
+                .andExpect(status().isOk());
+        verify(service).adjustQuantity("id-1", -2);
+    }
+}
@@ -1,5 +1,6 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import id.ac.ui.cs.advprog.eshop.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,10 +9,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -28,18 +39,10 @@ class ProductControllerTest {
 
     @BeforeEach
     void setUp() {
-        ProductController controller = new ProductController(service);
+        ProductController controller = new ProductController(service, TestTemplates.ENGINE);
         mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
     }
 
-    private static Product product(String id, String name, int qty) {
-        Product p = new Product();
-        p.setId(id);
-        p.setProductName(name);
-        p.setProductQuantity(qty);
-        return p;
-    }
-
     @Test
     void getCreate_returnsCreateView_andHasProductModel() throws Exception {
         mockMvc.perform(get("/product/create"))
@@ -63,18 +66,109 @@ class ProductControllerTest {
     }
 
     @Test
-    void getList_returnsListView_andAddsProducts() throws Exception {
-        when(service.findAll()).thenReturn(List.of(product("id-1", "A", 1)));
+    void getList_returnsListView_andAddsFirstPage() throws Exception {
+        List<Product> items = List.of(product("id-1", "A", 1));
+        when(service.findPage(null, 50)).thenReturn(new Page<>(items, "7"));
 
         mockMvc.perform(get("/product/list"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("ProductList"))
-                .andExpect(model().attributeExists("products"));
+                .andExpect(model().attributeExists("products"))
+                .andExpect(model().attribute("rows", ListRows.products(TestTemplates.ENGINE).apply(items.get(0))))
+                .andExpect(model().attribute("nextCursor", "7"))
+                .andExpect(model().attribute("pageSize", 50));
+
+        verify(service, times(1)).version();
+        verify(service, times(1)).findPage(null, 50);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void getList_rendersRowsFromTheTemplate_escapingProductValues() throws Exception {
+        List<Product> items = List.of(product("a b&c", "<b>Sampo</b>", 1));
+        when(service.findPage(null, 50)).thenReturn(new Page<>(items, null));
+
+        MvcResult result = mockMvc.perform(get("/product/list")).andReturn();
+
+        String rows = (String) result.getModelAndView().getModel().get("rows");
+        assertTrue(rows.contains("<td>&lt;b&gt;Sampo&lt;/b&gt;</td>"));
+        assertTrue(rows.contains("href=\"edit?id=a%20b%26c\""));
+        assertFalse(rows.contains("<b>"));
+        assertFalse(rows.contains("th:"));
+    }
+
+    @Test
+    void getList_withCursor_passesCursorAndClampsSize() throws Exception {
+        when(service.findPage("7", ProductController.MAX_PAGE_SIZE)).thenReturn(new Page<>(List.of(), null));
+
+        mockMvc.perform(get("/product/list").param("cursor", "7").param("size", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("ProductList"))
+                .andExpect(model().attribute("nextCursor", (Object) null))
+                .andExpect(model().attribute("rows", ""));
+
+        verify(service, times(1)).version();
+        verify(service, times(1)).findPage("7", ProductController.MAX_PAGE_SIZE);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void getList_invalidCursor_redirectsToFirstPage() throws Exception {
+        when(service.findPage("bad", 50)).thenThrow(new IllegalArgumentException("Invalid page cursor bad."));
+
+        mockMvc.perform(get("/product/list").param("cursor", "bad"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("list"));
+    }
+
+    @Test
+    void getList_unchangedCatalog_returnsNotModifiedBeforeRendering() throws Exception {
+        when(service.version()).thenReturn(3L);
+
+        MvcResult result = mockMvc.perform(get("/product/list").header("If-None-Match", VersionETag.of(3, "")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", VersionETag.of(3, "")))
+                .andExpect(content().string(""))
+                .andReturn();
 
-        verify(service, times(1)).findAll();
+        assertNull(result.getModelAndView());
+        verify(service, times(1)).version();
         verifyNoMoreInteractions(service);
     }
 
+    @Test
+    void getList_changedCatalog_rendersWithNewEtag() throws Exception {
+        when(service.version()).thenReturn(4L);
+        when(service.findPage(null, 50)).thenReturn(new Page<>(List.of(), null));
+
+        mockMvc.perform(get("/product/list").header("If-None-Match", VersionETag.of(3, "")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", VersionETag.of(4, "")))
+                .andExpect(view().name("ProductList"));
+    }
+
+    @Test
+    void getEdit_unchangedCatalog_returnsNotModified() throws Exception {
+        when(service.version("id-1")).thenReturn(3L);
+
+        mockMvc.perform(get("/product/edit").param("id", "id-1").header("If-None-Match", VersionETag.of(3, "")))
+                .andExpect(status().isNotModified());
+
+        verify(service, times(1)).version("id-1");
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void getEdit_hotProduct_isRenderedWithoutETag() throws Exception {
+        when(service.version("id-1")).thenReturn(-1L);
+        when(service.findById("id-1")).thenReturn(product("id-1", "A", 1));
+
+        mockMvc.perform(get("/product/edit").param("id", "id-1").header("If-None-Match", VersionETag.of(-1, "")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(view().name("EditProduct"));
+    }
+
     @Test
     void getEdit_success_returnsEditView_andAddsProduct() throws Exception {
         when(service.findById("id-1")).thenReturn(product("id-1", "A", 1));
@@ -84,6 +178,7 @@ class ProductControllerTest {
                 .andExpect(view().name("EditProduct"))
                 .andExpect(model().attributeExists("product"));
 
+        verify(service, times(1)).version("id-1");
         verify(service, times(1)).findById("id-1");
         verifyNoMoreInteractions(service);
     }
@@ -96,6 +191,7 @@ class ProductControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("list"));
 
+        verify(service, times(1)).version("missing");
         verify(service, times(1)).findById("missing");
         verifyNoMoreInteractions(service);
     }
@@ -138,4 +234,110 @@ class ProductControllerTest {
         verify(service, never()).deleteById(anyString());
         verifyNoMoreInteractions(service);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSearch_rendersMatchingProducts() throws Exception {
+        when(service.search("samp", 50)).thenReturn(List.of(product("id-1", "Sampo", 1)));
+
+        mockMvc.perform(get("/product/search").param("q", "samp"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("ProductList"))
+                .andExpect(model().attributeExists("products"))
+                .andExpect(model().attribute("query", "samp"))
+                .andExpect(model().attribute("rows",
+                        ListRows.products(TestTemplates.ENGINE).apply(product("id-1", "Sampo", 1))));
+
+        verify(service, times(1)).version();
+        verify(service, times(1)).search("samp", 50);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void getExport_streamsCsvWithVersionEtag() throws Exception {
+        when(service.version()).thenReturn(7L);
+        when(service.streamAll()).thenAnswer(invocation -> Stream.of(product("id-1", "Sampo, Cap", 3)));
+
+        mockMvc.perform(get("/product/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", VersionETag.of(7, "csv")))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+                .andExpect(content().string("id,productName,productQuantity\r\nid-1,\"Sampo, Cap\",3\r\n"));
+    }
+
+    @Test
+    void getExport_ndjson_gzipWhenAccepted() throws Exception {
+        when(service.version()).thenReturn(7L);
+        when(service.streamAll()).thenAnswer(invocation -> Stream.of(product("id-1", "Sampo", 3)));
+
+        byte[] body = mockMvc.perform(get("/product/export").param("format", "ndjson")
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("ETag", VersionETag.of(7, "ndjson-gzip")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String ndjson = new String(new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertEquals("{\"id\":\"id-1\",\"productName\":\"Sampo\",\"productQuantity\":3}\n", ndjson);
+    }
+
+    @Test
+    void getExport_range_returnsPartialContent() throws Exception {
+        when(service.version()).thenReturn(7L);
+        when(service.streamAll()).thenAnswer(invocation -> Stream.of(product("id-1", "Sampo", 3)));
+
+        mockMvc.perform(get("/product/export")
+                        .header("Range", "bytes=32-")
+                        .header("If-Range", VersionETag.of(7, "csv")))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 32-45/46"))
+                .andExpect(content().string("id-1,Sampo,3\r\n"));
+    }
+
+    @Test
+    void getExport_resumedAgain_reusesTheKnownLength() throws Exception {
+        when(service.version()).thenReturn(7L);
+        when(service.streamAll()).thenAnswer(invocation -> Stream.of(product("id-1", "Sampo", 3)));
+
+        mockMvc.perform(get("/product/export"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/product/export")
+                        .header("Range", "bytes=32-")
+                        .header("If-Range", VersionETag.of(7, "csv")))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 32-45/46"))
+                .andExpect(content().string("id-1,Sampo,3\r\n"));
+
+        // The full export gave the length, so the range needed no counting pass
+        verify(service, times(2)).streamAll();
+    }
+
+    @Test
+    void getExport_rangeWithStaleIfRange_returnsFullExport() throws Exception {
+        when(service.version()).thenReturn(8L);
+        when(service.streamAll()).thenAnswer(invocation -> Stream.of(product("id-1", "Sampo", 3)));
+
+        mockMvc.perform(get("/product/export")
+                        .header("Range", "bytes=32-")
+                        .header("If-Range", VersionETag.of(7, "csv")))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,productName,productQuantity\r\nid-1,Sampo,3\r\n"));
+    }
+
+    @Test
+    void getExport_rangePastEnd_returnsNotSatisfiable() throws Exception {
+        when(service.version()).thenReturn(7L);
+        when(service.streamAll()).thenAnswer(invocation -> Stream.of(product("id-1", "Sampo", 3)));
+
+        mockMvc.perform(get("/product/export").header("Range", "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */46"));
+    }
+
+    @Test
+    void getExport_unknownFormat_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/product/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
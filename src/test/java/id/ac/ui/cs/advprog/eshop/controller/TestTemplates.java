@@ -0,0 +1,26 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+/**
+ * A template engine over the application's templates, set up the way Spring Boot sets up its own,
+ * for controller tests that render rows without starting the application.
+ */
+final class TestTemplates {
+    static final ITemplateEngine ENGINE = engine();
+
+    private TestTemplates() {
+    }
+
+    private static ITemplateEngine engine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+}
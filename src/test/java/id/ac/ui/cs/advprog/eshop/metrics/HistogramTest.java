@@ -0,0 +1,66 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    @Test
+    void smallValues_areExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 50; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(50, histogram.count());
+        assertEquals(1275, histogram.sum());
+        assertEquals(50, histogram.max());
+        assertEquals(25, histogram.valueAtQuantile(0.5));
+        assertEquals(1, histogram.valueAtQuantile(0));
+        assertEquals(50, histogram.valueAtQuantile(1));
+    }
+
+    @Test
+    void quantiles_stayWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        Random random = new Random(7);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Spread over many powers of two, like latencies from microseconds to seconds
+            values[i] = (long) Math.exp(random.nextDouble() * 22);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[] {0.1, 0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            long reported = histogram.valueAtQuantile(quantile);
+            assertTrue(reported >= exact, quantile + ": " + reported + " < " + exact);
+            assertTrue(reported <= exact + exact / 32, quantile + ": " + reported + " too far above " + exact);
+        }
+        assertEquals(values[values.length - 1], histogram.max());
+    }
+
+    @Test
+    void outOfRangeValues_areClamped() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(2, histogram.count());
+        assertEquals(0, histogram.valueAtQuantile(0.5));
+        assertEquals(Histogram.MAX_VALUE, histogram.valueAtQuantile(1));
+    }
+
+    @Test
+    void emptyHistogram_reportsZero() {
+        Histogram histogram = new Histogram();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.valueAtQuantile(0.99));
+    }
+}
@@ -0,0 +1,96 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void timer_isSharedPerLayerAndOperation() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        OperationTimer timer = registry.timer("service", "ProductServiceImpl.findAll", 1);
+        assertSame(timer, registry.timer("service", "ProductServiceImpl.findAll", 64));
+        assertNotSame(timer, registry.timer("repository", "ProductServiceImpl.findAll", 1));
+    }
+
+    @Test
+    void sampledTimer_countsEveryCallButMeasuresSome() {
+        MetricsRegistry registry = new MetricsRegistry();
+        OperationTimer timer = registry.timer("repository", "op", 16);
+
+        for (int i = 0; i < 16_000; i++) {
+            OperationTimer.stop(timer.start());
+        }
+
+        assertEquals(16_000, timer.calls());
+        long measured = timer.latency().count();
+        assertTrue(measured > 500 && measured < 1_500, "measured " + measured);
+    }
+
+    @Test
+    void disabledTimer_measuresNothing() {
+        OperationTimer timer = OperationTimer.disabled();
+
+        assertNull(timer.start());
+        assertEquals(0, timer.calls());
+    }
+
+    @Test
+    void scrape_rendersPrometheusText() {
+        MetricsRegistry registry = new MetricsRegistry();
+        OperationTimer timer = registry.timer("controller", "ProductController.productListPage", 1);
+        for (int i = 0; i < 3; i++) {
+            OperationTimer.stop(timer.start());
+        }
+
+        String text = registry.scrape();
+        String labels = "{layer=\"controller\",operation=\"ProductController.productListPage\"";
+
+        assertTrue(text.contains("# TYPE eshop_operation_calls_total counter\n"));
+        assertTrue(text.contains("eshop_operation_calls_total" + labels + "} 3\n"));
+        assertTrue(text.contains("# TYPE eshop_operation_seconds summary\n"));
+        assertTrue(text.contains("eshop_operation_seconds" + labels + ",quantile=\"0.99\"} "));
+        assertTrue(text.contains("eshop_operation_seconds_count" + labels + "} 3\n"));
+        assertTrue(text.contains("# TYPE eshop_operation_allocated_bytes summary\n"));
+        for (String line : text.split("\n")) {
+            assertTrue(line.startsWith("# ") || line.matches("eshop_\\w+\\{[^}]*} [0-9.]+"), line);
+        }
+    }
+
+    @Test
+    void scrape_omitsAllocationNeverMeasured() throws InterruptedException {
+        MetricsRegistry registry = new MetricsRegistry();
+        OperationTimer platform = registry.timer("service", "platform", 1);
+        OperationTimer virtual = registry.timer("controller", "virtual", 1);
+        OperationTimer.stop(platform.start());
+        Thread.ofVirtual().start(() -> OperationTimer.stop(virtual.start())).join();
+
+        String text = registry.scrape();
+
+        assertEquals(1, virtual.latency().count());
+        assertTrue(text.contains("eshop_operation_seconds_count{layer=\"controller\",operation=\"virtual\"} 1\n"));
+        assertFalse(text.contains("eshop_operation_allocated_bytes_count{layer=\"controller\""));
+        assertTrue(text.contains("eshop_operation_allocated_bytes_count{layer=\"service\",operation=\"platform\"} 1\n"));
+    }
+
+    @Test
+    void repository_timesItsOperations() {
+        MetricsRegistry registry = new MetricsRegistry();
+        ProductRepository repository = new ProductRepository();
+        repository.setMetrics(registry, 1);
+        Product product = new Product();
+        product.setProductName("Sampo");
+        product.setProductQuantity(2);
+
+        repository.create(product);
+        repository.findById(product.getId());
+        repository.findById(product.getId());
+
+        assertEquals(1, registry.timer("repository", "ProductRepository.create", 1).latency().count());
+        assertEquals(2, registry.timer("repository", "ProductRepository.findById", 1).calls());
+    }
+}
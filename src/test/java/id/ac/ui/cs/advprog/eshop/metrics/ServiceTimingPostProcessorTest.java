@@ -0,0 +1,66 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceTimingPostProcessorTest {
+
+    interface Greeter {
+        String greet(String name);
+    }
+
+    @Service
+    static class GreeterImpl implements Greeter {
+        @Override
+        public String greet(String name) {
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("No name.");
+            }
+            return "Hello " + name;
+        }
+    }
+
+    @Service
+    static class NoInterface {
+    }
+
+    static class NotAService implements Supplier<String> {
+        @Override
+        public String get() {
+            return "";
+        }
+    }
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final ServiceTimingPostProcessor processor = new ServiceTimingPostProcessor(registry, 1);
+
+    @Test
+    void service_isProxiedAndTimed() {
+        Greeter greeter = (Greeter) processor.postProcessAfterInitialization(new GreeterImpl(), "greeter");
+
+        assertEquals("Hello Ann", greeter.greet("Ann"));
+        assertEquals(1, registry.timer("service", "GreeterImpl.greet", 1).latency().count());
+    }
+
+    @Test
+    void serviceException_isRethrownUnwrapped() {
+        Greeter greeter = (Greeter) processor.postProcessAfterInitialization(new GreeterImpl(), "greeter");
+
+        assertThrows(IllegalArgumentException.class, () -> greeter.greet(""));
+        assertEquals(1, registry.timer("service", "GreeterImpl.greet", 1).calls());
+    }
+
+    @Test
+    void otherBeans_areLeftAlone() {
+        NoInterface noInterface = new NoInterface();
+        NotAService notAService = new NotAService();
+
+        assertSame(noInterface, processor.postProcessAfterInitialization(noInterface, "noInterface"));
+        assertSame(notAService, processor.postProcessAfterInitialization(notAService, "notAService"));
+        assertTrue(registry.timers().isEmpty());
+    }
+}
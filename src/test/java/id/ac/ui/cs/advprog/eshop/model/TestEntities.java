@@ -0,0 +1,26 @@
+package id.ac.ui.cs.advprog.eshop.model;
+
+/**
+ * Entities for tests, built in one call.
+ */
+public final class TestEntities {
+    private TestEntities() {
+    }
+
+    public static Product product(String id, String name, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    public static Car car(String id, String name, String color, int quantity) {
+        Car car = new Car();
+        car.setId(id);
+        car.setCarName(name);
+        car.setCarColor(color);
+        car.setCarQuantity(quantity);
+        return car;
+    }
+}
@@ -0,0 +1,285 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaseRepositoryConcurrencyTest {
+    private static final int THREADS = 32;
+    private static final int PRODUCTS_PER_THREAD = 2_000;
+
+    @Test
+    void concurrentCreateUpdateDeleteAndFindAll_keepRepositoryConsistent() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < PRODUCTS_PER_THREAD; i++) {
+                    String id = thread + "-" + i;
+                    repository.create(product(id, "P", i));
+                    repository.update(id, product(id, "P", i + 1));
+                    if (i % 2 == 1) {
+                        repository.delete(id);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(pool.submit(() -> {
+                start.await();
+                while (!writers.stream().allMatch(Future::isDone)) {
+                    Iterator<Product> it = repository.findAll();
+                    while (it.hasNext()) {
+                        assertNotNull(it.next().getId());
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : writers) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        for (Future<?> future : readers) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int count = 0;
+        Iterator<Product> it = repository.findAll();
+        while (it.hasNext()) {
+            Product product = it.next();
+            assertSame(product, repository.findById(product.getId()));
+            count++;
+        }
+        assertEquals(THREADS * PRODUCTS_PER_THREAD / 2, count);
+        assertEquals(1, repository.findById("0-0").getProductQuantity());
+        assertThrows(IllegalArgumentException.class, () -> repository.findById("0-1"));
+    }
+
+    @Test
+    void findAll_iteratorIsNotAffectedByLaterCreates() {
+        ProductRepository repository = new ProductRepository();
+        repository.create(product("id-1", "P", 1));
+        repository.create(product("id-2", "P", 2));
+
+        Iterator<Product> it = repository.findAll();
+        repository.create(product("id-3", "P", 3));
+
+        assertEquals("id-1", it.next().getId());
+        assertEquals("id-2", it.next().getId());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    void update_keepsPositionInFindAll() {
+        ProductRepository repository = new ProductRepository();
+        repository.create(product("id-1", "P", 1));
+        repository.create(product("id-2", "P", 2));
+
+        repository.update("id-1", product("id-1", "P", 10));
+
+        Iterator<Product> it = repository.findAll();
+        Product first = it.next();
+        assertEquals("id-1", first.getId());
+        assertEquals(10, first.getProductQuantity());
+        assertEquals("id-2", it.next().getId());
+    }
+
+    @Test
+    void concurrentReservationsOfOneProduct_neverLoseOrOversell() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        int stock = THREADS * PRODUCTS_PER_THREAD / 2;
+        repository.create(product("hot", "P", stock));
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> buyers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            buyers.add(pool.submit(() -> {
+                start.await();
+                int sold = 0;
+                // Together the threads ask for twice the stock, so some reservations must fail
+                for (int i = 0; i < PRODUCTS_PER_THREAD; i++) {
+                    try {
+                        repository.reserve("hot", 1);
+                        sold++;
+                    } catch (InsufficientStockException e) {
+                        // Sold out
+                    }
+                }
+                return sold;
+            }));
+        }
+
+        start.countDown();
+        int sold = 0;
+        for (Future<Integer> buyer : buyers) {
+            sold += buyer.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(stock, sold);
+        assertEquals(0, repository.findById("hot").getProductQuantity());
+    }
+
+    @Test
+    void concurrentAdjustmentsOfOneProduct_areNotLost() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        repository.create(product("hot", "P", 0));
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < PRODUCTS_PER_THREAD; i++) {
+                    repository.adjustQuantity("hot", 2);
+                    repository.adjustQuantity("hot", -1);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(THREADS * PRODUCTS_PER_THREAD, repository.findById("hot").getProductQuantity());
+        assertEquals(THREADS * PRODUCTS_PER_THREAD, repository.inventoryStats(0).totalQuantity());
+    }
+
+    @Test
+    void concurrentReservationsOfHotProduct_sellExactlyTheStockWhileReconciling() throws Exception {
+        ProductRepository repository = new ProductRepository();
+        int stock = THREADS * PRODUCTS_PER_THREAD / 2;
+        repository.create(product("hot", "P", stock));
+        repository.markHot("hot");
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> buyers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            buyers.add(pool.submit(() -> {
+                start.await();
+                int sold = 0;
+                for (int i = 0; i < PRODUCTS_PER_THREAD; i++) {
+                    try {
+                        repository.reserve("hot", 1 + i % 3);
+                        sold += 1 + i % 3;
+                    } catch (InsufficientStockException e) {
+                        // Sold out, or not enough left for this order
+                    }
+                }
+                return sold;
+            }));
+        }
+        Future<?> reconciler = pool.submit(() -> {
+            start.await();
+            while (!buyers.stream().allMatch(Future::isDone)) {
+                repository.reconcileHotStock();
+                assertTrue(repository.findById("hot").getProductQuantity() >= 0);
+            }
+            return null;
+        });
+
+        start.countDown();
+        int sold = 0;
+        for (Future<Integer> buyer : buyers) {
+            sold += buyer.get(60, TimeUnit.SECONDS);
+        }
+        reconciler.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(stock, sold + repository.findById("hot").getProductQuantity());
+        assertTrue(sold > stock - 3);
+        repository.markCold("hot");
+        assertEquals(stock - sold, repository.findAll().next().getProductQuantity());
+        assertTrue(repository.hotIds().isEmpty());
+    }
+
+    @Test
+    void hotProduct_showsCurrentStockAndFollowsOverwritesAndDeletes() {
+        ProductRepository repository = new ProductRepository();
+        repository.create(product("hot", "P", 10));
+        repository.markHot("hot");
+
+        repository.reserve("hot", 4);
+        assertEquals(6, repository.findById("hot").getProductQuantity());
+        // Listings and aggregates catch up at reconciliation
+        assertEquals(10, repository.findAll().next().getProductQuantity());
+        repository.reconcileHotStock();
+        assertEquals(6, repository.findAll().next().getProductQuantity());
+        assertEquals(6, repository.inventoryStats(0).totalQuantity());
+
+        repository.update("hot", product("hot", "P", 50));
+        repository.adjustQuantity("hot", -50);
+        assertThrows(InsufficientStockException.class, () -> repository.reserve("hot", 1));
+        assertEquals(0, repository.findById("hot").getProductQuantity());
+
+        repository.delete("hot");
+        assertTrue(repository.hotIds().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> repository.reserve("hot", 1));
+    }
+
+    @Test
+    void reconcileHotStock_writesOnlyStockThatMoved() {
+        ProductRepository repository = new ProductRepository();
+        repository.create(product("hot", "P", 10));
+        repository.create(product("idle", "P", 10));
+        repository.markHot("hot");
+        repository.markHot("idle");
+        long version = repository.version();
+
+        assertEquals(Set.of(), repository.reconcileHotStock());
+        assertEquals(version, repository.version());
+
+        repository.reserve("hot", 4);
+        assertEquals(Set.of("hot"), repository.reconcileHotStock());
+        assertEquals(version + 1, repository.version());
+        assertEquals(Set.of(), repository.reconcileHotStock());
+        assertEquals(version + 1, repository.version());
+
+        // The reopened stock still sells
+        repository.reserve("idle", 10);
+        assertEquals(0, repository.findById("idle").getProductQuantity());
+        assertThrows(InsufficientStockException.class, () -> repository.reserve("idle", 1));
+    }
+
+    @Test
+    void versionOf_isUnknownWhileHot() {
+        ProductRepository repository = new ProductRepository();
+        repository.create(product("hot", "P", 10));
+        assertEquals(repository.version(), repository.versionOf("hot"));
+
+        repository.markHot("hot");
+        assertEquals(-1, repository.versionOf("hot"));
+
+        repository.markCold("hot");
+        assertEquals(repository.version(), repository.versionOf("hot"));
+    }
+}
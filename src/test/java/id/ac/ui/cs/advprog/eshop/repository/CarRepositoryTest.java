@@ -1,23 +1,39 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.junit.jupiter.MockitoExtension;
+import id.ac.ui.cs.advprog.eshop.repository.store.StorageLayout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@ExtendWith(MockitoExtension.class)
 class CarRepositoryTest {
 
-    @InjectMocks
+    @TempDir
+    Path directory;
+
     CarRepository carRepository;
 
-    @Test
-    void update_success_updatesFields() {
+    @AfterEach
+    void tearDown() throws IOException {
+        carRepository.close();
+    }
+
+    private void open(StorageLayout layout) {
+        carRepository = new CarRepository(layout, directory);
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void update_success_updatesFields(StorageLayout layout) {
+        open(layout);
         Car c = new Car();
         c.setId("c1");
         c.setCarName("Old");
@@ -39,8 +55,10 @@ class CarRepositoryTest {
         assertEquals(2, result.getCarQuantity());
     }
 
-    @Test
-    void update_notFound_returnsNull() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void update_notFound_returnsNull(StorageLayout layout) {
+        open(layout);
         Car updated = new Car();
         updated.setId("missing");
         updated.setCarName("X");
@@ -50,8 +68,10 @@ class CarRepositoryTest {
         assertNull(result);
     }
 
-    @Test
-    void inheritedCrud_create_find_delete_work() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void inheritedCrud_create_find_delete_work(StorageLayout layout) {
+        open(layout);
         Car c = new Car();
         c.setId("c1");
         c.setCarName("A");
@@ -63,4 +83,46 @@ class CarRepositoryTest {
         Iterator<Car> it = carRepository.findAll();
         assertFalse(it.hasNext());
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void updateAll_missingCar_failsWholeBatch(StorageLayout layout) {
+        open(layout);
+        Car existing = new Car();
+        existing.setId("car-1");
+        existing.setCarName("Old");
+        carRepository.create(existing);
+
+        Car update = new Car();
+        update.setId("car-1");
+        update.setCarName("New");
+        update.setCarColor("Blue");
+        Car missing = new Car();
+        missing.setId("missing");
+
+        assertThrows(EntityNotFoundException.class, () -> carRepository.updateAll(List.of(update, missing)));
+
+        assertEquals("Old", carRepository.findById("car-1").getCarName());
+        assertThrows(IllegalArgumentException.class, () -> carRepository.findById("missing"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void create_keepsColorsAndQuantities(StorageLayout layout) {
+        open(layout);
+        for (int i = 0; i < 100; i++) {
+            Car car = new Car();
+            car.setId("car-" + i);
+            car.setCarName("Car " + i);
+            car.setCarColor(i % 2 == 0 ? "Red" : null);
+            car.setCarQuantity(i);
+            carRepository.create(car);
+        }
+
+        Car odd = carRepository.findById("car-11");
+        assertEquals("Red", carRepository.findById("car-10").getCarColor());
+        assertNull(odd.getCarColor());
+        assertEquals("Car 11", odd.getCarName());
+        assertEquals(11, odd.getCarQuantity());
+    }
+}
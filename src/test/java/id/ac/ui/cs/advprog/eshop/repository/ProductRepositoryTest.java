@@ -1,28 +1,48 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.junit.jupiter.MockitoExtension;
-
+import id.ac.ui.cs.advprog.eshop.repository.store.StorageLayout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
-
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
 import static org.junit.jupiter.api.Assertions.*;
 
-@ExtendWith(MockitoExtension.class)
 class ProductRepositoryTest {
 
-    @InjectMocks
+    @TempDir
+    Path directory;
+
     ProductRepository productRepository;
 
-    @BeforeEach
-    void setUp() { }
+    @AfterEach
+    void tearDown() throws IOException {
+        productRepository.close();
+    }
+
+    private void open(StorageLayout layout) {
+        productRepository = new ProductRepository(layout, directory);
+    }
 
-    @Test
-    void testCreateAndFind() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testCreateAndFind(StorageLayout layout) {
+        open(layout);
         Product product = new Product();
         product.setId("id-1");
         product.setProductName("Sampo Cap Bambang");
@@ -37,14 +57,18 @@ class ProductRepositoryTest {
         assertEquals(product.getProductQuantity(), savedProduct.getProductQuantity());
     }
 
-    @Test
-    void testFindAllIfEmpty() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testFindAllIfEmpty(StorageLayout layout) {
+        open(layout);
         Iterator<Product> productIterator = productRepository.findAll();
         assertFalse(productIterator.hasNext());
     }
 
-    @Test
-    void testFindAllIfMoreThanOneProduct() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testFindAllIfMoreThanOneProduct(StorageLayout layout) {
+        open(layout);
         Product p1 = new Product(); p1.setId("id-1"); p1.setProductName("A"); p1.setProductQuantity(1);
         Product p2 = new Product(); p2.setId("id-2"); p2.setProductName("B"); p2.setProductQuantity(2);
         productRepository.create(p1);
@@ -57,8 +81,10 @@ class ProductRepositoryTest {
         assertFalse(it.hasNext());
     }
 
-    @Test
-    void testEditProduct() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testEditProduct(StorageLayout layout) {
+        open(layout);
         Product product = new Product();
         product.setId("id-1");
         product.setProductName("Old");
@@ -76,8 +102,10 @@ class ProductRepositoryTest {
         assertEquals(200, result.getProductQuantity());
     }
 
-    @Test
-    void testEditProductIfNotFound() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testEditProductIfNotFound(StorageLayout layout) {
+        open(layout);
         Product updated = new Product();
         updated.setId("missing");
         updated.setProductName("X");
@@ -90,8 +118,10 @@ class ProductRepositoryTest {
         assertEquals("Entity with Id missing was not found.", ex.getMessage());
     }
 
-    @Test
-    void testUpdate_throwsWhenUpdatedProductNull() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testUpdate_throwsWhenUpdatedProductNull(StorageLayout layout) {
+        open(layout);
         IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
                 () -> productRepository.update("id-1", null)
@@ -99,8 +129,10 @@ class ProductRepositoryTest {
         assertEquals("Product and Product Id must not be null.", ex.getMessage());
     }
 
-    @Test
-    void testUpdate_throwsWhenProductIdNull() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testUpdate_throwsWhenProductIdNull(StorageLayout layout) {
+        open(layout);
         Product updated = new Product();
         updated.setId(null);
         updated.setProductName("X");
@@ -113,8 +145,10 @@ class ProductRepositoryTest {
         assertEquals("Product and Product Id must not be null.", ex.getMessage());
     }
 
-    @Test
-    void testUpdate_throwsWhenProductIdMismatch() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testUpdate_throwsWhenProductIdMismatch(StorageLayout layout) {
+        open(layout);
         Product existing = new Product();
         existing.setId("id-1");
         existing.setProductName("A");
@@ -134,8 +168,10 @@ class ProductRepositoryTest {
         assertEquals("Product and Id must match", ex.getMessage());
     }
 
-    @Test
-    void testDeleteProduct() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testDeleteProduct(StorageLayout layout) {
+        open(layout);
         Product product = new Product();
         product.setId("id-1");
         product.setProductName("A");
@@ -147,8 +183,10 @@ class ProductRepositoryTest {
         assertFalse(productRepository.findAll().hasNext());
     }
 
-    @Test
-    void testDeleteProductIfNotFound() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testDeleteProductIfNotFound(StorageLayout layout) {
+        open(layout);
         Product product = new Product();
         product.setId("id-1");
         productRepository.create(product);
@@ -160,8 +198,29 @@ class ProductRepositoryTest {
         assertEquals("id-1", it.next().getId());
     }
 
-    @Test
-    void testCreate_generatesUuidWhenProductIdBlank() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testDeleteKeepsInsertionOrderOfRemainingProducts(StorageLayout layout) {
+        open(layout);
+        for (String id : new String[] {"id-1", "id-2", "id-3"}) {
+            Product product = new Product();
+            product.setId(id);
+            productRepository.create(product);
+        }
+
+        productRepository.delete("id-2");
+
+        Iterator<Product> it = productRepository.findAll();
+        assertEquals("id-1", it.next().getId());
+        assertEquals("id-3", it.next().getId());
+        assertFalse(it.hasNext());
+        assertEquals("id-3", productRepository.findById("id-3").getId());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testCreate_generatesUuidWhenProductIdBlank(StorageLayout layout) {
+        open(layout);
         Product product = new Product();
         product.setId("");
         product.setProductName("Auto ID Product");
@@ -174,12 +233,344 @@ class ProductRepositoryTest {
         assertDoesNotThrow(() -> UUID.fromString(created.getId()));
     }
 
-    @Test
-    void testFindById_throwsWhenNotFound_andMessageMatches() {
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testFindById_throwsWhenNotFound_andMessageMatches(StorageLayout layout) {
+        open(layout);
         IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
                 () -> productRepository.findById("missing-id")
         );
         assertEquals("Entity with Id missing-id was not found.", ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testFindPage_walksAllProductsWithCursor(StorageLayout layout) {
+        open(layout);
+        for (int i = 1; i <= 5; i++) {
+            Product product = new Product();
+            product.setId("id-" + i);
+            productRepository.create(product);
+        }
+
+        Page<Product> first = productRepository.findPage(null, 2);
+        assertEquals(List.of("id-1", "id-2"), first.items().stream().map(Product::getId).toList());
+        assertTrue(first.hasNext());
+
+        productRepository.delete("id-3");
+
+        Page<Product> second = productRepository.findPage(first.nextCursor(), 2);
+        assertEquals(List.of("id-4", "id-5"), second.items().stream().map(Product::getId).toList());
+        assertFalse(second.hasNext());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testFindPage_rejectsInvalidCursorAndLimit(StorageLayout layout) {
+        open(layout);
+        assertThrows(IllegalArgumentException.class, () -> productRepository.findPage("abc", 10));
+        assertThrows(IllegalArgumentException.class, () -> productRepository.findPage(null, 0));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void testStreamAll_returnsProductsInInsertionOrder(StorageLayout layout) {
+        open(layout);
+        Product p1 = new Product(); p1.setId("id-1");
+        Product p2 = new Product(); p2.setId("id-2");
+        productRepository.create(p1);
+        productRepository.create(p2);
+
+        assertEquals(List.of("id-1", "id-2"), productRepository.streamAll().map(Product::getId).toList());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void createAll_storesBatchInOrder_andAssignsMissingIds(StorageLayout layout) {
+        open(layout);
+        List<Product> created = productRepository.createAll(List.of(
+                product("id-1", "A", 1), product(null, "B", 2), product("id-1", "A2", 3)));
+
+        assertEquals(3, created.size());
+        assertNotNull(created.get(1).getId());
+        Iterator<Product> it = productRepository.findAll();
+        Product first = it.next();
+        assertEquals("id-1", first.getId());
+        assertEquals("A2", first.getProductName());
+        assertEquals(created.get(1).getId(), it.next().getId());
+        assertFalse(it.hasNext());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void updateAll_replacesEveryProduct(StorageLayout layout) {
+        open(layout);
+        productRepository.createAll(List.of(product("id-1", "A", 1), product("id-2", "B", 2)));
+
+        List<Product> updated = productRepository.updateAll(
+                List.of(product("id-2", "B2", 20), product("id-1", "A2", 10)));
+
+        assertEquals("B2", updated.get(0).getProductName());
+        assertEquals("A2", productRepository.findById("id-1").getProductName());
+        assertEquals(20, productRepository.findById("id-2").getProductQuantity());
+        assertEquals("id-1", productRepository.findAll().next().getId());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void updateAll_missingProduct_failsWholeBatch(StorageLayout layout) {
+        open(layout);
+        productRepository.create(product("id-1", "A", 1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> productRepository.updateAll(List.of(product("id-1", "A2", 10), product("missing", "X", 0))));
+        assertEquals("A", productRepository.findById("id-1").getProductName());
+        assertThrows(IllegalArgumentException.class,
+                () -> productRepository.updateAll(List.of(product(null, "X", 0))));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void deleteAll_removesPresentIds_andIgnoresMissing(StorageLayout layout) {
+        open(layout);
+        productRepository.createAll(List.of(product("id-1", "A", 1), product("id-2", "B", 2), product("id-3", "C", 3)));
+
+        productRepository.deleteAll(Arrays.asList("id-1", "missing", null, "id-3"));
+
+        Iterator<Product> it = productRepository.findAll();
+        assertEquals("id-2", it.next().getId());
+        assertFalse(it.hasNext());
+        assertTrue(productRepository.search("a", 10).isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void batchWrites_notifyListenersOncePerBatch(StorageLayout layout) {
+        open(layout);
+        List<List<RepositoryListener.Change<Product>>> batches = new ArrayList<>();
+        productRepository.addListener(new RepositoryListener<>() {
+            @Override
+            public void onBatch(List<Change<Product>> changes) {
+                batches.add(changes);
+            }
+        });
+
+        productRepository.createAll(List.of(product("id-1", "A", 1), product("id-2", "B", 2)));
+        productRepository.deleteAll(List.of("id-1", "id-2"));
+        productRepository.deleteAll(List.of("id-1"));
+
+        assertEquals(2, batches.size());
+        assertNull(batches.get(0).get(0).previous());
+        assertNull(batches.get(1).get(1).current());
+        assertEquals("id-2", batches.get(1).get(1).previous().getId());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void version_growsWithEveryWriteButNotWithNoOps(StorageLayout layout) {
+        open(layout);
+        long initial = productRepository.version();
+
+        productRepository.create(product("id-1", "A", 1));
+        long afterCreate = productRepository.version();
+        productRepository.update("id-1", product("id-1", "B", 2));
+        long afterUpdate = productRepository.version();
+        productRepository.deleteAll(List.of("missing"));
+        productRepository.findAll();
+
+        assertTrue(afterCreate > initial);
+        assertTrue(afterUpdate > afterCreate);
+        assertEquals(afterUpdate, productRepository.version());
+
+        productRepository.delete("id-1");
+        assertTrue(productRepository.version() > afterUpdate);
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void adjustQuantity_addsDeltaAndKeepsOtherFields(StorageLayout layout) {
+        open(layout);
+        productRepository.create(product("id-1", "Sampo", 10));
+
+        Product adjusted = productRepository.adjustQuantity("id-1", -3);
+        productRepository.adjustQuantity("id-1", 5);
+
+        assertEquals(7, adjusted.getProductQuantity());
+        assertEquals("Sampo", productRepository.findById("id-1").getProductName());
+        assertEquals(12, productRepository.findById("id-1").getProductQuantity());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void reserve_rejectsMoreThanInStockWithoutChangingIt(StorageLayout layout) {
+        open(layout);
+        productRepository.create(product("id-1", "Sampo", 2));
+
+        assertThrows(InsufficientStockException.class, () -> productRepository.reserve("id-1", 3));
+        assertThrows(IllegalArgumentException.class, () -> productRepository.reserve("id-1", 0));
+        assertThrows(IllegalArgumentException.class, () -> productRepository.reserve("missing", 1));
+        assertEquals(2, productRepository.findById("id-1").getProductQuantity());
+
+        assertEquals(0, productRepository.reserve("id-1", 2).getProductQuantity());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void update_keepsSearchInStepWithStoredName(StorageLayout layout) {
+        open(layout);
+        productRepository.create(product("id-1", "Sampo", 1));
+        productRepository.create(product("id-2", "Sabun", 2));
+
+        productRepository.update("id-1", product("id-1", "Sampo Cap Bambang", 10));
+        productRepository.delete("id-2");
+
+        assertEquals("Sampo Cap Bambang", productRepository.search("bambang", 5).get(0).getProductName());
+        assertTrue(productRepository.search("sabun", 5).isEmpty());
+        assertEquals(10, productRepository.findById("id-1").getProductQuantity());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void findAll_keepsInsertionOrderAcrossUpdatesDeletesAndRecreates(StorageLayout layout) {
+        open(layout);
+        productRepository.create(product("a", "A", 1));
+        productRepository.create(product("b", "B", 2));
+        productRepository.create(product("c", "C", 3));
+        productRepository.update("a", product("a", "A2", 4));
+        productRepository.delete("b");
+        productRepository.create(product("b", "B2", 5));
+
+        List<String> order = new ArrayList<>();
+        productRepository.findAll().forEachRemaining(product -> order.add(product.getId()));
+        assertEquals(List.of("a", "c", "b"), order);
+        assertEquals("A2", productRepository.findById("a").getProductName());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void findAll_coversProductsCreatedBeforeTheCallOnly(StorageLayout layout) {
+        open(layout);
+        for (int i = 0; i < 600; i++) {
+            productRepository.create(product("id-" + i, "P", i));
+        }
+
+        Iterator<Product> it = productRepository.findAll();
+        productRepository.create(product("late", "P", 0));
+        int count = 0;
+        while (it.hasNext()) {
+            assertNotEquals("late", it.next().getId());
+            count++;
+        }
+        assertEquals(600, count);
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void findPage_walksAllProductsInBatches(StorageLayout layout) {
+        open(layout);
+        for (int i = 0; i < 1_000; i++) {
+            productRepository.create(product("id-" + i, "P" + i, i));
+        }
+        for (int i = 0; i < 1_000; i += 3) {
+            productRepository.delete("id-" + i);
+        }
+
+        int seen = 0;
+        String cursor = null;
+        do {
+            Page<Product> page = productRepository.findPage(cursor, 100);
+            for (Product product : page.items()) {
+                assertNotEquals(0, Integer.parseInt(product.getId().substring(3)) % 3);
+                seen++;
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(666, seen);
+        assertEquals(666, productRepository.streamAll().count());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void findById_tellsApartIdsWithEqualHashesOrEqualLengths(StorageLayout layout) {
+        open(layout);
+        // "Aa" and "BB" share a String hash code
+        productRepository.create(product("Aa", "first", 1));
+        productRepository.create(product("BB", "second", 2));
+        productRepository.create(product("cafe", "ascii", 3));
+        productRepository.create(product("caf\u00e9", "accented", 4));
+
+        assertEquals("first", productRepository.findById("Aa").getProductName());
+        assertEquals("second", productRepository.findById("BB").getProductName());
+        assertEquals("ascii", productRepository.findById("cafe").getProductName());
+        assertEquals("accented", productRepository.findById("caf\u00e9").getProductName());
+
+        productRepository.delete("Aa");
+        assertEquals("second", productRepository.findById("BB").getProductName());
+        assertThrows(IllegalArgumentException.class, () -> productRepository.findById("Aa"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void create_roundTripsNullAndUnicodeNames(StorageLayout layout) {
+        open(layout);
+        productRepository.create(product("null", null, 1));
+        productRepository.create(product("unicode-\u00e9\u4e2d", "K\u00e4se \u4e2d\u6587", 2));
+
+        assertNull(productRepository.findById("null").getProductName());
+        assertEquals("K\u00e4se \u4e2d\u6587", productRepository.findById("unicode-\u00e9\u4e2d").getProductName());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void manyProducts_surviveIndexGrowthAndDeletes(StorageLayout layout) {
+        open(layout);
+        for (int i = 0; i < 50_000; i++) {
+            productRepository.create(product("id-" + i, "P" + i, i));
+            if (i % 4 == 0) {
+                productRepository.delete("id-" + i);
+            }
+        }
+
+        assertEquals(37_500, productRepository.streamAll().count());
+        assertEquals("P49999", productRepository.findById("id-49999").getProductName());
+        assertThrows(IllegalArgumentException.class, () -> productRepository.findById("id-40000"));
+        assertEquals("id-1", productRepository.findAll().next().getId());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageLayout.class)
+    void concurrentWritersAndReaders_keepRepositoryConsistent(StorageLayout layout) throws Exception {
+        open(layout);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 6; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    String id = thread + "-" + i;
+                    productRepository.create(product(id, "P" + id, i));
+                    productRepository.update(id, product(id, "Q" + id, i + 1));
+                    if (i % 2 == 1) {
+                        productRepository.delete(id);
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < 2; r++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    productRepository.findAll().forEachRemaining(product -> assertNotNull(product.getId()));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(6 * 1_000, productRepository.streamAll().count());
+        assertEquals("Q0-0", productRepository.findById("0-0").getProductName());
+        assertEquals(1, productRepository.findById("0-0").getProductQuantity());
+    }
+}
@@ -0,0 +1,93 @@
+package id.ac.ui.cs.advprog.eshop.repository.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void nextUuid_isVersion7WithTimestamp() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 0x0123_4567_89ABL);
+
+        UUID id = generator.nextUuid();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(0x0123_4567_89ABL, id.getMostSignificantBits() >>> 16);
+        assertEquals(id, UUID.fromString(id.toString()));
+    }
+
+    @Test
+    void nextId_increasesWithinAMillisecondAndWhenClockStepsBack() {
+        AtomicLong clock = new AtomicLong(1_000);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(clock::get);
+
+        String first = generator.nextId();
+        String second = generator.nextId();
+        clock.set(500);
+        String third = generator.nextId();
+        clock.set(2_000);
+        String fourth = generator.nextId();
+
+        assertTrue(first.compareTo(second) < 0);
+        assertTrue(second.compareTo(third) < 0);
+        assertTrue(third.compareTo(fourth) < 0);
+    }
+
+    @Test
+    void nextId_counterOverflowCarriesIntoTimestamp() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 1_000);
+
+        String previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            String next = generator.nextId();
+            assertTrue(previous.compareTo(next) < 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    void nextId_isUniqueAndIncreasingPerThreadUnderConcurrency() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                List<String> ids = new ArrayList<>();
+                for (int i = 0; i < 20_000; i++) {
+                    ids.add(generator.nextId());
+                }
+                return ids;
+            }));
+        }
+
+        Set<String> all = new HashSet<>();
+        for (Future<List<String>> result : results) {
+            List<String> ids = result.get(30, TimeUnit.SECONDS);
+            for (int i = 1; i < ids.size(); i++) {
+                assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+            }
+            all.addAll(ids);
+        }
+        pool.shutdown();
+        assertEquals(8 * 20_000, all.size());
+    }
+
+    @Test
+    void randomStrategy_generatesVersion4() {
+        assertEquals(4, UUID.fromString(IdStrategy.RANDOM_UUID.newGenerator().nextId()).version());
+        assertEquals(7, UUID.fromString(IdStrategy.TIME_ORDERED.newGenerator().nextId()).version());
+    }
+}
@@ -0,0 +1,111 @@
+package id.ac.ui.cs.advprog.eshop.repository.jfr;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryEventTest {
+
+    @TempDir
+    Path directory;
+
+    private static void exercise(ProductRepository repository) {
+        repository.create(product("id-1", "Sampo Cap Bambang", 10));
+        repository.create(product("id-2", "Sabun Cap Bambang", 5));
+        repository.findById("id-1");
+        repository.update("id-2", product("id-2", "Sabun Cap Usep", 6));
+        repository.findPage(null, 10);
+        repository.search("Sampo", 10);
+        repository.delete("id-1");
+    }
+
+    private List<RecordedEvent> record(RepositoryEventSettings settings) throws IOException {
+        Path file = directory.resolve("repository.jfr");
+        try (Recording recording = new Recording()) {
+            // Registered before the recording starts, so the settings reach it as a listener would
+            settings.register();
+            try {
+                recording.start();
+                exercise(new ProductRepository());
+                recording.stop();
+            } finally {
+                settings.unregister();
+            }
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("eshop.Repository"))
+                .toList();
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name, String operation) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .filter(event -> operation.equals(event.getString("operation")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " event for " + operation));
+    }
+
+    @Test
+    void operations_areRecordedAndParsedBack() throws IOException {
+        List<RecordedEvent> events = record(new RepositoryEventSettings(Duration.ZERO, Duration.ZERO, false));
+
+        RecordedEvent create = find(events, RepositoryWriteEvent.NAME, "create");
+        assertEquals("Product", create.getString("entityType"));
+        assertEquals("id-1", create.getString("id"));
+        assertEquals(1, create.getLong("scanned"));
+        assertFalse(create.getDuration().isNegative());
+        assertNull(create.getStackTrace());
+
+        RecordedEvent findById = find(events, RepositoryReadEvent.NAME, "findById");
+        assertEquals("id-1", findById.getString("id"));
+        assertEquals(1, findById.getLong("scanned"));
+
+        assertEquals("id-2", find(events, RepositoryWriteEvent.NAME, "update").getString("id"));
+        assertEquals(2, find(events, RepositoryReadEvent.NAME, "findPage").getLong("scanned"));
+        assertEquals(1, find(events, RepositoryReadEvent.NAME, "search").getLong("scanned"));
+        assertEquals(1, find(events, RepositoryWriteEvent.NAME, "delete").getLong("scanned"));
+    }
+
+    @Test
+    void thresholds_filterFastOperations() throws IOException {
+        // No operation on a handful of entities takes a minute; writes are recorded regardless
+        List<RecordedEvent> events = record(new RepositoryEventSettings(Duration.ofMinutes(1), Duration.ZERO, true));
+
+        assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().equals(RepositoryReadEvent.NAME)));
+        RecordedEvent create = find(events, RepositoryWriteEvent.NAME, "create");
+        assertNotNull(create.getStackTrace());
+    }
+
+    @Test
+    void settings_reachRecordingsAlreadyRunning() throws IOException {
+        Path file = directory.resolve("running.jfr");
+        RepositoryEventSettings settings = new RepositoryEventSettings(Duration.ZERO, Duration.ZERO, false);
+        try (Recording recording = new Recording()) {
+            recording.start();
+            settings.register();
+            try {
+                new ProductRepository().create(product("id-1", "Sampo", 1));
+            } finally {
+                settings.unregister();
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        assertTrue(RecordingFile.readAllEvents(file).stream()
+                .anyMatch(event -> event.getEventType().getName().equals(RepositoryWriteEvent.NAME)));
+    }
+}
@@ -0,0 +1,162 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private RepositoryJournal<Product> openProducts(ProductRepository repository) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(directory, "products", FsyncPolicy.OS, Duration.ZERO);
+        RepositoryJournal<Product> journal = new RepositoryJournal<>(
+                repository, new ProductCodec(), log, new SnapshotStore(directory, "products"));
+        journal.recover();
+        return journal;
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void recover_rebuildsRepositoryFromJournaledWrites() throws IOException {
+        ProductRepository before = new ProductRepository();
+        try (RepositoryJournal<Product> journal = openProducts(before)) {
+            before.create(product("id-1", "A", 1));
+            before.create(product("id-2", "B", 2));
+            before.create(product("id-3", "C", 3));
+            before.update("id-1", product("id-1", "A2", 10));
+            before.delete("id-2");
+        }
+
+        ProductRepository after = new ProductRepository();
+        try (RepositoryJournal<Product> journal = openProducts(after)) {
+            Iterator<Product> it = after.findAll();
+            Product first = it.next();
+            assertEquals("id-1", first.getId());
+            assertEquals("A2", first.getProductName());
+            assertEquals(10, first.getProductQuantity());
+            assertEquals("id-3", it.next().getId());
+            assertFalse(it.hasNext());
+
+            after.create(product("id-4", "D", 4));
+        }
+
+        ProductRepository reopened = new ProductRepository();
+        try (RepositoryJournal<Product> journal = openProducts(reopened)) {
+            assertEquals("D", reopened.findById("id-4").getProductName());
+        }
+    }
+
+    @Test
+    void failedAppend_abandonsWriteBeforeIndexAndAggregatesSeeIt() throws IOException {
+        ProductRepository repository = new ProductRepository();
+        WriteAheadLog log = new WriteAheadLog(directory, "products", FsyncPolicy.OS, Duration.ZERO);
+        RepositoryJournal<Product> journal = new RepositoryJournal<>(
+                repository, new ProductCodec(), log, new SnapshotStore(directory, "products"));
+        journal.recover();
+        log.close();
+
+        assertThrows(UncheckedIOException.class, () -> repository.create(product("id-1", "Lost", 5)));
+
+        assertTrue(repository.search("Lost", 10).isEmpty());
+        assertEquals(0, repository.inventoryStats(0).totalQuantity());
+        assertFalse(repository.findAll().hasNext());
+    }
+
+    @Test
+    void snapshot_compactsLog_andRecoverLoadsSnapshotPlusTail() throws IOException {
+        ProductRepository before = new ProductRepository();
+        try (RepositoryJournal<Product> journal = openProducts(before)) {
+            before.create(product("id-1", "A", 1));
+            before.create(product("id-2", "B", 2));
+            before.update("id-1", product("id-1", "A2", 10));
+
+            assertTrue(journal.snapshot());
+            assertFalse(journal.snapshot());
+
+            before.create(product("id-3", "C", 3));
+            before.delete("id-2");
+        }
+
+        assertEquals(List.of("products.0000000000000002.snapshot", "products.0000000000000002.wal"), files());
+
+        ProductRepository after = new ProductRepository();
+        try (RepositoryJournal<Product> journal = openProducts(after)) {
+            Iterator<Product> it = after.findAll();
+            Product first = it.next();
+            assertEquals("id-1", first.getId());
+            assertEquals("A2", first.getProductName());
+            assertEquals("id-3", it.next().getId());
+            assertFalse(it.hasNext());
+
+            assertTrue(journal.snapshot());
+        }
+
+        assertEquals(List.of("products.0000000000000003.snapshot", "products.0000000000000003.wal"), files());
+    }
+
+    @Test
+    void carCodec_roundTripsNullFields() throws IOException {
+        CarRepository before = new CarRepository();
+        try (RepositoryJournal<Car> journal = new RepositoryJournal<>(before, new CarCodec(),
+                new WriteAheadLog(directory, "cars", FsyncPolicy.ALWAYS, Duration.ZERO),
+                new SnapshotStore(directory, "cars"))) {
+            journal.recover();
+            Car car = new Car();
+            car.setId("c1");
+            car.setCarQuantity(5);
+            before.create(car);
+            journal.snapshot();
+        }
+
+        CarRepository after = new CarRepository();
+        try (RepositoryJournal<Car> journal = new RepositoryJournal<>(after, new CarCodec(),
+                new WriteAheadLog(directory, "cars", FsyncPolicy.OS, Duration.ZERO),
+                new SnapshotStore(directory, "cars"))) {
+            journal.recover();
+            Car car = after.findById("c1");
+            assertNull(car.getCarName());
+            assertNull(car.getCarColor());
+            assertEquals(5, car.getCarQuantity());
+        }
+    }
+
+    @Test
+    void batchWrites_areJournaledAndRecovered() throws IOException {
+        ProductRepository before = new ProductRepository();
+        try (RepositoryJournal<Product> journal = openProducts(before)) {
+            before.createAll(List.of(product("id-1", "A", 1), product("id-2", "B", 2), product("id-3", "C", 3)));
+            before.updateAll(List.of(product("id-3", "C2", 30)));
+            before.deleteAll(List.of("id-1"));
+        }
+
+        ProductRepository after = new ProductRepository();
+        try (RepositoryJournal<Product> journal = openProducts(after)) {
+            Iterator<Product> it = after.findAll();
+            assertEquals("id-2", it.next().getId());
+            assertEquals("C2", it.next().getProductName());
+            assertFalse(it.hasNext());
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private WriteAheadLog open(FsyncPolicy policy) throws IOException {
+        return new WriteAheadLog(directory, "test", policy, Duration.ofMillis(1));
+    }
+
+    private enum Fault {
+        NONE, WRITE, FORCE;
+
+        // The failure the next write or force of a failing log injects
+        static volatile Fault next = NONE;
+    }
+
+    private WriteAheadLog openFailing(FsyncPolicy policy) throws IOException {
+        Fault.next = Fault.NONE;
+        return new WriteAheadLog(directory, "test", policy, Duration.ofMillis(1)) {
+            @Override
+            FileChannel open(Path file) throws IOException {
+                return new FailingChannel(super.open(file));
+            }
+        };
+    }
+
+    /**
+     * Passes everything to a real channel, except that a write armed to fail writes half of what
+     * it was given and then throws, and a force armed to fail throws.
+     */
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel channel;
+
+        FailingChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            if (Fault.next == Fault.WRITE) {
+                Fault.next = Fault.NONE;
+                ByteBuffer half = source.slice(source.position(), source.remaining() / 2);
+                channel.write(half);
+                throw new IOException("No space left on device");
+            }
+            return channel.write(source);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (Fault.next == Fault.FORCE) {
+                throw new IOException("Input/output error");
+            }
+            channel.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer target) throws IOException {
+            return channel.read(target);
+        }
+
+        @Override
+        public long read(ByteBuffer[] targets, int offset, int length) throws IOException {
+            return channel.read(targets, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+            return channel.write(sources, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long position) throws IOException {
+            channel.position(position);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long position, long count) throws IOException {
+            return channel.transferFrom(source, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer target, long position) throws IOException {
+            return channel.read(target, position);
+        }
+
+        @Override
+        public int write(ByteBuffer source, long position) throws IOException {
+            return channel.write(source, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+
+    private List<String> replay(long fromSegment) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (WriteAheadLog log = open(FsyncPolicy.OS)) {
+            log.replay(fromSegment, record -> {
+                byte[] payload = new byte[3];
+                record.readFully(payload);
+                records.add(new String(payload, StandardCharsets.UTF_8));
+            });
+        }
+        return records;
+    }
+
+    private Path segment(long number) {
+        return directory.resolve(String.format("test.%016d.wal", number));
+    }
+
+    @Test
+    void replay_returnsRecordsInAppendOrder() throws IOException {
+        try (WriteAheadLog log = open(FsyncPolicy.INTERVAL)) {
+            log.append(bytes("one"));
+            log.append(bytes("two"));
+        }
+
+        assertEquals(List.of("one", "two"), replay(0));
+    }
+
+    @Test
+    void appendAll_writesEachPayloadAsItsOwnRecord() throws IOException {
+        try (WriteAheadLog log = open(FsyncPolicy.ALWAYS)) {
+            log.append(bytes("one"));
+            log.appendAll(List.of(bytes("two"), bytes("six"), bytes("ten")));
+        }
+
+        assertEquals(List.of("one", "two", "six", "ten"), replay(0));
+    }
+
+    @Test
+    void replay_truncatesTornTail_andLaterAppendsSurvive() throws IOException {
+        try (WriteAheadLog log = open(FsyncPolicy.OS)) {
+            log.append(bytes("one"));
+            log.append(bytes("two"));
+        }
+        try (FileChannel channel = FileChannel.open(segment(1), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        try (WriteAheadLog log = open(FsyncPolicy.OS)) {
+            log.replay(0, record -> { });
+            log.append(bytes("new"));
+        }
+
+        assertEquals(List.of("one", "new"), replay(0));
+    }
+
+    @Test
+    void failedWrite_leavesNoTornRecord_andLaterAppendsSurvive() throws IOException {
+        try (WriteAheadLog log = openFailing(FsyncPolicy.OS)) {
+            log.append(bytes("one"));
+            Fault.next = Fault.WRITE;
+            assertThrows(IOException.class, () -> log.append(bytes("two")));
+            log.append(bytes("new"));
+        }
+
+        assertEquals(List.of("one", "new"), replay(0));
+    }
+
+    @Test
+    void failedFsync_dropsUnacknowledgedRecords_andFailsTheLog() throws IOException {
+        try (WriteAheadLog log = openFailing(FsyncPolicy.ALWAYS)) {
+            log.append(bytes("one"));
+            Fault.next = Fault.FORCE;
+            assertThrows(IOException.class, () -> log.append(bytes("two")));
+            assertThrows(IOException.class, () -> log.append(bytes("new")));
+        }
+
+        assertEquals(List.of("one"), replay(0));
+    }
+
+    @Test
+    void replay_stopsAtCorruptRecord() throws IOException {
+        try (WriteAheadLog log = open(FsyncPolicy.OS)) {
+            log.append(bytes("one"));
+            log.append(bytes("two"));
+        }
+        byte[] content = Files.readAllBytes(segment(1));
+        content[content.length - 1] ^= 0x7f;
+        Files.write(segment(1), content);
+
+        assertEquals(List.of("one"), replay(0));
+    }
+
+    @Test
+    void roll_startsNewSegment_andReplayCanSkipOlderSegments() throws IOException {
+        long second;
+        try (WriteAheadLog log = open(FsyncPolicy.OS)) {
+            log.append(bytes("one"));
+            second = log.roll();
+            log.append(bytes("two"));
+        }
+
+        assertEquals(2, second);
+        assertEquals(List.of("one", "two"), replay(0));
+        assertEquals(List.of("two"), replay(second));
+
+        try (WriteAheadLog log = open(FsyncPolicy.OS)) {
+            log.deleteSegmentsBefore(second);
+        }
+        assertFalse(Files.exists(segment(1)));
+        assertEquals(List.of("two"), replay(0));
+    }
+
+    @Test
+    void alwaysPolicy_concurrentAppendsAreAllDurable() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try (WriteAheadLog log = open(FsyncPolicy.ALWAYS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        log.append(bytes("abc"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(400, replay(0).size());
+    }
+}
@@ -0,0 +1,83 @@
+package id.ac.ui.cs.advprog.eshop.repository.search;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+    ProductRepository productRepository;
+
+    private List<String> searchIds(String query) {
+        return productRepository.search(query, 10).stream().map(Product::getId).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository();
+        productRepository.create(product("p1", "Sampo Cap Bambang", 0));
+        productRepository.create(product("p2", "Sabun Cap Usep", 0));
+        productRepository.create(product("p3", "Kecap Manis", 0));
+    }
+
+    @Test
+    void search_matchesWordPrefixesCaseInsensitively() {
+        assertEquals(List.of("p1"), searchIds("SAMP"));
+        assertEquals(List.of("p1", "p2"), searchIds("cap").subList(0, 2));
+    }
+
+    @Test
+    void search_ranksPrefixMatchesBeforeSubstringMatches() {
+        List<String> ids = searchIds("cap");
+        assertEquals(3, ids.size());
+        assertEquals("p3", ids.get(2));
+    }
+
+    @Test
+    void search_findsSubstrings() {
+        assertEquals(List.of("p1"), searchIds("bamb"));
+        assertEquals(List.of("p3"), searchIds("ecap"));
+    }
+
+    @Test
+    void search_toleratesTypos() {
+        assertEquals(List.of("p1"), searchIds("bambamg"));
+    }
+
+    @Test
+    void search_followsUpdatesAndDeletes() {
+        productRepository.update("p1", product("p1", "Shampoo Anti Ketombe", 0));
+        productRepository.delete("p2");
+
+        assertEquals(List.of(), searchIds("sabun"));
+        assertEquals(List.of("p1"), searchIds("ketombe"));
+        assertEquals(List.of("p3"), searchIds("cap"));
+    }
+
+    @Test
+    void search_blankQueryOrLimitReturnsNothing() {
+        assertTrue(productRepository.search("   ", 10).isEmpty());
+        assertTrue(productRepository.search("cap", 0).isEmpty());
+        assertEquals(1, productRepository.search("cap", 1).size());
+    }
+
+    @Test
+    void carSearch_coversNameAndColor() {
+        CarRepository carRepository = new CarRepository();
+        Car car = new Car();
+        car.setId("c1");
+        car.setCarName("Avanza");
+        car.setCarColor("Black");
+        carRepository.create(car);
+
+        assertEquals("c1", carRepository.search("ava", 5).get(0).getId());
+        assertEquals("c1", carRepository.search("bla", 5).get(0).getId());
+    }
+}
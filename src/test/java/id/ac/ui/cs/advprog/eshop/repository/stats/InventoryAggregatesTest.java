@@ -0,0 +1,202 @@
+package id.ac.ui.cs.advprog.eshop.repository.stats;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.EntityNotFoundException;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.store.CarMappedStore;
+import id.ac.ui.cs.advprog.eshop.repository.store.StorageLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryAggregatesTest {
+    private static final String[] COLORS = {"Red", "Blue", "Black", null};
+    private static final int[] THRESHOLDS = {0, 1, 5, 50, InventoryAggregates.QUANTITY_BUCKETS};
+
+    @TempDir
+    Path directory;
+
+    private static Car car(String id, String color, int qty) {
+        Car car = new Car();
+        car.setId(id);
+        car.setCarName("Car " + id);
+        car.setCarColor(color);
+        car.setCarQuantity(qty);
+        return car;
+    }
+
+    private static Car randomCar(Random random, int ids) {
+        // Mostly small quantities so that low-stock thresholds matter, with some negative and large ones
+        int qty = random.nextInt(10) == 0 ? random.nextInt(5_000) - 10 : random.nextInt(60);
+        return car("car-" + random.nextInt(ids), COLORS[random.nextInt(COLORS.length)], qty);
+    }
+
+    /**
+     * The figures {@link InventoryAggregates} should report, computed from scratch.
+     */
+    private static InventoryStats recompute(CarRepository repository, int lowStockBelow) {
+        long entities = 0;
+        long total = 0;
+        long lowStock = 0;
+        Map<String, Long> byColor = new HashMap<>();
+        for (Car car : repository.streamAll().toList()) {
+            entities++;
+            total += car.getCarQuantity();
+            if (Math.max(0, car.getCarQuantity()) < lowStockBelow) {
+                lowStock++;
+            }
+            byColor.merge(Objects.requireNonNullElse(car.getCarColor(), ""), (long) car.getCarQuantity(), Long::sum);
+        }
+        byColor.values().removeIf(sum -> sum == 0);
+        return new InventoryStats(entities, total, lowStockBelow, lowStock, byColor);
+    }
+
+    private static void assertMatchesRecompute(CarRepository repository) {
+        for (int threshold : THRESHOLDS) {
+            assertEquals(recompute(repository, threshold), repository.inventoryStats(threshold));
+        }
+    }
+
+    @Test
+    void randomWrites_matchFullRecompute() {
+        CarRepository repository = new CarRepository();
+        Random random = new Random(42);
+
+        for (int step = 0; step < 2_000; step++) {
+            switch (random.nextInt(6)) {
+                case 0, 1 -> repository.create(randomCar(random, 300));
+                case 2 -> {
+                    Car update = randomCar(random, 300);
+                    repository.update(update.getId(), update);
+                }
+                case 3 -> repository.delete("car-" + random.nextInt(300));
+                case 4 -> {
+                    List<Car> batch = new ArrayList<>();
+                    for (int i = 0; i < 20; i++) {
+                        batch.add(randomCar(random, 300));
+                    }
+                    if (random.nextBoolean()) {
+                        repository.createAll(batch);
+                    } else {
+                        try {
+                            repository.updateAll(batch);
+                        } catch (EntityNotFoundException e) {
+                            // A batch naming a missing car fails whole, leaving the aggregates alone
+                        }
+                    }
+                }
+                default -> repository.deleteAll(List.of("car-" + random.nextInt(300), "car-" + random.nextInt(300)));
+            }
+            if (step % 100 == 0) {
+                assertMatchesRecompute(repository);
+            }
+        }
+        assertMatchesRecompute(repository);
+    }
+
+    @Test
+    void concurrentWrites_matchFullRecompute() throws Exception {
+        CarRepository repository = new CarRepository(StorageLayout.COLUMNAR);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Random random = new Random(t);
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 2_000; i++) {
+                    Car car = randomCar(random, 500);
+                    switch (random.nextInt(4)) {
+                        case 0, 1 -> repository.create(car);
+                        case 2 -> repository.update(car.getId(), car);
+                        default -> repository.delete(car.getId());
+                    }
+                    if (i % 200 == 0) {
+                        // Reading while others write must not disturb the counters
+                        repository.inventoryStats(5);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertMatchesRecompute(repository);
+    }
+
+    @Test
+    void reopenedStore_countsEntitiesStoredBeforeOpening() throws IOException {
+        try (CarRepository before = new CarRepository(StorageLayout.MAPPED, directory)) {
+            before.create(car("car-1", "Red", 3));
+            before.create(car("car-2", "Blue", 10));
+            before.create(car("car-3", "Red", 20));
+        }
+
+        try (CarRepository after = new CarRepository(StorageLayout.MAPPED, directory)) {
+            // Written before the figures are first read, so they must be neither missed nor counted twice
+            after.update("car-1", car("car-1", "Blue", 4));
+            after.delete("car-3");
+            after.create(car("car-4", "Black", 1));
+
+            InventoryStats stats = after.inventoryStats(5);
+            assertEquals(3, stats.entities());
+            assertEquals(15, stats.totalQuantity());
+            assertEquals(2, stats.lowStock());
+            assertEquals(Map.of("Blue", 14L, "Black", 1L), stats.quantityByGroup());
+
+            after.create(car("car-5", "Red", 2));
+            assertMatchesRecompute(after);
+        }
+    }
+
+    @Test
+    void rejectedWrite_leavesFiguresUnchanged() throws IOException {
+        try (CarRepository repository = new CarRepository(StorageLayout.MAPPED, directory)) {
+            repository.create(car("car-1", "Red", 3));
+            Car tooLong = car("car-1", "x".repeat(CarMappedStore.COLOR_CAPACITY + 1), 100);
+
+            assertThrows(IllegalArgumentException.class, () -> repository.update("car-1", tooLong));
+            assertThrows(IllegalArgumentException.class, () -> repository.createAll(List.of(tooLong)));
+            assertEquals(3, repository.inventoryStats(5).totalQuantity());
+            assertMatchesRecompute(repository);
+        }
+    }
+
+    @Test
+    void productRepository_keepsNoGroups() {
+        ProductRepository repository = new ProductRepository();
+        Product product = new Product();
+        product.setId("id-1");
+        product.setProductName("Sampo");
+        product.setProductQuantity(2);
+        repository.create(product);
+
+        InventoryStats stats = repository.inventoryStats(-1);
+        assertEquals(1, stats.entities());
+        assertEquals(2, stats.totalQuantity());
+        assertEquals(0, stats.lowStockBelow());
+        assertEquals(0, stats.lowStock());
+        assertTrue(stats.quantityByGroup().isEmpty());
+    }
+}
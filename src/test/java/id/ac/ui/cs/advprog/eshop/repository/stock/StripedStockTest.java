@@ -0,0 +1,79 @@
+package id.ac.ui.cs.advprog.eshop.repository.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedStockTest {
+
+    @Test
+    void constructor_spreadsQuantityOverCells() {
+        StripedStock stock = new StripedStock(StripedStock.CELLS * 3L + 1);
+
+        assertEquals(StripedStock.CELLS * 3L + 1, stock.available());
+        assertEquals(StripedStock.Outcome.TAKEN, stock.tryTake(3));
+        assertEquals(StripedStock.CELLS * 3L - 2, stock.available());
+    }
+
+    @Test
+    void tryTake_missesWhenNoSingleCellHoldsEnough() {
+        StripedStock stock = new StripedStock(StripedStock.CELLS);
+
+        assertEquals(StripedStock.Outcome.MISS, stock.tryTake(2));
+        assertEquals(StripedStock.CELLS, stock.available());
+    }
+
+    @Test
+    void close_returnsExactRemainderAndRefusesLaterChanges() {
+        StripedStock stock = new StripedStock(100);
+        stock.tryTake(1);
+        stock.add(5);
+
+        assertEquals(104, stock.close());
+        assertEquals(-1, stock.available());
+        assertEquals(StripedStock.Outcome.CLOSED, stock.tryTake(1));
+        assertFalse(stock.add(1));
+        assertEquals(0, stock.close());
+    }
+
+    @Test
+    void concurrentTakesAndClose_neverLoseOrInventUnits() throws Exception {
+        int threads = 8;
+        StripedStock stock = new StripedStock(1_000_000);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> takers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            takers.add(pool.submit(() -> {
+                start.await();
+                long taken = 0;
+                StripedStock.Outcome outcome;
+                while ((outcome = stock.tryTake(1)) != StripedStock.Outcome.CLOSED) {
+                    if (outcome == StripedStock.Outcome.TAKEN) {
+                        taken++;
+                    }
+                }
+                return taken;
+            }));
+        }
+
+        start.countDown();
+        Thread.sleep(20);
+        long remainder = stock.close();
+        long taken = 0;
+        for (Future<Long> taker : takers) {
+            taken += taker.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(1_000_000, taken + remainder);
+    }
+}
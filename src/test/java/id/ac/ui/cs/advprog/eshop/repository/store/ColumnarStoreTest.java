@@ -0,0 +1,55 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarStoreTest {
+
+    @Test
+    void totalQuantity_sumsLiveRowsOnly() {
+        ProductColumnarStore store = new ProductColumnarStore();
+        for (int i = 1; i <= 40_000; i++) {
+            store.put(i, product("id-" + i, "P", 1));
+        }
+        store.put(7, product("id-7", "P", 100));
+        store.remove("id-8", 8);
+        store.remove("id-30000", 30_000);
+
+        assertEquals(40_000 - 2 + 99, store.totalQuantity());
+        assertEquals(0, new ProductColumnarStore().totalQuantity());
+    }
+
+    @Test
+    void strings_roundTripLongAndHugeValues() {
+        ProductRepository repository = new ProductRepository(StorageLayout.COLUMNAR);
+        String longName = "x".repeat(300);
+        String hugeName = "y".repeat(3 << 20);
+        repository.create(product("long", longName, 3));
+        repository.create(product("huge", hugeName, 4));
+
+        assertEquals(longName, repository.findById("long").getProductName());
+        assertEquals(hugeName, repository.findById("huge").getProductName());
+    }
+
+    @Test
+    void carRepository_encodesColorsThroughDictionary() {
+        CarRepository repository = new CarRepository(StorageLayout.COLUMNAR);
+        for (int i = 0; i < 10; i++) {
+            Car car = new Car();
+            car.setId("car-" + i);
+            car.setCarName("Car " + i);
+            car.setCarColor(i % 2 == 0 ? new String("Red") : null);
+            car.setCarQuantity(i);
+            repository.create(car);
+        }
+
+        Car even = repository.findById("car-2");
+        assertSame(even.getCarColor(), repository.findById("car-4").getCarColor());
+        assertNotSame(even, repository.findById("car-2"));
+    }
+}
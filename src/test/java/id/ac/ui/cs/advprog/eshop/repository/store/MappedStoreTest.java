@@ -0,0 +1,181 @@
+package id.ac.ui.cs.advprog.eshop.repository.store;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private ProductRepository openProducts() {
+        return new ProductRepository(StorageLayout.MAPPED, directory);
+    }
+
+    private static List<String> ids(ProductRepository repository) {
+        List<String> ids = new ArrayList<>();
+        repository.findAll().forEachRemaining(product -> ids.add(product.getId()));
+        return ids;
+    }
+
+    @Test
+    void reopen_keepsEntitiesOrderAndNumbering() throws IOException {
+        try (ProductRepository before = openProducts()) {
+            before.create(product("id-1", "Sampo", 1));
+            before.create(product("id-2", "Sabun", 2));
+            before.create(product("id-3", "Sikat", 3));
+            before.update("id-1", product("id-1", "Sampo Cap Bambang", 10));
+            before.delete("id-2");
+        }
+
+        try (ProductRepository after = openProducts()) {
+            assertEquals(List.of("id-1", "id-3"), ids(after));
+            assertEquals("Sampo Cap Bambang", after.findById("id-1").getProductName());
+            assertEquals(10, after.findById("id-1").getProductQuantity());
+            assertThrows(IllegalArgumentException.class, () -> after.findById("id-2"));
+
+            after.create(product("id-4", "Sisir", 4));
+            assertEquals(List.of("id-1", "id-3", "id-4"), ids(after));
+        }
+    }
+
+    @Test
+    void search_findsEntitiesStoredBeforeReopening() throws IOException {
+        try (ProductRepository before = openProducts()) {
+            before.create(product("id-1", "Sampo Cap Bambang", 1));
+            before.create(product("id-2", "Sabun Cap Usep", 2));
+        }
+
+        try (ProductRepository after = openProducts()) {
+            after.update("id-2", product("id-2", "Sabun Wangi", 2));
+
+            assertEquals("id-1", after.search("bambang", 5).get(0).getId());
+            assertEquals("id-2", after.search("wangi", 5).get(0).getId());
+            assertTrue(after.search("usep", 5).isEmpty());
+        }
+    }
+
+    @Test
+    void delete_reusesFreedSlotsWithoutBreakingOrder() throws IOException {
+        try (ProductRepository repository = openProducts()) {
+            for (int i = 0; i < 100; i++) {
+                repository.create(product("id-" + i, "P" + i, i));
+            }
+            for (int i = 0; i < 100; i += 2) {
+                repository.delete("id-" + i);
+            }
+            for (int i = 100; i < 150; i++) {
+                repository.create(product("id-" + i, "P" + i, i));
+            }
+
+            List<String> ids = ids(repository);
+            assertEquals(100, ids.size());
+            assertEquals("id-1", ids.get(0));
+            assertEquals("id-149", ids.get(ids.size() - 1));
+        }
+        try (ProductRepository reopened = openProducts()) {
+            assertEquals("P120", reopened.findById("id-120").getProductName());
+        }
+    }
+
+    @Test
+    void index_growsPastItsInitialCapacity_andIsReusedAfterReopening() throws IOException {
+        try (ProductRepository repository = openProducts()) {
+            for (int i = 0; i < 3000; i++) {
+                repository.create(product("id-" + i, "P" + i, i));
+            }
+            for (int i = 0; i < 3000; i += 3) {
+                repository.delete("id-" + i);
+            }
+        }
+
+        try (ProductRepository reopened = openProducts()) {
+            assertEquals(2000, ids(reopened).size());
+            assertEquals("P2999", reopened.findById("id-2999").getProductName());
+            assertThrows(IllegalArgumentException.class, () -> reopened.findById("id-2997"));
+            reopened.create(product("id-2997", "Back", 1));
+            assertEquals("Back", reopened.findById("id-2997").getProductName());
+        }
+    }
+
+    @Test
+    void open_withoutCleanClose_rebuildsIndexAndFreeList() throws IOException {
+        ProductRepository crashed = openProducts();
+        for (int i = 0; i < 5_000; i++) {
+            crashed.create(product("id-" + i, "P" + i, i));
+        }
+        crashed.delete("id-10");
+        // The first instance is never closed, as if the process had died
+
+        try (ProductRepository recovered = openProducts()) {
+            assertEquals(4_999, recovered.streamAll().count());
+            assertEquals("P4999", recovered.findById("id-4999").getProductName());
+            assertThrows(IllegalArgumentException.class, () -> recovered.findById("id-10"));
+
+            recovered.create(product("id-new", "New", 1));
+            assertEquals("id-new", ids(recovered).get(4_999));
+        }
+    }
+
+    @Test
+    void open_rejectsOtherFormatVersion() throws IOException {
+        new ProductMappedStore(directory).close();
+        try (FileChannel file = FileChannel.open(directory.resolve("products.store"), StandardOpenOption.WRITE)) {
+            ByteBuffer version = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            file.write(version.putInt(0, MappedStore.FORMAT_VERSION + 1), 4);
+        }
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> new ProductMappedStore(directory));
+        assertTrue(e.getCause().getMessage().contains("format version"));
+    }
+
+    @Test
+    void put_rejectsValuesLongerThanTheirSlotField() throws IOException {
+        try (ProductRepository repository = openProducts()) {
+            repository.create(product("id-1", "Sampo", 1));
+            Product tooLong = product("id-1", "x".repeat(ProductMappedStore.NAME_CAPACITY + 1), 2);
+
+            assertThrows(IllegalArgumentException.class, () -> repository.update("id-1", tooLong));
+            assertThrows(IllegalArgumentException.class,
+                    () -> repository.create(product("i".repeat(MappedStore.ID_CAPACITY + 1), "P", 1)));
+            assertEquals("Sampo", repository.findById("id-1").getProductName());
+            assertEquals(1, repository.findById("id-1").getProductQuantity());
+        }
+    }
+
+    @Test
+    void carRepository_storesEveryField() throws IOException {
+        Car car = new Car();
+        car.setId("car-\u00e9");
+        car.setCarName("Avanza");
+        car.setCarColor(null);
+        car.setCarQuantity(3);
+        try (CarRepository cars = new CarRepository(StorageLayout.MAPPED, directory)) {
+            cars.create(car);
+        }
+
+        try (CarRepository cars = new CarRepository(StorageLayout.MAPPED, directory)) {
+            Car found = cars.findById("car-\u00e9");
+            assertEquals("Avanza", found.getCarName());
+            assertNull(found.getCarColor());
+            assertEquals(3, found.getCarQuantity());
+        }
+    }
+}
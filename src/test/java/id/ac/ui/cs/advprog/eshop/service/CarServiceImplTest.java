@@ -1,7 +1,9 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -11,6 +13,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -62,13 +65,110 @@ class CarServiceImplTest {
     @Test
     void update_delegates() {
         Car c = new Car(); c.setId("c1");
+        when(carRepository.update("c1", c)).thenReturn(c);
         service.update("c1", c);
         verify(carRepository).update("c1", c);
     }
 
+    @Test
+    void update_missingCar_throwsNotFound() {
+        Car c = new Car(); c.setId("c1");
+        assertThrows(EntityNotFoundException.class, () -> service.update("c1", c));
+    }
+
     @Test
     void deleteById_delegates() {
         service.deleteById("c1");
         verify(carRepository).delete("c1");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findPage_delegatesToRepository() {
+        Page<Car> page = new Page<>(List.of(), null);
+        when(carRepository.findPage("5", 20)).thenReturn(page);
+
+        assertSame(page, service.findPage("5", 20));
+        verify(carRepository).findPage("5", 20);
+    }
+
+    @Test
+    void streamAll_delegatesToRepository() {
+        Car item = new Car(); item.setId("1");
+        when(carRepository.streamAll()).thenReturn(Stream.of(item));
+
+        assertEquals(List.of(item), service.streamAll().toList());
+        verify(carRepository).streamAll();
+    }
+
+    @Test
+    void search_delegatesToRepository() {
+        Car item = new Car(); item.setId("1");
+        when(carRepository.search("q", 10)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), service.search("q", 10));
+        verify(carRepository).search("q", 10);
+    }
+
+    @Test
+    void findById_isServedFromCacheUntilUpdated() {
+        Car item = new Car(); item.setId("x");
+        when(carRepository.findById("x")).thenReturn(item);
+
+        service.findById("x");
+        service.findById("x");
+        verify(carRepository, times(1)).findById("x");
+
+        when(carRepository.update("x", item)).thenReturn(item);
+        service.update("x", item);
+        assertSame(item, service.findById("x"));
+        verify(carRepository, times(2)).findById("x");
+        assertEquals(1, service.cacheStats().hits());
+    }
+
+    @Test
+    void findAll_isServedFromCacheUntilCreate() {
+        Car first = new Car(); first.setId("1");
+        Car second = new Car(); second.setId("2");
+        when(carRepository.findAll())
+                .thenReturn(List.of(first).iterator())
+                .thenReturn(List.of(first, second).iterator());
+
+        assertEquals(1, service.findAll().size());
+        assertEquals(1, service.findAll().size());
+
+        service.create(second);
+        assertEquals(2, service.findAll().size());
+        verify(carRepository, times(2)).findAll();
+    }
+
+    @Test
+    void deleteById_dropsCachedEntity() {
+        Car item = new Car(); item.setId("x");
+        when(carRepository.findById("x")).thenReturn(item);
+        service.findById("x");
+
+        service.deleteById("x");
+        service.findById("x");
+
+        verify(carRepository, times(2)).findById("x");
+    }
+
+    @Test
+    void batchWrites_delegateToRepository_andDropCachedEntities() {
+        Car item = new Car(); item.setId("x");
+        List<Car> batch = List.of(item);
+        when(carRepository.createAll(batch)).thenReturn(batch);
+        when(carRepository.findById("x")).thenReturn(item);
+
+        assertSame(batch, service.createAll(batch));
+        service.findById("x");
+        service.updateAll(batch);
+        service.findById("x");
+        service.deleteAllById(List.of("x"));
+        service.findById("x");
+
+        verify(carRepository).updateAll(batch);
+        verify(carRepository).deleteAll(List.of("x"));
+        verify(carRepository, times(3)).findById("x");
+    }
+}
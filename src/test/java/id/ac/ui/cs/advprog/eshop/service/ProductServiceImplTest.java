@@ -1,6 +1,7 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -82,4 +84,93 @@ class ProductServiceImplTest {
         service.deleteById("x");
         verify(productRepository, times(1)).delete("x");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findPage_delegatesToRepository() {
+        Page<Product> page = new Page<>(List.of(), null);
+        when(productRepository.findPage("5", 20)).thenReturn(page);
+
+        assertSame(page, service.findPage("5", 20));
+        verify(productRepository).findPage("5", 20);
+    }
+
+    @Test
+    void streamAll_delegatesToRepository() {
+        Product item = new Product(); item.setId("1");
+        when(productRepository.streamAll()).thenReturn(Stream.of(item));
+
+        assertEquals(List.of(item), service.streamAll().toList());
+        verify(productRepository).streamAll();
+    }
+
+    @Test
+    void search_delegatesToRepository() {
+        Product item = new Product(); item.setId("1");
+        when(productRepository.search("q", 10)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), service.search("q", 10));
+        verify(productRepository).search("q", 10);
+    }
+
+    @Test
+    void findById_isServedFromCacheUntilUpdated() {
+        Product item = new Product(); item.setId("x");
+        when(productRepository.findById("x")).thenReturn(item);
+
+        service.findById("x");
+        service.findById("x");
+        verify(productRepository, times(1)).findById("x");
+
+        service.update("x", item);
+        assertSame(item, service.findById("x"));
+        verify(productRepository, times(2)).findById("x");
+        assertEquals(1, service.cacheStats().hits());
+    }
+
+    @Test
+    void findAll_isServedFromCacheUntilCreate() {
+        Product first = new Product(); first.setId("1");
+        Product second = new Product(); second.setId("2");
+        when(productRepository.findAll())
+                .thenReturn(List.of(first).iterator())
+                .thenReturn(List.of(first, second).iterator());
+
+        assertEquals(1, service.findAll().size());
+        assertEquals(1, service.findAll().size());
+
+        service.create(second);
+        assertEquals(2, service.findAll().size());
+        verify(productRepository, times(2)).findAll();
+    }
+
+    @Test
+    void deleteById_dropsCachedEntity() {
+        Product item = new Product(); item.setId("x");
+        when(productRepository.findById("x")).thenReturn(item);
+        service.findById("x");
+
+        service.deleteById("x");
+        service.findById("x");
+
+        verify(productRepository, times(2)).findById("x");
+    }
+
+    @Test
+    void batchWrites_delegateToRepository_andDropCachedEntities() {
+        Product item = new Product(); item.setId("x");
+        List<Product> batch = List.of(item);
+        when(productRepository.createAll(batch)).thenReturn(batch);
+        when(productRepository.findById("x")).thenReturn(item);
+
+        assertSame(batch, service.createAll(batch));
+        service.findById("x");
+        service.updateAll(batch);
+        service.findById("x");
+        service.deleteAllById(List.of("x"));
+        service.findById("x");
+
+        verify(productRepository).updateAll(batch);
+        verify(productRepository).deleteAll(List.of("x"));
+        verify(productRepository, times(3)).findById("x");
+    }
+}
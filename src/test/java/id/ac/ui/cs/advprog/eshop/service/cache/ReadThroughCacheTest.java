@@ -0,0 +1,176 @@
+package id.ac.ui.cs.advprog.eshop.service.cache;
+
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadThroughCacheTest {
+
+    private static <V> Supplier<V> counting(AtomicInteger loads, V value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    @Test
+    void findById_loadsOnceAndCountsHitsAndMisses() {
+        ReadThroughCache<Product> cache = new ReadThroughCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        Product product = product("a", null, 0);
+
+        assertSame(product, cache.findById("a", counting(loads, product)));
+        assertSame(product, cache.findById("a", counting(loads, product)));
+
+        assertEquals(1, loads.get());
+        assertEquals(new CacheStats(1, 1, 0, 1), cache.stats());
+    }
+
+    @Test
+    void updated_dropsOnlyThatEntity() {
+        ReadThroughCache<Product> cache = new ReadThroughCache<>(10);
+        AtomicInteger loadsA = new AtomicInteger();
+        AtomicInteger loadsB = new AtomicInteger();
+        cache.findById("a", counting(loadsA, product("a", null, 0)));
+        cache.findById("b", counting(loadsB, product("b", null, 0)));
+
+        cache.updated("a");
+        cache.findById("a", counting(loadsA, product("a", null, 0)));
+        cache.findById("b", counting(loadsB, product("b", null, 0)));
+
+        assertEquals(2, loadsA.get());
+        assertEquals(1, loadsB.get());
+    }
+
+    @Test
+    void created_dropsLastPageButKeepsFullPages() {
+        ReadThroughCache<Product> cache = new ReadThroughCache<>(10);
+        AtomicInteger firstLoads = new AtomicInteger();
+        AtomicInteger lastLoads = new AtomicInteger();
+        Page<Product> first = new Page<>(List.of(product("a", null, 0), product("b", null, 0)), "2");
+        Page<Product> last = new Page<>(List.of(product("c", null, 0)), null);
+        cache.findPage(null, 2, counting(firstLoads, first));
+        cache.findPage("2", 2, counting(lastLoads, last));
+
+        cache.created("d");
+        cache.findPage(null, 2, counting(firstLoads, first));
+        cache.findPage("2", 2, counting(lastLoads, last));
+
+        assertEquals(1, firstLoads.get());
+        assertEquals(2, lastLoads.get());
+    }
+
+    @Test
+    void deleted_dropsPagesHoldingTheEntity() {
+        ReadThroughCache<Product> cache = new ReadThroughCache<>(10);
+        AtomicInteger firstLoads = new AtomicInteger();
+        AtomicInteger lastLoads = new AtomicInteger();
+        Page<Product> first = new Page<>(List.of(product("a", null, 0), product("b", null, 0)), "2");
+        Page<Product> last = new Page<>(List.of(product("c", null, 0)), null);
+        cache.findPage(null, 2, counting(firstLoads, first));
+        cache.findPage("2", 2, counting(lastLoads, last));
+
+        cache.deleted("b");
+        cache.findPage(null, 2, counting(firstLoads, first));
+        cache.findPage("2", 2, counting(lastLoads, last));
+
+        assertEquals(2, firstLoads.get());
+        assertEquals(1, lastLoads.get());
+    }
+
+    @Test
+    void anyWrite_dropsFullListingAndSearchResults() {
+        ReadThroughCache<Product> cache = new ReadThroughCache<>(10);
+        AtomicInteger allLoads = new AtomicInteger();
+        AtomicInteger searchLoads = new AtomicInteger();
+        cache.findAll(counting(allLoads, List.of(product("a", null, 0))));
+        cache.search("a", 5, counting(searchLoads, List.of(product("a", null, 0))));
+
+        cache.updated("unrelated");
+        cache.findAll(counting(allLoads, List.of(product("a", null, 0))));
+        cache.search("a", 5, counting(searchLoads, List.of(product("a", null, 0))));
+
+        assertEquals(2, allLoads.get());
+        assertEquals(2, searchLoads.get());
+    }
+
+    @Test
+    void findAll_returnsUnmodifiableList() {
+        ReadThroughCache<Product> cache = new ReadThroughCache<>(10);
+        List<Product> all = cache.findAll(() -> new ArrayList<>(List.of(product("a", null, 0))));
+
+        assertThrows(UnsupportedOperationException.class, () -> all.add(product("b", null, 0)));
+    }
+
+    @Test
+    void maximumSize_evictsLeastRecentlyUsed() {
+        ReadThroughCache<Product> cache = new ReadThroughCache<>(2);
+        AtomicInteger loadsA = new AtomicInteger();
+        AtomicInteger loadsB = new AtomicInteger();
+        cache.findById("a", counting(loadsA, product("a", null, 0)));
+        cache.findById("b", counting(loadsB, product("b", null, 0)));
+        cache.findById("a", counting(loadsA, product("a", null, 0)));
+        cache.findById("c", () -> product("c", null, 0));
+
+        cache.findById("a", counting(loadsA, product("a", null, 0)));
+        cache.findById("b", counting(loadsB, product("b", null, 0)));
+
+        assertEquals(1, loadsA.get());
+        assertEquals(2, loadsB.get());
+        assertTrue(cache.stats().evictions() >= 1);
+        assertEquals(2, cache.stats().size());
+    }
+
+    @Test
+    void maximumSize_holdsBeyondTheEvictionSample() {
+        int size = ReadThroughCache.EVICTION_SAMPLE * 4;
+        ReadThroughCache<Product> cache = new ReadThroughCache<>(size);
+        AtomicInteger hotLoads = new AtomicInteger();
+        for (int i = 0; i < size * 10; i++) {
+            cache.findById("hot", counting(hotLoads, product("hot", null, 0)));
+            cache.findById(String.valueOf(i), () -> product("cold", null, 0));
+        }
+
+        assertEquals(size, cache.stats().size());
+        assertEquals(size * 10 + 1 - size, cache.stats().evictions());
+        assertTrue(hotLoads.get() < 10);
+    }
+
+    @Test
+    void resultLoadedDuringWrite_isNotCached() {
+        ReadThroughCache<Product> cache = new ReadThroughCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.findById("a", () -> {
+            loads.incrementAndGet();
+            cache.updated("a");
+            return product("a", null, 0);
+        });
+        cache.findById("a", counting(loads, product("a", null, 0)));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failedLoad_isNotCached() {
+        ReadThroughCache<Product> cache = new ReadThroughCache<>(10);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.findById("a", () -> {
+            throw new IllegalArgumentException("missing");
+        }));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ReadThroughCache<Product>(0));
+    }
+}
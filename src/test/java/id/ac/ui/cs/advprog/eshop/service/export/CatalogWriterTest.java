@@ -0,0 +1,78 @@
+package id.ac.ui.cs.advprog.eshop.service.export;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.service.importer.RecordFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static id.ac.ui.cs.advprog.eshop.model.TestEntities.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogWriterTest {
+
+    private static <T> String write(CatalogWriter<T> writer, List<T> entities, RecordFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(entities.iterator(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void csv_writesHeaderAndQuotesOnlyWhereNeeded() throws IOException {
+        String csv = write(CatalogWriter.PRODUCTS, List.of(
+                product("id-1", "Sampo", 3),
+                product("id-2", "Cap \"Bambang\", 1L", 4),
+                product("id-3", "two\nlines", 5)), RecordFormat.CSV);
+
+        assertEquals("id,productName,productQuantity\r\n"
+                + "id-1,Sampo,3\r\n"
+                + "id-2,\"Cap \"\"Bambang\"\", 1L\",4\r\n"
+                + "id-3,\"two\nlines\",5\r\n", csv);
+    }
+
+    @Test
+    void csv_nullFieldIsEmpty() throws IOException {
+        Car car = new Car();
+        car.setId("c1");
+        car.setCarName("A");
+        car.setCarQuantity(1);
+
+        assertEquals("id,carName,carColor,carQuantity\r\nc1,A,,1\r\n",
+                write(CatalogWriter.CARS, List.of(car), RecordFormat.CSV));
+    }
+
+    @Test
+    void csv_emptyCatalogIsJustTheHeader() throws IOException {
+        assertEquals("id,productName,productQuantity\r\n",
+                write(CatalogWriter.PRODUCTS, Collections.emptyList(), RecordFormat.CSV));
+    }
+
+    @Test
+    void ndjson_writesOneObjectPerLine() throws IOException {
+        String ndjson = write(CatalogWriter.PRODUCTS, List.of(
+                product("id-1", "Sampo", 3),
+                product("id-2", "Cap \"B\"", 4)), RecordFormat.NDJSON);
+
+        assertEquals("{\"id\":\"id-1\",\"productName\":\"Sampo\",\"productQuantity\":3}\n"
+                + "{\"id\":\"id-2\",\"productName\":\"Cap \\\"B\\\"\",\"productQuantity\":4}\n", ndjson);
+    }
+
+    @Test
+    void write_leavesOutputOpen() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                fail("Output must not be closed");
+            }
+        };
+
+        CatalogWriter.PRODUCTS.write(List.of(product("id-1", "Sampo", 3)).iterator(), RecordFormat.NDJSON, out);
+        CatalogWriter.PRODUCTS.write(List.of(product("id-2", "Cap", 4)).iterator(), RecordFormat.CSV, out);
+
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("id-2,Cap,4\r\n"));
+    }
+}
@@ -0,0 +1,249 @@
+package id.ac.ui.cs.advprog.eshop.service.importer;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.base.WriteService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingImporterTest {
+
+    private static final ExecutorService POOL = StreamingImporter.workerPool();
+
+    /**
+     * Collects inserted batches; fails any batch containing a product named "boom".
+     */
+    private static class RecordingService implements WriteService<Product> {
+        final ConcurrentLinkedQueue<List<Product>> batches = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public List<Product> createAll(List<Product> entities) {
+            if (entities.stream().anyMatch(product -> "boom".equals(product.getProductName()))) {
+                throw new IllegalStateException("disk full");
+            }
+            batches.add(entities);
+            return entities;
+        }
+
+        List<Product> products() {
+            List<Product> all = new ArrayList<>();
+            batches.forEach(all::addAll);
+            all.sort(Comparator.comparing(Product::getProductName));
+            return all;
+        }
+
+        @Override
+        public Product create(Product entity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void update(String id, Product entity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void updateAll(List<Product> entities) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteById(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteAllById(List<String> ids) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ImportReport run(RecordingService service, String text, RecordFormat format) throws IOException {
+        return new StreamingImporter<>(service, ImportService::toProduct, POOL, 3, 2).run(input(text), format);
+    }
+
+    @Test
+    void csv_importsRowsInBatches_andHandlesQuoting() throws IOException {
+        RecordingService service = new RecordingService();
+        String csv = "\uFEFFid,productName,productQuantity\r\n"
+                + "p-1,Sampo,10\r\n"
+                + "\r\n"
+                + ",\"Sabun, \"\"Wangi\"\"\",5\n"
+                + "p-3,\"Two\nLines\",7";
+
+        ImportReport report = run(service, csv, RecordFormat.CSV);
+
+        assertEquals(3, report.rows());
+        assertEquals(3, report.imported());
+        assertEquals(0, report.rejected());
+        assertTrue(report.rowsPerSecond() > 0);
+        List<Product> products = service.products();
+        assertEquals("Sabun, \"Wangi\"", products.get(0).getProductName());
+        assertNull(products.get(0).getId());
+        assertEquals("Sampo", products.get(1).getProductName());
+        assertEquals("p-1", products.get(1).getId());
+        assertEquals("Two\nLines", products.get(2).getProductName());
+        assertTrue(service.batches.stream().allMatch(batch -> batch.size() <= 2));
+    }
+
+    @Test
+    void csv_rejectsInvalidRows_andKeepsGoing() throws IOException {
+        RecordingService service = new RecordingService();
+        String csv = "productName,productQuantity\n"
+                + "A,1\n"
+                + ",2\n"
+                + "B,many\n"
+                + "C,-1\n"
+                + "D,4,extra\n"
+                + "E,5\n";
+
+        ImportReport report = run(service, csv, RecordFormat.CSV);
+
+        assertEquals(6, report.rows());
+        assertEquals(2, report.imported());
+        assertEquals(4, report.rejected());
+        assertEquals(List.of(2L, 3L, 4L, 5L), report.rejections().stream().map(ImportReport.Rejection::row).toList());
+        assertEquals("Missing productName.", report.rejections().get(0).reason());
+        assertEquals("Expected 2 columns but found 3.", report.rejections().get(3).reason());
+    }
+
+    @Test
+    void failedInsert_rejectsTheBatchRows() throws IOException {
+        RecordingService service = new RecordingService();
+        String csv = "productName,productQuantity\nA,1\nboom,2\nC,3\n";
+
+        ImportReport report = run(service, csv, RecordFormat.CSV);
+
+        assertEquals(1, report.imported());
+        assertEquals(2, report.rejected());
+        assertEquals("Insert failed: disk full", report.rejections().get(0).reason());
+    }
+
+    @Test
+    void csv_unterminatedQuoteAbortsImport() {
+        RecordingService service = new RecordingService();
+        String csv = "productName,productQuantity\nA,1\n\"never closed,2\n";
+
+        assertThrows(IOException.class, () -> run(service, csv, RecordFormat.CSV));
+    }
+
+    @Test
+    void ndjson_importsObjects_andRejectsBadLines() throws IOException {
+        RecordingService service = new RecordingService();
+        String ndjson = "{\"id\":\"p-1\",\"productName\":\"Kecap\",\"productQuantity\":3}\n"
+                + "\n"
+                + "{\"productName\":\"Teh\",\"productQuantity\":\"4\"}\r\n"
+                + "not json\n"
+                + "[1,2]\n";
+
+        ImportReport report = run(service, ndjson, RecordFormat.NDJSON);
+
+        assertEquals(4, report.rows());
+        assertEquals(2, report.imported());
+        assertEquals(2, report.rejected());
+        assertEquals(4, service.products().get(1).getProductQuantity());
+        assertTrue(report.rejections().get(0).reason().startsWith("Invalid JSON"));
+        assertEquals("Expected a JSON object.", report.rejections().get(1).reason());
+    }
+
+    @Test
+    void largeInput_isStreamedThroughWorkers() throws IOException {
+        RecordingService service = new RecordingService();
+        int rows = 50_000;
+        List<InputStream> parts = new ArrayList<>();
+        parts.add(input("productName,productQuantity\n"));
+        for (int i = 0; i < rows; i++) {
+            parts.add(input("Product " + i + "," + i + "\n"));
+        }
+
+        ImportReport report = new StreamingImporter<>(service, ImportService::toProduct, POOL, 4, 1_000)
+                .run(new SequenceInputStream(Collections.enumeration(parts)), RecordFormat.CSV);
+
+        assertEquals(rows, report.imported());
+        assertEquals(rows / 1_000, service.batches.size());
+    }
+
+    @Test
+    void manyRejections_reportTheLowestRows() throws IOException {
+        StringBuilder csv = new StringBuilder("productName,productQuantity\n");
+        for (int i = 0; i < 1_000; i++) {
+            csv.append("P").append(i).append(",bad\n");
+        }
+
+        ImportReport report = new StreamingImporter<>(new RecordingService(), ImportService::toProduct, POOL, 8, 3)
+                .run(input(csv.toString()), RecordFormat.CSV);
+
+        assertEquals(1_000, report.rejected());
+        assertEquals(StreamingImporter.MAX_REPORTED_REJECTIONS, report.rejections().size());
+        for (int i = 0; i < report.rejections().size(); i++) {
+            assertEquals(i + 1, report.rejections().get(i).row());
+        }
+    }
+
+    @Test
+    void deadWorkers_failTheImportInsteadOfBlockingIt() {
+        ExecutorService pool = StreamingImporter.workerPool();
+        WriteService<Product> dying = new RecordingService() {
+            @Override
+            public List<Product> createAll(List<Product> entities) {
+                throw new AssertionError("worker died");
+            }
+        };
+        StringBuilder csv = new StringBuilder("productName,productQuantity\n");
+        for (int i = 0; i < 10_000; i++) {
+            csv.append("P").append(i).append(",1\n");
+        }
+
+        IllegalStateException failure = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(
+                IllegalStateException.class,
+                () -> new StreamingImporter<>(dying, ImportService::toProduct, pool, 2, 10)
+                        .run(input(csv.toString()), RecordFormat.CSV)));
+
+        assertInstanceOf(AssertionError.class, failure.getCause());
+        pool.shutdown();
+    }
+
+    @Test
+    void interruptedImport_stopsItsWorkers() throws InterruptedException {
+        ExecutorService pool = StreamingImporter.workerPool();
+        String csv = "productName,productQuantity\nA,1\nB,2\nC,3\n";
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedIOException.class,
+                    () -> new StreamingImporter<>(new RecordingService(), ImportService::toProduct, pool, 2, 1)
+                            .run(input(csv), RecordFormat.CSV));
+        } finally {
+            Thread.interrupted();
+        }
+
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void recordFormat_resolvesContentTypes() {
+        assertEquals(RecordFormat.CSV, RecordFormat.fromContentType("text/csv; charset=UTF-8"));
+        assertEquals(RecordFormat.NDJSON, RecordFormat.fromContentType("application/x-ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> RecordFormat.fromContentType("application/json"));
+    }
+}